@@ -12,6 +12,9 @@ class MenuController {
                             
             """;
 
+    // The main menu option which exits the application
+    protected final static int EXIT_OPTION = 12;
+
     /**
      * Get the main menu
      *
@@ -24,7 +27,26 @@ class MenuController {
                 3. Remove from your to-do list
                 4. Clear to-do list
                 5. Update to-do list
-                6. Exit application""";
+                6. Filter your to-do list
+                7. View your to-do list page by page
+                8. Search your to-do list
+                9. Import items from a file
+                10. Export items to a file
+                11. Update the status of many items at once
+                12. Exit application""";
+    }
+
+    /**
+     * Get the page menu
+     *
+     * @return pageMenu
+     */
+    protected String getPageMenu() {
+        return """
+                \n1. Next page
+                2. Previous page
+                3. Jump to page
+                4. Return to main menu""";
     }
 
     /**
@@ -66,7 +88,8 @@ class MenuController {
         System.out.println(menu);
         try {
             int option = Integer.parseInt(reader.getNextText("\nEnter an option:"));
-            if (option <= 0 || option >= 7) {
+            // Each line of the menu is one option
+            if (option <= 0 || option > menu.strip().lines().count()) {
                 throw new InvalidOptionException("Invalid option.");
             }
             // Option was parsed to an Integer, and can be returned
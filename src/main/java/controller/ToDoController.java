@@ -1,9 +1,14 @@
 package controller;
 
+import dao.ToDoListStores;
 import exceptions.InvalidItemTitleException;
 import exceptions.InvalidOptionException;
+import exceptions.ListItemConflictException;
 import exceptions.ListItemNotFoundException;
+import model.ItemEditSession;
+import model.ListItemPager;
 import model.ToDoList;
+import reminder.ConsoleReminderSink;
 import types.ItemStatus;
 import util.InputReader;
 import exceptions.InvalidItemStatusException;
@@ -28,6 +33,14 @@ public class ToDoController {
         // Instantiate the instance variables
         this.reader = new InputReader();
         this.toDoList = new ToDoList();
+        if (ToDoListStores.getBooleanSetting("view.index", false)) {
+            // Serve the next due, status and overdue views from memory
+            this.toDoList.useItemIndex();
+        }
+        if (ToDoListStores.getBooleanSetting("reminder.enabled", false)) {
+            // Print a reminder when an item comes due, or becomes overdue
+            this.toDoList.startReminders(new ConsoleReminderSink());
+        }
 
         // Begin the application
         start();
@@ -53,7 +66,7 @@ public class ToDoController {
                 e.printStackTrace();
                 option = 0;
             }
-        } while (option != 6);
+        } while (option != MenuController.EXIT_OPTION);
         System.out.println("Exiting the application...");
     }
 
@@ -75,6 +88,7 @@ public class ToDoController {
 
     /**
      * Attempts to update a ListItem based on the user input
+     * Edits are collected in an ItemEditSession, and saved together when the user returns to the main menu
      */
     private void updateToDoList() {
 
@@ -83,15 +97,98 @@ public class ToDoController {
 
         try {
             listItemSelected = this.toDoList.getListItem(this.reader.getNextText("\nEnter the list item title")); // Attempt to retrieve a list item with the passed title
-            do {
+        } catch (ListItemNotFoundException | InvalidItemTitleException e) {
+            e.printStackTrace();
+            return;
+        }
+        ItemEditSession session = this.toDoList.beginEdit(listItemSelected);
+        do {
+            try {
                 // Print out the passed menu, and return the input from the user
                 option = printMenuReturnInput(this.menuController.getItemEditorMenu());
+            } catch (InvalidOptionException e) {
+                e.printStackTrace();
+                option = 0;
+                continue;
+            }
+            if (option != 5) {
                 // Update the ListItem with the selected option
                 updateItem(listItemSelected, option);
+                System.out.println(listItemSelected.getTitle() + " has been updated.");
+            }
+        } while (option != 5);
+
+        // Save every edit made in the editor together
+        if (saveEdits(session)) {
+            System.out.println(listItemSelected.getTitle() + " has been saved.");
+        } else {
+            System.out.println("The changes to " + listItemSelected.getTitle() + " could not be saved, and have been discarded.");
+        }
+    }
+
+    /**
+     * Saves the edits made in the editor. If someone else saved the item first, the user can reload
+     * the latest version, which the edits are applied to again, and retry; or discard the edits
+     *
+     * @param session holding the edits
+     * @return true if the edits were saved
+     */
+    private boolean saveEdits(ItemEditSession session) {
+        while (true) {
+            try {
+                return session.commit();
+            } catch (ListItemConflictException e) {
+                System.out.println("\n" + e.getMessage() + ".");
+                if (!this.reader.getNextText("\nReload the item, and apply your changes to it again? [y/n]").trim().equalsIgnoreCase("y")) {
+                    session.rollback();
+                    return false;
+                }
+            }
+            try {
+                session.reload();
+                this.toDoList.printItem(session.getItem());
+            } catch (ListItemNotFoundException e) {
+                e.printStackTrace();
+                session.rollback();
+                return false;
+            }
+        }
+    }
 
-                System.out.println(listItemSelected.getTitle() + " has been updated and saved.");
-            } while (option != 5);
-        } catch (ListItemNotFoundException | InvalidItemTitleException | InvalidOptionException e) {
+    /**
+     * Shows the to-do list one page at a time, until the user returns to the main menu
+     */
+    private void viewPages() {
+        ListItemPager pager = this.toDoList.beginPaging();
+        this.toDoList.printPage(pager, pager.firstPage());
+        int option;
+        do {
+            try {
+                // Print out the passed menu, and return the input from the user
+                option = printMenuReturnInput(this.menuController.getPageMenu());
+            } catch (InvalidOptionException e) {
+                e.printStackTrace();
+                option = 0;
+                continue;
+            }
+            switch (option) {
+                case 1 -> this.toDoList.printPage(pager, pager.nextPage());
+                case 2 -> this.toDoList.printPage(pager, pager.previousPage());
+                case 3 -> jumpToPage(pager);
+            }
+        } while (option != 4);
+    }
+
+    /**
+     * Requests a page number from the user, and prints that page
+     *
+     * @param pager reading the pages
+     */
+    private void jumpToPage(ListItemPager pager) {
+        try {
+            int page = Integer.parseInt(this.reader.getNextText("\nEnter the page number").trim());
+            this.toDoList.printPage(pager, pager.jumpToPage(page));
+        } catch (NumberFormatException e) {
             e.printStackTrace();
         }
     }
@@ -105,12 +202,8 @@ public class ToDoController {
     private void updateItem(ListItem item, int option) {
         // Print the ListItem
         toDoList.printItem(item);
-        // Remove the ListItem from the database while it's being updated
-        this.toDoList.removeListItem(item);
-        // Begin editing the ListItem
+        // Edit the ListItem. Changes are saved when the edit session is committed
         selectFromEditorMenu(item, option);
-        // Insert the ListItem back into the database
-        this.toDoList.updateListItem(item);
     }
 
     /**
@@ -127,8 +220,10 @@ public class ToDoController {
             option = printMenuReturnInput(this.menuController.getStatusEditorMenu());
             // Retrieve the ItemStatus at the index specified. (-1 since the values begin at index '0')
             ItemStatus status = ItemStatus.getStatus(option - 1);
+            ItemStatus previous = item.getStatus();
             // Update the items status
             item.setStatus(status);
+            System.out.println("\nItem status has been updated: [" + previous + "]" + " -> " + "[" + status + "]");
         } catch (InvalidItemStatusException | InvalidOptionException e) {
             e.printStackTrace();
         }
@@ -146,6 +241,12 @@ public class ToDoController {
             case 3 -> removeToDoItem();
             case 4 -> toDoList.clearAllListItems();
             case 5 -> updateToDoList();
+            case 6 -> toDoList.printFilteredListItems(reader);
+            case 7 -> viewPages();
+            case 8 -> toDoList.printSearchResults(reader);
+            case 9 -> toDoList.importListItems(reader);
+            case 10 -> toDoList.exportListItems(reader);
+            case 11 -> toDoList.updateStatusesInBulk(reader);
         }
     }
 
@@ -0,0 +1,195 @@
+package dao;
+
+import model.ListItem;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+public class AsyncToDoListRepository {
+
+    /*
+     *  The purpose of the AsyncToDoListRepository class is to run store operations in the background,
+     *  so independent operations can overlap. At most one operation runs per pooled connection at a time.
+     *  Every store is safe to share between threads, so the operations all run on the same one.
+     */
+
+    // Runs the operations, shared by every async repository
+    private static ExecutorService executor;
+
+    // Limits the number of operations running at once, across every async repository, to the number of pooled connections
+    private static Semaphore permits;
+
+    // Store the operations run on, shared by every operation
+    private final ToDoListStore store;
+
+    /**
+     * Constructor for the AsyncToDoListRepository
+     * Runs the operations on the configured storage engine
+     */
+    public AsyncToDoListRepository() {
+        this(ToDoListStores.create());
+    }
+
+    /**
+     * Constructor for the AsyncToDoListRepository
+     * Allows as many operations to run at once as the ConnectionPool has connections
+     *
+     * @param store to run the operations on
+     */
+    protected AsyncToDoListRepository(ToDoListStore store) {
+        this.store = store;
+        createShared();
+    }
+
+    /**
+     * Inserts a new ListItem into the database in the background
+     *
+     * @param item to add into the database
+     * @return CompletableFuture completed once the item is stored
+     */
+    public CompletableFuture<Void> addListItem(ListItem item) {
+        return submit(store -> {
+            store.addListItem(item);
+            return null;
+        });
+    }
+
+    /**
+     * Removes a ListItem from the database in the background
+     *
+     * @param title to be removed from the database
+     * @return CompletableFuture completed once the item is removed
+     */
+    public CompletableFuture<Void> removeListItem(String title) {
+        return submit(store -> {
+            store.removeListItem(title);
+            return null;
+        });
+    }
+
+    /**
+     * Searches for a ListItem in the database in the background
+     *
+     * @param title of the ListItem
+     * @return CompletableFuture of the ListItem
+     */
+    public CompletableFuture<ListItem> getItemByTitle(String title) {
+        return submit(store -> store.getItemByTitle(title));
+    }
+
+    /**
+     * Checks whether a list item is present within the todolist table in the background
+     *
+     * @param title of the list item
+     * @return CompletableFuture of true if the item exists, false otherwise
+     */
+    public CompletableFuture<Boolean> doesListItemExist(String title) {
+        return submit(store -> store.doesListItemExist(title));
+    }
+
+    /**
+     * Checks whether each of the titles is present within the todolist table. The checks run concurrently
+     *
+     * @param titles of the list items
+     * @return CompletableFuture of each title, and whether the item exists
+     */
+    public CompletableFuture<Map<String, Boolean>> doListItemsExist(Collection<String> titles) {
+        Map<String, CompletableFuture<Boolean>> checks = new LinkedHashMap<>();
+        titles.forEach(title -> checks.put(title, doesListItemExist(title)));
+        return CompletableFuture.allOf(checks.values().toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            checks.forEach((title, check) -> results.put(title, check.join()));
+            return results;
+        });
+    }
+
+    /**
+     * Get all list items from within the todolist table in the background
+     *
+     * @return CompletableFuture of all items
+     */
+    public CompletableFuture<List<ListItem>> getAllListItems() {
+        return submit(ToDoListStore::getAllListItems);
+    }
+
+    /**
+     * Runs the operation in the background once a permit is available.
+     * Checked exceptions thrown by the operation complete the future exceptionally
+     *
+     * @param operation to run with a store
+     * @return CompletableFuture of the result of the operation
+     */
+    private <T> CompletableFuture<T> submit(Operation<T> operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return withStore(operation);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Waits for a permit, then runs the operation with the store
+     *
+     * @param operation to run
+     * @return result of the operation
+     * @throws Exception thrown by the operation, or if interrupted while waiting
+     */
+    private <T> T withStore(Operation<T> operation) throws Exception {
+        permits.acquire();
+        try {
+            return operation.call(this.store);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Get the maximum number of connections in the ConnectionPool, from connParams.txt
+     *
+     * @return pool size
+     */
+    private static int getPoolSize() {
+        return Math.max(1, new DBConnector().getIntDetail("pool.maxSize", 10));
+    }
+
+    /**
+     * Creates the shared executor and permits if they have not been created already.
+     * Uses a virtual thread per operation when the runtime supports them,
+     * otherwise a fixed number of platform threads matching the size of the ConnectionPool
+     */
+    private static synchronized void createShared() {
+        if (executor != null) {
+            return;
+        }
+        permits = new Semaphore(getPoolSize(), true);
+        try {
+            // Virtual threads are available from Java 21, the application is built for Java 17
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            executor = Executors.newFixedThreadPool(getPoolSize(), runnable -> {
+                Thread thread = new Thread(runnable, "async-repository");
+                thread.setDaemon(true); // Should never keep the application alive
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * An operation run with a store, which may throw checked exceptions
+     *
+     * @param <T> result of the operation
+     */
+    @FunctionalInterface
+    private interface Operation<T> {
+        T call(ToDoListStore store) throws Exception;
+    }
+}
@@ -0,0 +1,87 @@
+package dao;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import model.ListItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+@Getter
+public class BatchInsertResult {
+
+    // Number of ListItem objects stored in the database
+    private int inserted;
+
+    // Each rejected ListItem, and the reason it was rejected, in the order they were rejected.
+    // A batch may hold the same title more than once, so each rejection is kept
+    private final List<Failure> failures = new ArrayList<>();
+
+    // The rejected ListItem objects, compared by identity as titles may repeat
+    @Getter(AccessLevel.NONE)
+    private final Set<ListItem> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Reason the whole batch was rolled back, null if it was committed
+    private String error;
+
+    /**
+     * Records that a number of ListItem objects were stored
+     *
+     * @param count of ListItem objects stored
+     */
+    protected void addInserted(int count) {
+        this.inserted += count;
+    }
+
+    /**
+     * Records that a ListItem was rejected
+     *
+     * @param item   rejected
+     * @param reason it was rejected
+     */
+    protected void addFailure(ListItem item, String reason) {
+        this.failures.add(new Failure(String.valueOf(item.getTitle()), reason));
+        this.rejected.add(item);
+    }
+
+    /**
+     * Records that the whole batch was rolled back, so nothing was stored
+     *
+     * @param error reason the batch was rolled back
+     */
+    protected void rolledBack(String error) {
+        this.inserted = 0;
+        this.error = error;
+    }
+
+    /**
+     * Returns whether the batch was committed
+     *
+     * @return true if the batch was committed
+     */
+    public boolean isCommitted() {
+        return this.error == null;
+    }
+
+    /**
+     * Returns whether the ListItem was stored: the batch was committed, and the item was not rejected
+     *
+     * @param item of the batch
+     * @return true if the item was stored
+     */
+    public boolean wasStored(ListItem item) {
+        return isCommitted() && !this.rejected.contains(item);
+    }
+
+    /**
+     * A rejected ListItem, and the reason it was rejected
+     *
+     * @param title  of the rejected ListItem
+     * @param reason it was rejected
+     */
+    public record Failure(String title, String reason) {
+    }
+}
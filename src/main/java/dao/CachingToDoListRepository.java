@@ -0,0 +1,255 @@
+package dao;
+
+import exceptions.ChangesExpiredException;
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import types.ItemStatus;
+import util.LruCache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+public class CachingToDoListRepository implements ToDoListStore {
+
+    /*
+     *  The purpose of the CachingToDoListRepository class is to serve recently used ListItem objects from memory.
+     *  Reads go to the wrapped store only on a cache miss, and every write updates or invalidates the cached item.
+     *  An item loaded on a miss is only cached if no write completed while it was loaded, so a slow reader
+     *  can never cache an item older than one another thread has just written.
+     */
+
+    // Store the items are read from and written to
+    private final ToDoListStore delegate;
+
+    // Items cached by title, shared by every caching repository so they all see the same writes
+    private static LruCache<String, ListItem> cache;
+
+    // Number of writes completed by every caching repository, counted after the write reaches the store
+    private static final AtomicLong writes = new AtomicLong();
+
+    /**
+     * Constructor for the CachingToDoListRepository
+     * Creates the shared cache with the size and time to live from connParams.txt
+     *
+     * @param delegate store to cache items from
+     */
+    public CachingToDoListRepository(ToDoListStore delegate) {
+        this.delegate = delegate;
+        createCache();
+    }
+
+    /**
+     * Inserts a new ListItem into the store, then removes its title from the cache
+     *
+     * @param item to add into the store
+     * @throws ListItemAlreadyExistsException if an item with the same title is already stored
+     */
+    @Override
+    public void addListItem(ListItem item) throws ListItemAlreadyExistsException {
+        try {
+            this.delegate.addListItem(item);
+        } finally {
+            invalidate(item.getTitle());
+        }
+    }
+
+    /**
+     * Inserts a collection of ListItem objects into the store, and removes their titles from the cache
+     *
+     * @param items to add into the store
+     * @return BatchInsertResult with the number of items stored, and the items rejected
+     */
+    @Override
+    public BatchInsertResult addListItems(Collection<ListItem> items) {
+        try {
+            return this.delegate.addListItems(items);
+        } finally {
+            writes.incrementAndGet();
+            items.forEach(item -> cache.remove(item.getTitle()));
+        }
+    }
+
+    /**
+     * Writes the changed fields of a ListItem to the store, and removes its old and new titles from the cache
+     *
+     * @param item to update in the store
+     * @return true if the changes were saved, false if the transaction was rolled back
+     * @throws ListItemNotFoundException if the list item is not found
+     * @throws ListItemConflictException if the list item has been changed since it was read
+     */
+    @Override
+    public boolean updateListItem(ListItem item) throws ListItemNotFoundException, ListItemConflictException {
+        // The item is cached under the title it was stored with, and saving it replaces that title
+        String originalTitle = item.getOriginalTitle();
+        String title = item.getTitle();
+        try {
+            return this.delegate.updateListItem(item);
+        } finally {
+            invalidate(originalTitle);
+            cache.remove(title);
+        }
+    }
+
+    /**
+     * Sets the status of every ListItem matching the filters of the query in the store, then clears the cache,
+     * as the items changed are not known
+     *
+     * @param query  selecting the items to change
+     * @param status to set
+     * @return number of items changed
+     * @throws InvalidItemStatusException if the status is null
+     */
+    @Override
+    public int updateStatuses(ListItemQuery query, ItemStatus status) throws InvalidItemStatusException {
+        try {
+            return this.delegate.updateStatuses(query, status);
+        } finally {
+            writes.incrementAndGet();
+            cache.clear();
+        }
+    }
+
+    /**
+     * Removes a ListItem from the store, and from the cache
+     *
+     * @param title to be removed from the store
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public void removeListItem(String title) throws ListItemNotFoundException {
+        try {
+            this.delegate.removeListItem(title);
+        } finally {
+            invalidate(title);
+        }
+    }
+
+    /**
+     * Removes all items from the store, and from the cache
+     */
+    @Override
+    public void removeAllItems() {
+        try {
+            this.delegate.removeAllItems();
+        } finally {
+            writes.incrementAndGet();
+            cache.clear();
+        }
+    }
+
+    /**
+     * Returns the cached ListItem, or loads it from the store and caches it
+     * A copy is returned, so edits are not seen by the cache until they are saved
+     *
+     * @param title of the ListItem
+     * @return ListItem or null
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public ListItem getItemByTitle(String title) throws ListItemNotFoundException {
+        ListItem cached = cache.get(title);
+        if (cached != null) {
+            return new ListItem(cached);
+        }
+        long writesBefore = writes.get();
+        ListItem item = this.delegate.getItemByTitle(title);
+        // A write completed while loading may have stored a newer item than the one loaded
+        if (item != null && writes.get() == writesBefore) {
+            cache.put(title, new ListItem(item));
+        }
+        return item;
+    }
+
+    /**
+     * Checks whether a list item is cached, or present within the store
+     *
+     * @param title of the list item
+     * @return true if the item exists, false otherwise
+     */
+    @Override
+    public boolean doesListItemExist(String title) {
+        return cache.get(title) != null || this.delegate.doesListItemExist(title);
+    }
+
+    /**
+     * Streams every stored ListItem from the store. Streamed items are not cached
+     *
+     * @return Stream of all items
+     */
+    @Override
+    public Stream<ListItem> streamAllListItems() {
+        return this.delegate.streamAllListItems();
+    }
+
+    /**
+     * Streams the ListItem objects matching the query from the store. Queried items are not cached
+     *
+     * @param query to filter and order the items with
+     * @return Stream of the matching items
+     */
+    @Override
+    public Stream<ListItem> query(ListItemQuery query) {
+        return this.delegate.query(query);
+    }
+
+    /**
+     * Reads the changes made after a sequence from the store
+     *
+     * @param sequence of the last change already seen, 0 for none
+     * @param limit    maximum number of changes read
+     * @return changes after the sequence, in sequence order
+     * @throws ChangesExpiredException if changes after the sequence are no longer retained
+     */
+    @Override
+    public List<ChangeEvent> getChangesSince(long sequence, int limit) throws ChangesExpiredException {
+        return this.delegate.getChangesSince(sequence, limit);
+    }
+
+    /**
+     * Get the sequence of the latest change from the store
+     *
+     * @return latest sequence, 0 if nothing has changed
+     */
+    @Override
+    public long getLatestSequence() {
+        return this.delegate.getLatestSequence();
+    }
+
+    /**
+     * Get the cache shared by every caching repository, for reading its hit, miss and eviction counts
+     *
+     * @return cache of items by title
+     */
+    public static LruCache<String, ListItem> getCache() {
+        createCache();
+        return cache;
+    }
+
+    /**
+     * Counts a completed write, then removes the written title from the cache
+     * Counting first means a read which loaded the item before the write will not cache it
+     *
+     * @param title written
+     */
+    private static void invalidate(String title) {
+        writes.incrementAndGet();
+        cache.remove(title);
+    }
+
+    /**
+     * Creates the shared cache if it has not been created already
+     */
+    private static synchronized void createCache() {
+        if (cache == null) {
+            DBConnector connector = new DBConnector();
+            cache = new LruCache<>(connector.getIntDetail("cache.maxSize", 1000),
+                    TimeUnit.SECONDS.toMillis(connector.getIntDetail("cache.ttlSeconds", 0)));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package dao;
+
+import lombok.Getter;
+import model.ListItem;
+import types.ChangeType;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class ChangeEvent {
+
+    /*
+     *  The purpose of the ChangeEvent class is to describe one change made to the stored ListItem objects.
+     *  Events are numbered by a sequence which increases with every change, in the order the changes were made.
+     */
+
+    // Position of the change in the feed
+    private final long sequence;
+
+    // Kind of change
+    private final ChangeType type;
+
+    // Title of the item changed, null for CLEAR
+    private final String title;
+
+    // Title the item was stored under before an UPDATE renamed it, otherwise the same as title, or null
+    private final String previousTitle;
+
+    // The item after an ADD or UPDATE, null for REMOVE and CLEAR
+    private final ListItem item;
+
+    // When the change was made
+    private final LocalDateTime changedAt;
+
+    /**
+     * Constructor for the ChangeEvent
+     *
+     * @param sequence      of the change
+     * @param type          of change
+     * @param title         of the item changed, null for CLEAR
+     * @param previousTitle the item was stored under
+     * @param item          after the change, null for REMOVE and CLEAR
+     * @param changedAt     when the change was made
+     */
+    public ChangeEvent(long sequence, ChangeType type, String title, String previousTitle, ListItem item, LocalDateTime changedAt) {
+        this.sequence = sequence;
+        this.type = type;
+        this.title = title;
+        this.previousTitle = previousTitle;
+        this.item = item == null ? null : new ListItem(item);
+        this.changedAt = changedAt;
+    }
+
+    /**
+     * Get the item after the change
+     * A copy is returned, so the event is not changed by edits
+     *
+     * @return ListItem or null
+     */
+    public ListItem getItem() {
+        return this.item == null ? null : new ListItem(this.item);
+    }
+
+    @Override
+    public String toString() {
+        return "#" + this.sequence + " " + this.type + (this.title == null ? "" : " '" + this.title + "'")
+                + (this.previousTitle != null && !this.previousTitle.equals(this.title) ? " (was '" + this.previousTitle + "')" : "");
+    }
+}
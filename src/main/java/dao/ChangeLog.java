@@ -0,0 +1,379 @@
+package dao;
+
+import exceptions.ChangesExpiredException;
+import model.ListItem;
+import types.ChangeType;
+import types.ItemStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+class ChangeLog {
+
+    /*
+     *  The purpose of the ChangeLog class is to record every change to the todolist table in the ToDoListChange table,
+     *  in the same transaction as the change, and to read the changes back by sequence.
+     *
+     *  Added and updated items are copied into their change from their row, inside the database, so a compressed
+     *  description is recorded compressed, and never inflated to record a change to another field.
+     *  Sequences are reserved from the single ChangeSequence row. The row stays locked until the reserving transaction
+     *  commits, so changes become visible in sequence order and a reader never skips a sequence committed later.
+     *  Changes older than 'changes.retentionHours' are purged in the background.
+     */
+
+    // Purges old changes, started by the first repository
+    private static ScheduledExecutorService purger;
+
+    /**
+     * Private constructor, the ChangeLog is only used statically
+     */
+    private ChangeLog() {
+    }
+
+    /**
+     * Records that items were added, copying each from its row. The connection should be in a transaction
+     *
+     * @param connection to the database
+     * @param items      added
+     * @throws SQLException if the changes cannot be recorded
+     */
+    protected static void recordAdded(Connection connection, List<ListItem> items) throws SQLException {
+        if (items.isEmpty()) {
+            return;
+        }
+        long sequence = reserve(connection, items.size());
+        try (PreparedStatement statement = prepareCopy(connection)) {
+            for (ListItem item : items) {
+                setCopy(statement, sequence++, ChangeType.ADD, item.getTitle(), item.getTitle());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Records that an item was updated, copying it from its row. The connection should be in a transaction
+     *
+     * @param connection    to the database
+     * @param previousTitle the item was stored under
+     * @param item          after the update
+     * @throws SQLException if the change cannot be recorded
+     */
+    protected static void recordUpdated(Connection connection, String previousTitle, ListItem item) throws SQLException {
+        long sequence = reserve(connection, 1);
+        try (PreparedStatement statement = prepareCopy(connection)) {
+            setCopy(statement, sequence, ChangeType.UPDATE, item.getTitle(), previousTitle);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Records that the status of every row matching a WHERE clause is about to be set, with one INSERT ... SELECT.
+     * The matching rows are locked first, so the same rows are matched when they are updated.
+     * The connection should be in a transaction, and the rows updated with the same WHERE clause before it commits
+     *
+     * @param connection to the database
+     * @param where      clause matching the rows to update, excluding rows which already have the status
+     * @param params     of the WHERE clause
+     * @param status     the rows are set to
+     * @return number of changes recorded
+     * @throws SQLException if the changes cannot be recorded
+     */
+    protected static int recordStatusUpdated(Connection connection, String where, List<Object> params, ItemStatus status) throws SQLException {
+        int count;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM ToDoList" + where + " FOR UPDATE")) {
+            ToDoListRepository.setParams(statement, 1, params);
+            try (ResultSet set = statement.executeQuery()) {
+                set.next();
+                count = set.getInt(1);
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long first = reserve(connection, count);
+        try (PreparedStatement statement = connection.prepareStatement("""
+                INSERT INTO ToDoListChange (sequence,type,title,previousTitle,description,descriptionCompressed,compressedDescription,timestamp,dueDate,status,changedAt)
+                SELECT ? + ROW_NUMBER() OVER (ORDER BY id) - 1, ?, title, title, description, descriptionCompressed, compressedDescription, timestamp, dueDate, ?, ?
+                FROM ToDoList""" + where)) {
+            statement.setLong(1, first);
+            statement.setString(2, ChangeType.UPDATE.toString());
+            statement.setString(3, status.toString());
+            statement.setObject(4, LocalDateTime.now());
+            ToDoListRepository.setParams(statement, 5, params);
+            statement.executeUpdate();
+        }
+        return count;
+    }
+
+    /**
+     * Records that an item was removed. The connection should be in a transaction
+     *
+     * @param connection to the database
+     * @param title      of the item removed
+     * @throws SQLException if the change cannot be recorded
+     */
+    protected static void recordRemoved(Connection connection, String title) throws SQLException {
+        record(connection, ChangeType.REMOVE, title, title);
+    }
+
+    /**
+     * Records that every item was removed. The connection should be in a transaction
+     *
+     * @param connection to the database
+     * @throws SQLException if the change cannot be recorded
+     */
+    protected static void recordCleared(Connection connection) throws SQLException {
+        record(connection, ChangeType.CLEAR, null, null);
+    }
+
+    /**
+     * Reads the changes after a sequence, in sequence order
+     *
+     * @param connection to the database
+     * @param sequence   of the last change already seen, 0 for none
+     * @param limit      maximum number of changes read
+     * @return changes after the sequence
+     * @throws SQLException             if the changes cannot be read
+     * @throws ChangesExpiredException if changes after the sequence have been purged
+     */
+    protected static List<ChangeEvent> readSince(Connection connection, long sequence, int limit) throws SQLException, ChangesExpiredException {
+        long purgedThrough = readSequenceRow(connection, "purgedThrough");
+        if (sequence < purgedThrough) {
+            throw new ChangesExpiredException("Changes up to #" + purgedThrough + " have been purged, the list must be read again");
+        }
+        List<ChangeEvent> changes = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM ToDoListChange WHERE sequence > ? ORDER BY sequence LIMIT ?")) {
+            statement.setLong(1, sequence);
+            statement.setInt(2, Math.max(0, limit));
+            try (ResultSet set = statement.executeQuery()) {
+                while (set.next()) {
+                    changes.add(mapChange(set));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Get the sequence of the latest committed change
+     *
+     * @param connection to the database
+     * @return latest sequence, 0 if nothing has changed
+     * @throws SQLException if the sequence cannot be read
+     */
+    protected static long readLatestSequence(Connection connection) throws SQLException {
+        return readSequenceRow(connection, "value");
+    }
+
+    /**
+     * Get the sequence of the latest change which has been purged
+     *
+     * @param connection to the database
+     * @return latest purged sequence, 0 if nothing has been purged
+     * @throws SQLException if the sequence cannot be read
+     */
+    protected static long readPurgedThrough(Connection connection) throws SQLException {
+        return readSequenceRow(connection, "purgedThrough");
+    }
+
+    /**
+     * Reads the type and title of the changes after a sequence, up to and including another, in sequence order
+     * Only the title columns are read, so this is cheap enough to poll
+     *
+     * @param connection to the database
+     * @param sequence   of the last change already seen
+     * @param through    sequence of the last change read
+     * @param changed    receives the type and title of each change
+     * @throws SQLException if the changes cannot be read
+     */
+    protected static void readTitlesSince(Connection connection, long sequence, long through, BiConsumer<ChangeType, String> changed) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT type, title FROM ToDoListChange WHERE sequence > ? AND sequence <= ? ORDER BY sequence")) {
+            statement.setLong(1, sequence);
+            statement.setLong(2, through);
+            try (ResultSet set = statement.executeQuery()) {
+                while (set.next()) {
+                    changed.accept(ChangeType.valueOf(set.getString(1)), set.getString(2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts purging changes older than the retention period, if it has not been started already
+     *
+     * @param pool to borrow connections from
+     */
+    protected static synchronized void startPurging(ConnectionPool pool) {
+        if (purger != null) {
+            return;
+        }
+        DBConnector connector = new DBConnector();
+        int retentionHours = Math.max(1, connector.getIntDetail("changes.retentionHours", 168));
+        int interval = Math.max(1, connector.getIntDetail("changes.purgeIntervalSeconds", 3600));
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-log-purger");
+            thread.setDaemon(true); // Should never keep the application alive
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(() -> purge(pool, LocalDateTime.now().minusHours(retentionHours)), interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Removes the changes made before a time, and records the latest sequence removed
+     *
+     * @param pool   to borrow a connection from
+     * @param before time to remove changes made before
+     */
+    private static void purge(ConnectionPool pool, LocalDateTime before) {
+        Connection connection = null;
+        try {
+            connection = pool.borrow();
+            connection.setAutoCommit(false);
+            long purgeThrough;
+            try (PreparedStatement statement = connection.prepareStatement("SELECT MAX(sequence) FROM ToDoListChange WHERE changedAt < ?")) {
+                statement.setObject(1, before);
+                try (ResultSet set = statement.executeQuery()) {
+                    purgeThrough = set.next() ? set.getLong(1) : 0;
+                }
+            }
+            if (purgeThrough > 0) {
+                try (PreparedStatement statement = connection.prepareStatement("DELETE FROM ToDoListChange WHERE sequence <= ?")) {
+                    statement.setLong(1, purgeThrough);
+                    statement.executeUpdate();
+                }
+                try (PreparedStatement statement = connection.prepareStatement("UPDATE ChangeSequence SET purgedThrough = GREATEST(purgedThrough, ?) WHERE id = 1")) {
+                    statement.setLong(1, purgeThrough);
+                    statement.executeUpdate();
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Records a single change which leaves no item behind, e.g. a removal
+     *
+     * @param connection    to the database
+     * @param type          of change
+     * @param title         of the item changed
+     * @param previousTitle the item was stored under
+     * @throws SQLException if the change cannot be recorded
+     */
+    private static void record(Connection connection, ChangeType type, String title, String previousTitle) throws SQLException {
+        long sequence = reserve(connection, 1);
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO ToDoListChange (sequence,type,title,previousTitle,changedAt) VALUES (?,?,?,?,?)")) {
+            statement.setLong(1, sequence);
+            statement.setString(2, type.toString());
+            statement.setString(3, title);
+            statement.setString(4, previousTitle);
+            statement.setObject(5, LocalDateTime.now());
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Reserves a run of sequences. The ChangeSequence row stays locked until the transaction ends
+     *
+     * @param connection to the database
+     * @param count      of sequences
+     * @return first sequence reserved
+     * @throws SQLException if the sequences cannot be reserved
+     */
+    private static long reserve(Connection connection, int count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE ChangeSequence SET value = LAST_INSERT_ID(value + ?) WHERE id = 1")) {
+            statement.setInt(1, count);
+            statement.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT LAST_INSERT_ID()")) {
+            set.next();
+            return set.getLong(1) - count + 1;
+        }
+    }
+
+    /**
+     * Prepares the statement recording a change by copying the item from its row
+     *
+     * @param connection to the database
+     * @return PreparedStatement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    private static PreparedStatement prepareCopy(Connection connection) throws SQLException {
+        return connection.prepareStatement("""
+                INSERT INTO ToDoListChange (sequence,type,title,previousTitle,description,descriptionCompressed,compressedDescription,timestamp,dueDate,status,changedAt)
+                SELECT ?, ?, title, ?, description, descriptionCompressed, compressedDescription, timestamp, dueDate, status, ?
+                FROM ToDoList WHERE title = ?""");
+    }
+
+    /**
+     * Sets the parameters of the statement copying an item into a change
+     *
+     * @param statement     copy statement
+     * @param sequence      of the change
+     * @param type          of change
+     * @param title         of the item changed, which finds its row
+     * @param previousTitle the item was stored under
+     * @throws SQLException if a parameter cannot be set
+     */
+    private static void setCopy(PreparedStatement statement, long sequence, ChangeType type, String title, String previousTitle) throws SQLException {
+        statement.setLong(1, sequence);
+        statement.setString(2, type.toString());
+        statement.setString(3, previousTitle);
+        statement.setObject(4, LocalDateTime.now());
+        statement.setString(5, title);
+    }
+
+    /**
+     * Maps a row of the ToDoListChange table into a ChangeEvent
+     *
+     * @param set positioned on the row
+     * @return ChangeEvent
+     * @throws SQLException if the row cannot be read
+     */
+    private static ChangeEvent mapChange(ResultSet set) throws SQLException {
+        ChangeType type = ChangeType.valueOf(set.getString("type"));
+        ListItem item = null;
+        if (type == ChangeType.ADD || type == ChangeType.UPDATE) {
+            item = new ListItem(set.getString("title"),
+                    set.getString("description"),
+                    set.getObject("timestamp", LocalDateTime.class),
+                    set.getObject("dueDate", LocalDateTime.class),
+                    ItemStatus.valueOf(set.getString("status")));
+            if (set.getBoolean("descriptionCompressed")) {
+                item.deferDescription(new DescriptionCodec.Compressed(set.getBytes("compressedDescription")));
+            }
+        }
+        return new ChangeEvent(set.getLong("sequence"), type, set.getString("title"), set.getString("previousTitle"),
+                item, set.getObject("changedAt", LocalDateTime.class));
+    }
+
+    /**
+     * Reads a column of the ChangeSequence row
+     *
+     * @param connection to the database
+     * @param column     to read
+     * @return value of the column
+     * @throws SQLException if the row cannot be read
+     */
+    private static long readSequenceRow(Connection connection, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT " + column + " FROM ChangeSequence WHERE id = 1")) {
+            return set.next() ? set.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,905 @@
+package dao;
+
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import types.ItemField;
+import types.ItemStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class ColumnarToDoListStore implements ToDoListStore {
+
+    /*
+     *  The purpose of the ColumnarToDoListStore class is to hold very large lists in memory, at a fraction of the heap
+     *  a ListItem object per item costs. Each property is a column, an array with one element per row:
+     *  - id, version:           long
+     *  - timestamp, dueDate:    long epoch minutes UTC, Long.MIN_VALUE if not set
+     *  - status:                byte ItemStatus ordinal, FREE if the row is not used
+     *  - title and description: offset and length into one UTF-8 byte arena, length -1 if null
+     *
+     *  Titles are found through an open-addressing hash table of row numbers, compared against the arena bytes.
+     *  Filters are scans of the primitive columns, and ListItem objects are only built for the rows returned.
+     *  Removed rows are reused, and rows never move, so a stream sees each item at most once.
+     *  Strings replaced by updates are left in the arena, which is compacted once they are half of it.
+     *  Reads hold the read lock, writes hold the write lock.
+     *  Changes are not recorded, as a copy of each changed item would cost the heap the columns save, so
+     *  getChangesSince and getLatestSequence throw ChangesNotRecordedException.
+     */
+
+    // Marks an unused row in the status column
+    private static final byte FREE = -1;
+
+    // Stored in place of a date that is not set
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    // Number of rows read under the lock at a time by a stream
+    private static final int STREAM_CHUNK = 1024;
+
+    // Smallest arena which is compacted
+    private static final int MIN_COMPACT_SIZE = 64 * 1024;
+
+    // Id and version of each row
+    private long[] ids;
+    private long[] versions;
+
+    // Timestamp and due date of each row, in epoch minutes
+    private long[] timestamps;
+    private long[] dueDates;
+
+    // Status ordinal of each row
+    private byte[] statuses;
+
+    // Title and description of each row, as offsets and lengths into the arena
+    private int[] titleOffsets;
+    private int[] titleLengths;
+    private int[] descriptionOffsets;
+    private int[] descriptionLengths;
+
+    // Hash of the title of each row, so the table can be rebuilt without decoding titles
+    private int[] titleHashes;
+
+    // UTF-8 bytes of every title and description
+    private byte[] arena = new byte[4096];
+
+    // Bytes of the arena in use, and how many of them belong to replaced strings
+    private int arenaSize;
+    private int arenaGarbage;
+
+    // Row number + 1 of each title by hash, 0 for an empty slot. Linear probing, the length is a power of two
+    private int[] table;
+
+    // Number of rows used by items, and the highest row used + 1
+    private int size;
+    private int rowCount;
+
+    // Removed rows, reused by the next items added
+    private int[] freeRows = new int[16];
+    private int freeCount;
+
+    // Id given to the latest stored item
+    private long latestId;
+
+    // Reads hold the read lock, writes hold the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor for the ColumnarToDoListStore
+     */
+    public ColumnarToDoListStore() {
+        this(1024);
+    }
+
+    /**
+     * Constructor for the ColumnarToDoListStore
+     *
+     * @param initialCapacity number of rows allocated up front
+     */
+    public ColumnarToDoListStore(int initialCapacity) {
+        allocate(Math.max(16, initialCapacity));
+    }
+
+    /**
+     * Stores a new ListItem
+     *
+     * @param item to store
+     * @throws ListItemAlreadyExistsException if an item with the same title is already stored
+     */
+    @Override
+    public void addListItem(ListItem item) throws ListItemAlreadyExistsException {
+        lock.writeLock().lock();
+        try {
+            byte[] title = encode(item.getTitle());
+            if (find(title, hash(item.getTitle())) >= 0) {
+                throw new ListItemAlreadyExistsException("An item with name '" + item.getTitle() + "' already exists");
+            }
+            insert(item, title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores a collection of ListItem objects
+     *
+     * @param items to store
+     * @return BatchInsertResult with the number of items stored, and the items rejected
+     */
+    @Override
+    public BatchInsertResult addListItems(Collection<ListItem> items) {
+        BatchInsertResult result = new BatchInsertResult();
+        Set<String> titles = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            for (ListItem item : items) {
+                if (item.getTitle() == null || item.getTitle().length() == 0) {
+                    result.addFailure(item, "Item title is invalid");
+                } else if (!titles.add(item.getTitle())) {
+                    result.addFailure(item, "Item appears more than once in the batch");
+                } else {
+                    byte[] title = encode(item.getTitle());
+                    if (find(title, hash(item.getTitle())) >= 0) {
+                        result.addFailure(item, "An item with this title already exists");
+                    } else {
+                        insert(item, title);
+                        result.addInserted(1);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Stores the changed fields of a ListItem. The item is found by the title it was stored under
+     *
+     * @param item to update
+     * @return true if the changes were saved, false if the new title is already used by another item
+     * @throws ListItemNotFoundException if the list item is not found
+     * @throws ListItemConflictException if the list item has been changed since it was read
+     */
+    @Override
+    public boolean updateListItem(ListItem item) throws ListItemNotFoundException, ListItemConflictException {
+        if (!item.hasChanges()) {
+            return true;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = find(encode(item.getOriginalTitle()), hash(item.getOriginalTitle()));
+            if (row < 0) {
+                throw new ListItemNotFoundException("Item '" + item.getOriginalTitle() + "' cannot be found");
+            }
+            if (this.versions[row] != item.getVersion()) {
+                throw new ListItemConflictException("Item '" + item.getOriginalTitle() + "' has been changed by someone else since it was read");
+            }
+            Set<ItemField> changed = item.getChangedFields();
+            if (changed.contains(ItemField.TITLE) && !Objects.equals(item.getTitle(), item.getOriginalTitle())) {
+                byte[] title = encode(item.getTitle());
+                if (find(title, hash(item.getTitle())) >= 0) {
+                    return false;
+                }
+                unlinkTitle(row);
+                this.arenaGarbage += this.titleLengths[row];
+                this.titleOffsets[row] = append(title);
+                this.titleLengths[row] = title.length;
+                this.titleHashes[row] = hash(item.getTitle());
+                linkTitle(row);
+            }
+            if (changed.contains(ItemField.DESCRIPTION)) {
+                this.arenaGarbage += Math.max(0, this.descriptionLengths[row]);
+                byte[] description = encode(item.getDescription());
+                this.descriptionOffsets[row] = description == null ? 0 : append(description);
+                this.descriptionLengths[row] = description == null ? -1 : description.length;
+            }
+            if (changed.contains(ItemField.DUE_DATE)) {
+                this.dueDates[row] = toMinutes(item.getDueDate());
+            }
+            if (changed.contains(ItemField.STATUS)) {
+                this.statuses[row] = (byte) item.getStatus().ordinal();
+            }
+            this.versions[row]++;
+            item.markSaved(this.ids[row], this.versions[row]);
+            compactIfWasteful();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the status of every stored ListItem matching the filters of the query, with one scan of the columns
+     * Items which already have the status are not changed
+     *
+     * @param query  selecting the items to change
+     * @param status to set
+     * @return number of items changed
+     * @throws InvalidItemStatusException if the status is null
+     */
+    @Override
+    public int updateStatuses(ListItemQuery query, ItemStatus status) throws InvalidItemStatusException {
+        if (status == null) {
+            throw new InvalidItemStatusException("ItemStatus cannot be null");
+        }
+        ColumnFilter filter = new ColumnFilter(query.filtersOnly());
+        byte ordinal = (byte) status.ordinal();
+        int updated = 0;
+        lock.writeLock().lock();
+        try {
+            for (int row = 0; row < this.rowCount; row++) {
+                if (this.statuses[row] != ordinal && filter.matches(row)) {
+                    this.statuses[row] = ordinal;
+                    this.versions[row]++;
+                    updated++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return updated;
+    }
+
+    /**
+     * Removes a ListItem. Its row is reused by a later item
+     *
+     * @param title of the ListItem to remove
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public void removeListItem(String title) throws ListItemNotFoundException {
+        lock.writeLock().lock();
+        try {
+            int row = find(encode(title), hash(title));
+            if (row < 0) {
+                throw new ListItemNotFoundException("Item '" + title + "' cannot be found");
+            }
+            unlinkTitle(row);
+            this.arenaGarbage += this.titleLengths[row] + Math.max(0, this.descriptionLengths[row]);
+            this.statuses[row] = FREE;
+            if (this.freeCount == this.freeRows.length) {
+                this.freeRows = Arrays.copyOf(this.freeRows, this.freeCount * 2);
+            }
+            this.freeRows[this.freeCount++] = row;
+            this.size--;
+            compactIfWasteful();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every ListItem, and releases the columns
+     */
+    @Override
+    public void removeAllItems() {
+        lock.writeLock().lock();
+        try {
+            allocate(1024);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds a ListItem by title
+     *
+     * @param title of the ListItem
+     * @return ListItem built from the row
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public ListItem getItemByTitle(String title) throws ListItemNotFoundException {
+        lock.readLock().lock();
+        try {
+            int row = find(encode(title), hash(title));
+            if (row < 0) {
+                throw new ListItemNotFoundException("Item '" + title + "' cannot be found");
+            }
+            return toListItem(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a ListItem with the title is stored
+     *
+     * @param title of the ListItem
+     * @return true if the item exists, false otherwise
+     */
+    @Override
+    public boolean doesListItemExist(String title) {
+        lock.readLock().lock();
+        try {
+            return find(encode(title), hash(title)) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Streams every stored ListItem, building the items a chunk of rows at a time
+     * Items changed while the stream is read may be seen before or after the change, but never twice
+     *
+     * @return Stream of all items
+     */
+    @Override
+    public Stream<ListItem> streamAllListItems() {
+        int rows;
+        lock.readLock().lock();
+        try {
+            rows = this.rowCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return IntStream.iterate(0, start -> start < rows, start -> start + STREAM_CHUNK)
+                .mapToObj(start -> readChunk(start, Math.min(rows, start + STREAM_CHUNK)))
+                .flatMap(List::stream);
+    }
+
+    /**
+     * Streams every stored ListItem matching the query.
+     * The filters are a scan of the primitive columns, and items are only built for the matching rows, then sorted
+     *
+     * @param query to filter and order the items with
+     * @return Stream of the matching items
+     */
+    @Override
+    public Stream<ListItem> query(ListItemQuery query) {
+        ColumnFilter filter = new ColumnFilter(query);
+        List<ListItem> matching = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < this.rowCount; row++) {
+                if (filter.matches(row)) {
+                    matching.add(toListItem(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // The cursor is applied to the built items, it compares titles
+        Stream<ListItem> sorted = matching.stream().filter(query::matches).sorted(query.comparator());
+        return query.getLimit() > 0 ? sorted.limit(query.getLimit()) : sorted;
+    }
+
+    /**
+     * Counts the stored items matching the filters of the query, without building any objects
+     *
+     * @param query to filter the items with. Its order, cursor and limit are ignored
+     * @return number of matching items
+     */
+    public int count(ListItemQuery query) {
+        ColumnFilter filter = new ColumnFilter(query);
+        int count = 0;
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < this.rowCount; row++) {
+                if (filter.matches(row)) {
+                    count++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return count;
+    }
+
+    /**
+     * Counts the stored items with each status, without building any objects
+     *
+     * @return number of items, indexed by ItemStatus ordinal
+     */
+    public int[] countByStatus() {
+        int[] counts = new int[ItemStatus.values().length];
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < this.rowCount; row++) {
+                if (this.statuses[row] != FREE) {
+                    counts[this.statuses[row]]++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    /**
+     * Passes a view of each stored item matching the filters of the query to the action, in row order
+     * The same view is moved from row to row, and only decodes the columns which are read from it,
+     * so it should not be kept after the action returns. The read lock is held throughout
+     *
+     * @param query  to filter the items with. Its order, cursor and limit are ignored
+     * @param action to apply to each matching item
+     */
+    public void forEachMatching(ListItemQuery query, Consumer<ItemView> action) {
+        ColumnFilter filter = new ColumnFilter(query);
+        ItemView view = new ItemView();
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < this.rowCount; row++) {
+                if (filter.matches(row)) {
+                    view.row = row;
+                    action.accept(view);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of stored items
+     *
+     * @return number of items
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return this.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the items of a run of rows
+     *
+     * @param from first row
+     * @param to   row after the last
+     * @return items of the used rows
+     */
+    private List<ListItem> readChunk(int from, int to) {
+        List<ListItem> items = new ArrayList<>(to - from);
+        lock.readLock().lock();
+        try {
+            for (int row = from; row < Math.min(to, this.rowCount); row++) {
+                if (this.statuses[row] != FREE) {
+                    items.add(toListItem(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return items;
+    }
+
+    /**
+     * Writes a new item into a free row, and marks the item saved with its id. The write lock should be held
+     *
+     * @param item  to store
+     * @param title of the item, encoded
+     */
+    private void insert(ListItem item, byte[] title) {
+        int row;
+        if (this.freeCount > 0) {
+            row = this.freeRows[--this.freeCount];
+        } else {
+            if (this.rowCount == this.statuses.length) {
+                grow(this.rowCount + (this.rowCount >> 1));
+            }
+            row = this.rowCount++;
+        }
+        byte[] description = encode(item.getDescription());
+        this.ids[row] = ++this.latestId;
+        this.versions[row] = 0;
+        this.timestamps[row] = toMinutes(item.getTimestamp());
+        this.dueDates[row] = toMinutes(item.getDueDate());
+        this.statuses[row] = (byte) item.getStatus().ordinal();
+        this.titleOffsets[row] = append(title);
+        this.titleLengths[row] = title.length;
+        this.descriptionOffsets[row] = description == null ? 0 : append(description);
+        this.descriptionLengths[row] = description == null ? -1 : description.length;
+        this.titleHashes[row] = hash(item.getTitle());
+        this.size++;
+        if (this.size * 2 > this.table.length) {
+            // Links every used row, this one included
+            rebuildTable(this.table.length * 2);
+        } else {
+            linkTitle(row);
+        }
+        item.markSaved(this.ids[row], 0);
+    }
+
+    /**
+     * Builds a ListItem from a row
+     *
+     * @param row to build
+     * @return ListItem with the row's properties
+     */
+    private ListItem toListItem(int row) {
+        ListItem item = new ListItem(decode(this.titleOffsets[row], this.titleLengths[row]),
+                decode(this.descriptionOffsets[row], this.descriptionLengths[row]),
+                toDateTime(this.timestamps[row]),
+                toDateTime(this.dueDates[row]),
+                ItemStatus.values()[this.statuses[row]]);
+        item.markSaved(this.ids[row], this.versions[row]);
+        return item;
+    }
+
+    /**
+     * Finds the row of a title
+     *
+     * @param title encoded title, may be null
+     * @param hash  of the title
+     * @return row, or -1 if no item has the title
+     */
+    private int find(byte[] title, int hash) {
+        if (title == null) {
+            return -1;
+        }
+        int mask = this.table.length - 1;
+        for (int slot = hash & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+            int row = this.table[slot] - 1;
+            if (this.titleHashes[row] == hash && Arrays.equals(this.arena, this.titleOffsets[row], this.titleOffsets[row] + this.titleLengths[row], title, 0, title.length)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a row to the title table
+     *
+     * @param row to add
+     */
+    private void linkTitle(int row) {
+        int mask = this.table.length - 1;
+        int slot = this.titleHashes[row] & mask;
+        while (this.table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = row + 1;
+    }
+
+    /**
+     * Removes a row from the title table, shifting back the rows probed past it so no gap breaks their probe
+     *
+     * @param row to remove
+     */
+    private void unlinkTitle(int row) {
+        int mask = this.table.length - 1;
+        int slot = this.titleHashes[row] & mask;
+        while (this.table[slot] != row + 1) {
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        for (int next = (gap + 1) & mask; this.table[next] != 0; next = (next + 1) & mask) {
+            int home = this.titleHashes[this.table[next] - 1] & mask;
+            // The row can fill the gap if the gap lies between its home slot and its slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                this.table[gap] = this.table[next];
+                gap = next;
+            }
+        }
+        this.table[gap] = 0;
+    }
+
+    /**
+     * Rebuilds the title table at a size
+     *
+     * @param length of the table, a power of two
+     */
+    private void rebuildTable(int length) {
+        this.table = new int[length];
+        for (int row = 0; row < this.rowCount; row++) {
+            if (this.statuses[row] != FREE) {
+                linkTitle(row);
+            }
+        }
+    }
+
+    /**
+     * Appends bytes to the arena, growing it if needed
+     *
+     * @param bytes to append
+     * @return offset of the bytes
+     */
+    private int append(byte[] bytes) {
+        if (this.arenaSize + bytes.length > this.arena.length) {
+            long length = Math.max((long) this.arena.length * 3 / 2, (long) this.arenaSize + bytes.length);
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("The columnar store cannot hold more than 2GB of text");
+            }
+            this.arena = Arrays.copyOf(this.arena, (int) length);
+        }
+        System.arraycopy(bytes, 0, this.arena, this.arenaSize, bytes.length);
+        int offset = this.arenaSize;
+        this.arenaSize += bytes.length;
+        return offset;
+    }
+
+    /**
+     * Copies the strings still in use into a new arena, once replaced strings are half of it
+     */
+    private void compactIfWasteful() {
+        if (this.arenaSize < MIN_COMPACT_SIZE || this.arenaGarbage * 2 < this.arenaSize) {
+            return;
+        }
+        byte[] compacted = new byte[Math.max(4096, (this.arenaSize - this.arenaGarbage) * 3 / 2)];
+        int position = 0;
+        for (int row = 0; row < this.rowCount; row++) {
+            if (this.statuses[row] == FREE) {
+                continue;
+            }
+            System.arraycopy(this.arena, this.titleOffsets[row], compacted, position, this.titleLengths[row]);
+            this.titleOffsets[row] = position;
+            position += this.titleLengths[row];
+            if (this.descriptionLengths[row] >= 0) {
+                System.arraycopy(this.arena, this.descriptionOffsets[row], compacted, position, this.descriptionLengths[row]);
+                this.descriptionOffsets[row] = position;
+                position += this.descriptionLengths[row];
+            }
+        }
+        this.arena = compacted;
+        this.arenaSize = position;
+        this.arenaGarbage = 0;
+    }
+
+    /**
+     * Allocates empty columns
+     *
+     * @param capacity number of rows
+     */
+    private void allocate(int capacity) {
+        this.ids = new long[capacity];
+        this.versions = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.dueDates = new long[capacity];
+        this.statuses = new byte[capacity];
+        this.titleOffsets = new int[capacity];
+        this.titleLengths = new int[capacity];
+        this.descriptionOffsets = new int[capacity];
+        this.descriptionLengths = new int[capacity];
+        this.titleHashes = new int[capacity];
+        this.table = new int[Integer.highestOneBit(capacity) * 4];
+        this.arena = new byte[4096];
+        this.arenaSize = 0;
+        this.arenaGarbage = 0;
+        this.size = 0;
+        this.rowCount = 0;
+        this.freeCount = 0;
+    }
+
+    /**
+     * Grows every column to a number of rows
+     *
+     * @param capacity number of rows
+     */
+    private void grow(int capacity) {
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.versions = Arrays.copyOf(this.versions, capacity);
+        this.timestamps = Arrays.copyOf(this.timestamps, capacity);
+        this.dueDates = Arrays.copyOf(this.dueDates, capacity);
+        this.statuses = Arrays.copyOf(this.statuses, capacity);
+        this.titleOffsets = Arrays.copyOf(this.titleOffsets, capacity);
+        this.titleLengths = Arrays.copyOf(this.titleLengths, capacity);
+        this.descriptionOffsets = Arrays.copyOf(this.descriptionOffsets, capacity);
+        this.descriptionLengths = Arrays.copyOf(this.descriptionLengths, capacity);
+        this.titleHashes = Arrays.copyOf(this.titleHashes, capacity);
+    }
+
+    /**
+     * Decodes a string from the arena
+     *
+     * @param offset of the bytes
+     * @param length of the bytes, -1 for null
+     * @return String, or null
+     */
+    private String decode(int offset, int length) {
+        return length < 0 ? null : new String(this.arena, offset, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes a string as UTF-8
+     *
+     * @param text to encode, may be null
+     * @return bytes, or null
+     */
+    private static byte[] encode(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hashes a title, spreading the high bits into the low bits the table is indexed by
+     *
+     * @param title to hash, may be null
+     * @return hash
+     */
+    private static int hash(String title) {
+        int hash = title == null ? 0 : title.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Converts a date to epoch minutes UTC
+     *
+     * @param dateTime to convert, may be null
+     * @return epoch minutes, or NO_DATE
+     */
+    private static long toMinutes(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE : Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Converts a date to the first epoch minute not before it, so filters on minutes match filters on dates
+     *
+     * @param dateTime to convert
+     * @return epoch minutes
+     */
+    private static long ceilMinutes(LocalDateTime dateTime) {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC) + (dateTime.getNano() > 0 ? 1 : 0);
+        return Math.floorDiv(seconds + 59, 60);
+    }
+
+    /**
+     * Converts epoch minutes UTC to a date
+     *
+     * @param minutes to convert
+     * @return LocalDateTime, or null for NO_DATE
+     */
+    private static LocalDateTime toDateTime(long minutes) {
+        return minutes == NO_DATE ? null : LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * The filters of a ListItemQuery, converted to compare directly against the columns
+     */
+    private class ColumnFilter {
+
+        // Bit of each ItemStatus ordinal included
+        private final int statusMask;
+
+        // Whether only items without a due date are included
+        private final boolean withoutDueDate;
+
+        // Range of due dates and earliest timestamp included, in epoch minutes
+        private final long dueFrom;
+        private final long dueBefore;
+        private final long createdSince;
+
+        /**
+         * Constructor for the ColumnFilter
+         *
+         * @param query to convert
+         */
+        private ColumnFilter(ListItemQuery query) {
+            int mask = 0;
+            for (ItemStatus status : query.getStatuses()) {
+                mask |= 1 << status.ordinal();
+            }
+            this.statusMask = mask == 0 ? ~0 : mask;
+            this.withoutDueDate = query.isWithoutDueDate();
+            this.dueFrom = query.getDueFrom() == null ? NO_DATE : ceilMinutes(query.getDueFrom());
+            this.dueBefore = query.getDueBefore() == null ? Long.MAX_VALUE : ceilMinutes(query.getDueBefore());
+            this.createdSince = query.getCreatedSince() == null ? NO_DATE : ceilMinutes(query.getCreatedSince());
+        }
+
+        /**
+         * Checks whether a row is used and matches every filter
+         *
+         * @param row to check
+         * @return true if the row matches
+         */
+        private boolean matches(int row) {
+            byte status = statuses[row];
+            if (status == FREE || (this.statusMask & (1 << status)) == 0) {
+                return false;
+            }
+            long dueDate = dueDates[row];
+            if (this.withoutDueDate && dueDate != NO_DATE) {
+                return false;
+            }
+            if ((this.dueFrom != NO_DATE || this.dueBefore != Long.MAX_VALUE)
+                    && (dueDate == NO_DATE || dueDate < this.dueFrom || dueDate >= this.dueBefore)) {
+                return false;
+            }
+            return this.createdSince == NO_DATE || (timestamps[row] != NO_DATE && timestamps[row] >= this.createdSince);
+        }
+    }
+
+    /**
+     * A view of one row, which decodes only the columns read from it
+     * Only valid inside the action passed to forEachMatching
+     */
+    public class ItemView {
+
+        // Row viewed
+        private int row;
+
+        /**
+         * Constructor for the ItemView
+         */
+        private ItemView() {
+        }
+
+        /**
+         * Get the title of the item
+         *
+         * @return title
+         */
+        public String getTitle() {
+            return decode(titleOffsets[this.row], titleLengths[this.row]);
+        }
+
+        /**
+         * Get the description of the item
+         *
+         * @return description, may be null
+         */
+        public String getDescription() {
+            return decode(descriptionOffsets[this.row], descriptionLengths[this.row]);
+        }
+
+        /**
+         * Get the status of the item
+         *
+         * @return ItemStatus
+         */
+        public ItemStatus getStatus() {
+            return ItemStatus.values()[statuses[this.row]];
+        }
+
+        /**
+         * Get the due date of the item
+         *
+         * @return due date, or null if not set
+         */
+        public LocalDateTime getDueDate() {
+            return toDateTime(dueDates[this.row]);
+        }
+
+        /**
+         * Get the due date of the item in epoch minutes UTC, without building a date
+         *
+         * @return epoch minutes, or Long.MIN_VALUE if not set
+         */
+        public long getDueDateMinutes() {
+            return dueDates[this.row];
+        }
+
+        /**
+         * Get the date the item was created
+         *
+         * @return timestamp, may be null
+         */
+        public LocalDateTime getTimestamp() {
+            return toDateTime(timestamps[this.row]);
+        }
+
+        /**
+         * Get the id of the item
+         *
+         * @return id
+         */
+        public long getId() {
+            return ids[this.row];
+        }
+
+        /**
+         * Builds a ListItem from the row, which can be kept
+         *
+         * @return ListItem
+         */
+        public ListItem toListItem() {
+            return ColumnarToDoListStore.this.toListItem(this.row);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+class ConnectionPool {
+
+    /*
+     *  The purpose of the ConnectionPool class is to keep a bounded number of long-lived connections open,
+     *  so the repository can borrow and return them instead of opening a new connection for every query.
+     */
+
+    // The pool shared by every repository, created on first use
+    private static ConnectionPool instance;
+
+    // Opens new connections with the details from connParams.txt
+    private final DBConnector connector;
+
+    // Number of connections the pool tries to keep open
+    private final int minSize;
+
+    // Maximum number of connections open at once (idle and borrowed)
+    private final int maxSize;
+
+    // How long a connection may sit idle before it is closed (while above minSize)
+    private final long idleTimeoutMillis;
+
+    // How long borrow() waits for a free connection before giving up
+    private final long acquireTimeoutMillis;
+
+    // Seconds given to Connection.isValid when a connection is borrowed
+    private final int validationTimeoutSeconds;
+
+    // Idle connections, most recently returned first
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+
+    // Guards idle, openCount and closed
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Signalled whenever a connection is returned, or a slot becomes free
+    private final Condition available = lock.newCondition();
+
+    // Background thread which evicts idle connections, and tops the pool back up to minSize
+    private final ScheduledExecutorService housekeeper;
+
+    // Number of connections currently open (idle and borrowed)
+    private int openCount;
+
+    // Whether the pool has been shut down
+    private boolean closed;
+
+    /**
+     * Constructor for the ConnectionPool
+     * Reads the pool settings from connParams.txt and starts the housekeeping thread
+     *
+     * @param connector to open new connections with
+     */
+    protected ConnectionPool(DBConnector connector) {
+        this.connector = connector;
+        this.maxSize = Math.max(1, connector.getIntDetail("pool.maxSize", 10));
+        this.minSize = Math.min(this.maxSize, Math.max(0, connector.getIntDetail("pool.minSize", 1)));
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(connector.getIntDetail("pool.idleTimeoutSeconds", 300));
+        this.acquireTimeoutMillis = TimeUnit.SECONDS.toMillis(connector.getIntDetail("pool.acquireTimeoutSeconds", 30));
+        this.validationTimeoutSeconds = connector.getIntDetail("pool.validationTimeoutSeconds", 2);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true); // Should never keep the application alive
+            return thread;
+        });
+        long period = Math.max(1000, this.idleTimeoutMillis / 2);
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the pool shared by the application, creating it on first use
+     *
+     * @return the shared ConnectionPool
+     */
+    protected static synchronized ConnectionPool getInstance() {
+        if (instance == null) {
+            instance = new ConnectionPool(new DBConnector());
+            // Close the pooled connections when the application exits, after anything still reading through them
+            ToDoListStores.closeOnExit(instance::shutdown);
+        }
+        return instance;
+    }
+
+    /**
+     * Borrows a connection from the pool. Idle connections are validated before being handed out,
+     * and a new connection is opened if none are idle and the pool is below maxSize.
+     * Waits up to the acquire timeout for a connection to be returned if the pool is exhausted.
+     * The connection must be handed back with release() once it is no longer needed.
+     *
+     * @return connection to the database
+     * @throws SQLException if the pool is closed, times out, or a new connection cannot be opened
+     */
+    protected Connection borrow() throws SQLException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(this.acquireTimeoutMillis);
+        while (true) {
+            IdleConnection candidate = null;
+            lock.lock();
+            try {
+                while (!closed && idle.isEmpty() && openCount >= maxSize) {
+                    if (remaining <= 0) {
+                        throw new SQLException("Timed out waiting for a database connection");
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                if (closed) {
+                    throw new SQLException("The connection pool has been shut down");
+                }
+                if (!idle.isEmpty()) {
+                    candidate = idle.pollFirst();
+                } else {
+                    // Reserve a slot for the new connection before leaving the lock
+                    openCount++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            } finally {
+                lock.unlock();
+            }
+
+            if (candidate == null) {
+                return openReserved();
+            }
+            if (isValid(candidate.connection)) {
+                return candidate.connection;
+            }
+            // The idle connection has gone stale, discard it and try again
+            discard(candidate.connection);
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool so it can be reused
+     *
+     * @param connection to return
+     */
+    protected void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            // Never hand out a connection part way through a transaction
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(connection);
+            return;
+        }
+        lock.lock();
+        try {
+            if (!closed) {
+                idle.addFirst(new IdleConnection(connection, System.currentTimeMillis()));
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(connection);
+    }
+
+    /**
+     * Borrows a connection which is returned to the pool when the Lease is closed
+     * - Should be used in a try-with-resources, so the connection is returned however the operation ends
+     *
+     * @return Lease of a connection to the database
+     * @throws SQLException if a connection cannot be borrowed
+     */
+    protected Lease lease() throws SQLException {
+        return new Lease(this, borrow());
+    }
+
+    /**
+     * Get the maximum number of connections the pool will open
+     *
+     * @return maxSize
+     */
+    protected int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Closes every idle connection and stops the pool from handing out connections.
+     * Borrowed connections are closed as they are released.
+     */
+    protected void shutdown() {
+        List<Connection> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            idle.forEach(idleConnection -> toClose.add(idleConnection.connection));
+            openCount -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        this.housekeeper.shutdownNow();
+        toClose.forEach(ConnectionPool::closeQuietly);
+    }
+
+    /**
+     * Opens a new connection for a slot that has already been counted in openCount
+     *
+     * @return the new connection
+     * @throws SQLException if the connection cannot be opened
+     */
+    private Connection openReserved() throws SQLException {
+        try {
+            return this.connector.connect();
+        } catch (SQLException | RuntimeException e) {
+            freeSlot();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a connection is still usable
+     *
+     * @param connection to check
+     * @return true if the connection is valid
+     */
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(this.validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes a connection which will not be returned to the pool, and frees up its slot
+     *
+     * @param connection to discard
+     */
+    private void discard(Connection connection) {
+        closeQuietly(connection);
+        freeSlot();
+    }
+
+    /**
+     * Frees up a slot in the pool, and wakes up a thread waiting for a connection
+     */
+    private void freeSlot() {
+        lock.lock();
+        try {
+            openCount--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes connections that have been idle for longer than the idle timeout (keeping at least minSize open),
+     * and opens new connections until the pool holds at least minSize
+     */
+    private void housekeep() {
+        List<Connection> evicted = new ArrayList<>();
+        int missing;
+        lock.lock();
+        try {
+            long cutoff = System.currentTimeMillis() - this.idleTimeoutMillis;
+            // The oldest idle connections are at the end of the deque
+            Iterator<IdleConnection> iterator = idle.descendingIterator();
+            while (iterator.hasNext() && openCount > minSize) {
+                IdleConnection idleConnection = iterator.next();
+                if (idleConnection.idleSince > cutoff) {
+                    break;
+                }
+                iterator.remove();
+                openCount--;
+                evicted.add(idleConnection.connection);
+            }
+            missing = closed ? 0 : minSize - openCount;
+            openCount += Math.max(0, missing);
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(ConnectionPool::closeQuietly);
+
+        for (int i = 0; i < missing; i++) {
+            try {
+                release(openReserved());
+            } catch (SQLException e) {
+                // The database is unreachable, the remaining reserved slots are freed and retried next run
+                for (int j = i + 1; j < missing; j++) {
+                    freeSlot();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes the connection, ignoring any errors
+     *
+     * @param connection to close
+     */
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // The connection is being thrown away, nothing more can be done
+        }
+    }
+
+    /**
+     * A borrowed connection, returned to the pool when closed
+     *
+     * @param pool       the connection was borrowed from
+     * @param connection borrowed
+     */
+    protected record Lease(ConnectionPool pool, Connection connection) implements AutoCloseable {
+
+        /**
+         * Returns the connection to the pool
+         */
+        @Override
+        public void close() {
+            this.pool.release(this.connection);
+        }
+    }
+
+    /**
+     * A connection sitting in the pool, and the time it was returned
+     */
+    private record IdleConnection(Connection connection, long idleSince) {
+    }
+}
@@ -4,68 +4,118 @@ import java.io.*;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Scanner;
 
 class DBConnector {
 
-    private Connection connection;
+    // Path to the file containing DB details
+    private static final String CONN_FILE_PATH = "src/main/java/resources/connParams.txt";
+
+    // Details read from the connParams.txt file. Loaded once, and shared by every DBConnector
+    private static Map<String, String> details;
 
     /**
      * Constructor for the DBConnector class
-     * begins the connection process
+     * Loads the DB details if they have not been loaded yet
      */
     protected DBConnector() {
-        connect();
+        loadDBDetails();
     }
 
     /**
-     * Attempts to connect to the database with the details in the String[]
-     * Instantiates the Connection variable with the connection if successful
+     * Attempts to open a new connection to the database with the loaded details
+     *
+     * @return connection to the database
+     * @throws SQLException if the details are missing, or the connection cannot be made
      */
-    private void connect(){
-        try {
-            String[] details = getDBDetails();
-            if (details == null) {
-                return;
-            }
-            String url  = details[0]; // db.host from the DB details file. jdbc:mysql://serverName/
-            // Gets the connection.                                 DB name     User        Password
-            this.connection = DriverManager.getConnection(url + details[1], details[2], details[3]);
-        } catch (SQLException e) {
-            e.printStackTrace();
+    protected Connection connect() throws SQLException {
+        String url = getDetail("db.host", null); // db.host from the DB details file. jdbc:mysql://serverName/
+        if (url == null) {
+            throw new SQLException("Database details could not be loaded from " + CONN_FILE_PATH);
         }
+        Properties properties = new Properties();
+        properties.setProperty("user", getDetail("db.user", ""));
+        properties.setProperty("password", getDetail("db.password", ""));
+        // Without a server-side cursor the driver reads every row of a query into memory, whatever the fetch size,
+        // so streamed reads would hold the whole table rather than 'db.fetchSize' rows at a time
+        properties.setProperty("useCursorFetch", "true");
+        // Without it the driver sends each statement of a batch on its own, rather than as one multi-row INSERT
+        properties.setProperty("rewriteBatchedStatements", "true");
+        // Gets the connection.                    DB name
+        return DriverManager.getConnection(url + getDetail("db.name", ""), properties);
     }
 
     /**
-     * Reads the connParams.txt file with a delimiter, and stores the details in a String[].
+     * Get a detail from the connParams.txt file
+     * A system property with the same key takes priority over the file. e.g. -Dstorage.engine=memory
      *
-     * @return details from connParams.txt
+     * @param key          of the detail. e.g. 'db.host'
+     * @param defaultValue returned if the detail is not present
+     * @return value of the detail, or defaultValue
      */
-    private String[] getDBDetails() {
-        try {
-            String connFilePath = "src/main/java/resources/connParams.txt"; // Path to the file containing DB details
-            Scanner scanner = new Scanner(new File(connFilePath)); // Opens the scanner
-            String[] details = new String[4];
-            int counter = 0;
-            while (scanner.hasNextLine()){
-                // Store the details from the DB details file into the Array. Split the nextLine and get the second (1st) element.
-                details[counter++] = scanner.nextLine().split(" = ")[1];
-            }
+    protected String getDetail(String key, String defaultValue) {
+        return System.getProperty(key, details.getOrDefault(key, defaultValue));
+    }
 
-            scanner.close(); // Close the scanner
-            return details;
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+    /**
+     * Get an integer detail from the connParams.txt file
+     *
+     * @param key          of the detail. e.g. 'pool.maxSize'
+     * @param defaultValue returned if the detail is not present, or is not a number
+     * @return value of the detail, or defaultValue
+     */
+    protected int getIntDetail(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(getDetail(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
         }
-        return null;
     }
 
     /**
-     * Get the connection
+     * Get a decimal detail from the connParams.txt file
      *
-     * @return connection
+     * @param key          of the detail. e.g. 'bloom.falsePositiveRate'
+     * @param defaultValue returned if the detail is not present, or is not a number
+     * @return value of the detail, or defaultValue
+     */
+    protected double getDoubleDetail(String key, double defaultValue) {
+        try {
+            return Double.parseDouble(getDetail(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads the connParams.txt file with a delimiter, and stores the details in a Map.
+     * The file is only read the first time this is called.
      */
-    protected Connection getConnection() {
-        return this.connection;
+    private static synchronized void loadDBDetails() {
+        if (details != null) {
+            return;
+        }
+        Map<String, String> loaded = new HashMap<>();
+        try (Scanner scanner = new Scanner(new File(CONN_FILE_PATH))) { // Opens the scanner
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                // Skip blank lines and comments
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                // Store the details from the DB details file into the Map. Split the line into the key and value.
+                String[] detail = line.split(" = ", 2);
+                if (detail.length == 2) {
+                    loaded.put(detail[0].trim(), detail[1]);
+                }
+            }
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+        }
+        details = Collections.unmodifiableMap(loaded);
     }
 }
@@ -0,0 +1,126 @@
+package dao;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+class DescriptionCodec {
+
+    /*
+     *  The purpose of the DescriptionCodec class is to compress large descriptions before they are stored,
+     *  and inflate them again when they are read.
+     *  Compressed descriptions are written in the format of the MySQL COMPRESS() function, so the database can
+     *  still read them with UNCOMPRESS():
+     *  - the length of the UTF-8 description in bytes, as a 4-byte little-endian int
+     *  - the description deflated as a zlib stream
+     */
+
+    // Bytes before the zlib stream holding the length of the description
+    private static final int HEADER_SIZE = 4;
+
+    // Longest description inflated, the most a MEDIUMBLOB holds, so a corrupt length never allocates more
+    private static final int MAX_LENGTH = 16 * 1024 * 1024 - 1;
+
+    /**
+     * Private constructor, the DescriptionCodec is only used statically
+     */
+    private DescriptionCodec() {
+    }
+
+    /**
+     * Compresses a description if it is at least the threshold long, and compressing makes it smaller
+     *
+     * @param description to compress, may be null
+     * @param threshold   UTF-8 length in bytes descriptions are compressed from, 0 or less never compresses
+     * @return compressed description, or null if the description should be stored as it is
+     */
+    protected static byte[] compress(String description, int threshold) {
+        if (description == null || threshold <= 0 || description.length() * 3 < threshold) {
+            return null;
+        }
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < threshold) {
+            return null;
+        }
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + HEADER_SIZE);
+            out.writeBytes(ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN).putInt(bytes.length).array());
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+                // Not worth storing compressed if it is no smaller
+                if (out.size() >= bytes.length) {
+                    return null;
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflates a description compressed by compress, or the MySQL COMPRESS() function
+     *
+     * @param data compressed description
+     * @return description
+     * @throws IllegalStateException if the data is not a compressed description
+     */
+    protected static String inflate(byte[] data) {
+        if (data.length < HEADER_SIZE) {
+            throw new IllegalStateException("Compressed description is truncated");
+        }
+        int length = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IllegalStateException("Compressed description has an invalid length " + length);
+        }
+        byte[] bytes = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, HEADER_SIZE, data.length - HEADER_SIZE);
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(bytes, read, length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != length) {
+                throw new IllegalStateException("Compressed description is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed description is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A compressed description, inflated when it is read. The compressed bytes can be stored again as they are,
+     * e.g. in a snapshot, without inflating them
+     *
+     * @param data compressed description
+     */
+    protected record Compressed(byte[] data) implements Supplier<String> {
+
+        /**
+         * Inflates the description
+         *
+         * @return description
+         */
+        @Override
+        public String get() {
+            return inflate(this.data);
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package dao;
+
+import exceptions.ChangesExpiredException;
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import types.ChangeType;
+import types.ItemStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class InMemoryToDoListStore implements ToDoListStore {
+
+    /*
+     *  The purpose of the InMemoryToDoListStore class is to store ListItem objects in memory, without a database.
+     *  Items are held in a concurrent map by title, with secondary indexes by status and by due date.
+     *  Reads do not lock. Writes lock so the map and indexes always change together.
+     *  Every write is recorded as a sequenced ChangeEvent. Only the latest 'changes.memoryRetentionCount' are kept.
+     */
+
+    // Stored items by title
+    private final Map<String, ListItem> items = new ConcurrentHashMap<>();
+
+    // Titles of the stored items by status
+    private final Map<ItemStatus, Set<String>> statusIndex = new EnumMap<>(ItemStatus.class);
+
+    // Titles of the stored items with a due date, by due date
+    private final NavigableMap<LocalDateTime, Set<String>> dueDateIndex = new ConcurrentSkipListMap<>();
+
+    // Recorded changes by sequence
+    private final NavigableMap<Long, ChangeEvent> changes = new ConcurrentSkipListMap<>();
+
+    // Maximum number of changes kept, the oldest are dropped first
+    private final int changeRetention;
+
+    // Sequence of the latest change
+    private volatile long latestSequence;
+
+    // Sequence of the latest change dropped, changes after it are all kept
+    private volatile long purgedThrough;
+
+    // Id given to the latest stored item
+    private long latestId;
+
+    /**
+     * Constructor for the InMemoryToDoListStore
+     * Keeps the number of changes from connParams.txt
+     */
+    public InMemoryToDoListStore() {
+        this(new DBConnector().getIntDetail("changes.memoryRetentionCount", 10000));
+    }
+
+    /**
+     * Constructor for the InMemoryToDoListStore
+     * Creates an empty status index for each ItemStatus
+     *
+     * @param changeRetention maximum number of changes kept
+     */
+    protected InMemoryToDoListStore(int changeRetention) {
+        this.changeRetention = Math.max(1, changeRetention);
+        for (ItemStatus status : ItemStatus.values()) {
+            this.statusIndex.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Stores a new ListItem
+     *
+     * @param item to store
+     * @throws ListItemAlreadyExistsException if an item with the same title is already stored
+     */
+    @Override
+    public synchronized void addListItem(ListItem item) throws ListItemAlreadyExistsException {
+        if (this.items.containsKey(item.getTitle())) {
+            throw new ListItemAlreadyExistsException("An item with name '" + item.getTitle() + "' already exists");
+        }
+        item.markSaved(++this.latestId, 0);
+        index(new ListItem(item));
+        record(ChangeType.ADD, item.getTitle(), item);
+    }
+
+    /**
+     * Stores a collection of ListItem objects
+     *
+     * @param items to store
+     * @return BatchInsertResult with the number of items stored, and the items rejected
+     */
+    @Override
+    public synchronized BatchInsertResult addListItems(Collection<ListItem> items) {
+        BatchInsertResult result = new BatchInsertResult();
+        Set<String> titles = new HashSet<>();
+        for (ListItem item : items) {
+            if (item.getTitle() == null || item.getTitle().length() == 0) {
+                result.addFailure(item, "Item title is invalid");
+            } else if (!titles.add(item.getTitle())) {
+                result.addFailure(item, "Item appears more than once in the batch");
+            } else if (this.items.containsKey(item.getTitle())) {
+                result.addFailure(item, "An item with this title already exists");
+            } else {
+                item.markSaved(++this.latestId, 0);
+                index(new ListItem(item));
+                record(ChangeType.ADD, item.getTitle(), item);
+                result.addInserted(1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the changed fields of a ListItem. The item is found by the title it was stored under
+     *
+     * @param item to update
+     * @return true if the changes were saved, false if the new title is already used by another item
+     * @throws ListItemNotFoundException if the list item is not found
+     * @throws ListItemConflictException if the list item has been changed since it was read
+     */
+    @Override
+    public synchronized boolean updateListItem(ListItem item) throws ListItemNotFoundException, ListItemConflictException {
+        if (!item.hasChanges()) {
+            return true;
+        }
+        ListItem stored = this.items.get(item.getOriginalTitle());
+        if (stored == null) {
+            throw new ListItemNotFoundException("Item '" + item.getOriginalTitle() + "' cannot be found");
+        }
+        if (stored.getVersion() != item.getVersion()) {
+            throw new ListItemConflictException("Item '" + item.getOriginalTitle() + "' has been changed by someone else since it was read");
+        }
+        if (!Objects.equals(item.getTitle(), item.getOriginalTitle()) && this.items.containsKey(item.getTitle())) {
+            return false;
+        }
+        unindex(stored);
+        String previousTitle = item.getOriginalTitle();
+        item.markSaved(stored.getId(), stored.getVersion() + 1);
+        index(new ListItem(item));
+        record(ChangeType.UPDATE, previousTitle, item);
+        return true;
+    }
+
+    /**
+     * Sets the status of every stored ListItem matching the filters of the query, found through the indexes,
+     * and records each change. Items which already have the status are not changed
+     *
+     * @param query  selecting the items to change
+     * @param status to set
+     * @return number of items changed
+     * @throws InvalidItemStatusException if the status is null
+     */
+    @Override
+    public synchronized int updateStatuses(ListItemQuery query, ItemStatus status) throws InvalidItemStatusException {
+        if (status == null) {
+            throw new InvalidItemStatusException("ItemStatus cannot be null");
+        }
+        List<ListItem> matching;
+        try (Stream<ListItem> copies = query(query.filtersOnly())) {
+            matching = copies.filter(item -> item.getStatus() != status).collect(Collectors.toList());
+        }
+        for (ListItem item : matching) {
+            ListItem stored = this.items.get(item.getTitle());
+            unindex(stored);
+            item.setStatus(status);
+            item.markSaved(stored.getId(), stored.getVersion() + 1);
+            index(item);
+            record(ChangeType.UPDATE, item.getTitle(), item);
+        }
+        return matching.size();
+    }
+
+    /**
+     * Removes a ListItem
+     *
+     * @param title of the ListItem to remove
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public synchronized void removeListItem(String title) throws ListItemNotFoundException {
+        ListItem stored = this.items.get(title);
+        if (stored == null) {
+            throw new ListItemNotFoundException("Item '" + title + "' cannot be found");
+        }
+        unindex(stored);
+        record(ChangeType.REMOVE, title, null);
+    }
+
+    /**
+     * Removes every ListItem
+     */
+    @Override
+    public synchronized void removeAllItems() {
+        this.items.clear();
+        this.statusIndex.values().forEach(Set::clear);
+        this.dueDateIndex.clear();
+        record(ChangeType.CLEAR, null, null);
+    }
+
+    /**
+     * Finds a ListItem by title
+     *
+     * @param title of the ListItem
+     * @return copy of the ListItem found
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public ListItem getItemByTitle(String title) throws ListItemNotFoundException {
+        ListItem stored = this.items.get(title);
+        if (stored == null) {
+            throw new ListItemNotFoundException("Item '" + title + "' cannot be found");
+        }
+        return new ListItem(stored);
+    }
+
+    /**
+     * Checks whether a ListItem with the title is stored
+     *
+     * @param title of the ListItem
+     * @return true if the item exists, false otherwise
+     */
+    @Override
+    public boolean doesListItemExist(String title) {
+        return this.items.containsKey(title);
+    }
+
+    /**
+     * Streams a copy of every stored ListItem
+     *
+     * @return Stream of all items
+     */
+    @Override
+    public Stream<ListItem> streamAllListItems() {
+        return this.items.values().stream().map(ListItem::new);
+    }
+
+    /**
+     * Streams a copy of every stored ListItem matching the query.
+     * Candidates are read from the due date index when the query has a due date range,
+     * or from the status index when it has statuses, then filtered and sorted
+     *
+     * @param query to filter and order the items with
+     * @return Stream of the matching items
+     */
+    @Override
+    public Stream<ListItem> query(ListItemQuery query) {
+        Stream<String> titles;
+        if (query.getDueFrom() != null || query.getDueBefore() != null) {
+            NavigableMap<LocalDateTime, Set<String>> due = this.dueDateIndex;
+            if (query.getDueFrom() != null && query.getDueBefore() != null) {
+                due = query.getDueFrom().isBefore(query.getDueBefore())
+                        ? due.subMap(query.getDueFrom(), true, query.getDueBefore(), false)
+                        : Collections.emptyNavigableMap();
+            } else if (query.getDueFrom() != null) {
+                due = due.tailMap(query.getDueFrom(), true);
+            } else {
+                due = due.headMap(query.getDueBefore(), false);
+            }
+            titles = due.values().stream().flatMap(Set::stream);
+        } else if (!query.getStatuses().isEmpty()) {
+            titles = query.getStatuses().stream().flatMap(status -> this.statusIndex.get(status).stream());
+        } else {
+            titles = this.items.keySet().stream();
+        }
+        Stream<ListItem> matching = titles.map(this.items::get)
+                .filter(Objects::nonNull)
+                .filter(query::matches)
+                .sorted(query.comparator())
+                .map(ListItem::new);
+        return query.getLimit() > 0 ? matching.limit(query.getLimit()) : matching;
+    }
+
+    /**
+     * Reads the changes recorded after a sequence
+     *
+     * @param sequence of the last change already seen, 0 for none
+     * @param limit    maximum number of changes read
+     * @return changes after the sequence, in sequence order
+     * @throws ChangesExpiredException if changes after the sequence have been dropped
+     */
+    @Override
+    public List<ChangeEvent> getChangesSince(long sequence, int limit) throws ChangesExpiredException {
+        checkRetained(sequence);
+        List<ChangeEvent> read = this.changes.tailMap(sequence, false).values().stream()
+                .limit(Math.max(0, limit))
+                .collect(Collectors.toList());
+        // Changes may have been dropped while reading
+        checkRetained(sequence);
+        return read;
+    }
+
+    /**
+     * Get the sequence of the latest change
+     *
+     * @return latest sequence, 0 if nothing has changed
+     */
+    @Override
+    public long getLatestSequence() {
+        return this.latestSequence;
+    }
+
+    /**
+     * Get a copy of every stored ListItem with the status, using the status index
+     *
+     * @param status of the items
+     * @return items with the status
+     */
+    public List<ListItem> getItemsByStatus(ItemStatus status) {
+        return copiesOf(this.statusIndex.get(status).stream());
+    }
+
+    /**
+     * Get a copy of every stored ListItem due between two dates, in due date order, using the due date index
+     *
+     * @param from earliest due date, inclusive
+     * @param to   latest due date, exclusive
+     * @return items due between the dates
+     */
+    public List<ListItem> getItemsDueBetween(LocalDateTime from, LocalDateTime to) {
+        return copiesOf(this.dueDateIndex.subMap(from, true, to, false).values().stream().flatMap(Set::stream));
+    }
+
+    /**
+     * Looks up the titles, and copies the items still stored
+     *
+     * @param titles of the items
+     * @return copies of the items
+     */
+    private List<ListItem> copiesOf(Stream<String> titles) {
+        return titles.map(this.items::get)
+                .filter(Objects::nonNull)
+                .map(ListItem::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Checks that every change after the sequence is still kept
+     *
+     * @param sequence of the last change already seen
+     * @throws ChangesExpiredException if changes after the sequence have been dropped
+     */
+    private void checkRetained(long sequence) throws ChangesExpiredException {
+        long purged = this.purgedThrough;
+        if (sequence < purged) {
+            throw new ChangesExpiredException("Changes up to #" + purged + " have been dropped, the list must be read again");
+        }
+    }
+
+    /**
+     * Records a change with the next sequence, and drops the oldest changes over the retention count
+     * The write lock should be held
+     *
+     * @param type          of change
+     * @param previousTitle the item was stored under
+     * @param item          after the change, null for a removal or clear
+     */
+    private void record(ChangeType type, String previousTitle, ListItem item) {
+        long sequence = this.latestSequence + 1;
+        String title = item == null ? previousTitle : item.getTitle();
+        this.changes.put(sequence, new ChangeEvent(sequence, type, title, previousTitle, item, LocalDateTime.now()));
+        this.latestSequence = sequence;
+        while (this.changes.size() > this.changeRetention) {
+            this.purgedThrough = this.changes.pollFirstEntry().getKey();
+        }
+    }
+
+    /**
+     * Adds the ListItem to the map and the indexes
+     *
+     * @param item to add
+     */
+    private void index(ListItem item) {
+        this.items.put(item.getTitle(), item);
+        this.statusIndex.get(item.getStatus()).add(item.getTitle());
+        if (item.getDueDate() != null) {
+            this.dueDateIndex.computeIfAbsent(item.getDueDate(), dueDate -> ConcurrentHashMap.newKeySet()).add(item.getTitle());
+        }
+    }
+
+    /**
+     * Removes the ListItem from the map and the indexes
+     *
+     * @param item to remove
+     */
+    private void unindex(ListItem item) {
+        this.items.remove(item.getTitle());
+        this.statusIndex.get(item.getStatus()).remove(item.getTitle());
+        if (item.getDueDate() != null) {
+            Set<String> titles = this.dueDateIndex.get(item.getDueDate());
+            if (titles != null) {
+                titles.remove(item.getTitle());
+                if (titles.isEmpty()) {
+                    this.dueDateIndex.remove(item.getDueDate());
+                }
+            }
+        }
+    }
+}
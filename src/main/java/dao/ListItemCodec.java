@@ -0,0 +1,115 @@
+package dao;
+
+import model.ListItem;
+import types.ItemStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+class ListItemCodec {
+
+    /*
+     *  The purpose of the ListItemCodec class is to write ListItem objects to, and read them from, a compact binary form
+     *  for the file based storage engines. Dates are stored as epoch seconds (UTC), and the status by its ordinal.
+     */
+
+    // Stored in place of a date that is not set
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * Private constructor, the ListItemCodec is only used statically
+     */
+    private ListItemCodec() {
+    }
+
+    /**
+     * Writes the properties of the ListItem
+     *
+     * @param out  to write to
+     * @param item to write
+     * @throws IOException if the item cannot be written
+     */
+    protected static void writeItem(DataOutput out, ListItem item) throws IOException {
+        writeString(out, item.getTitle());
+        writeString(out, item.getDescription());
+        writeDate(out, item.getTimestamp());
+        writeDate(out, item.getDueDate());
+        out.writeByte(item.getStatus().ordinal());
+    }
+
+    /**
+     * Reads a ListItem written by writeItem
+     *
+     * @param in to read from
+     * @return ListItem read
+     * @throws IOException if the item cannot be read
+     */
+    protected static ListItem readItem(DataInput in) throws IOException {
+        return new ListItem(readString(in),
+                readString(in),
+                readDate(in),
+                readDate(in),
+                ItemStatus.values()[in.readByte()]);
+    }
+
+    /**
+     * Writes a String as its UTF-8 length and bytes, or -1 if it is null
+     *
+     * @param out   to write to
+     * @param value to write, may be null
+     * @throws IOException if the String cannot be written
+     */
+    protected static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a String written by writeString
+     *
+     * @param in to read from
+     * @return String read, may be null
+     * @throws IOException if the String cannot be read
+     */
+    protected static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a date as epoch seconds
+     *
+     * @param out  to write to
+     * @param date to write, may be null
+     * @throws IOException if the date cannot be written
+     */
+    private static void writeDate(DataOutput out, LocalDateTime date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * Reads a date written by writeDate
+     *
+     * @param in to read from
+     * @return date read, may be null
+     * @throws IOException if the date cannot be read
+     */
+    private static LocalDateTime readDate(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        return seconds == NO_DATE ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,309 @@
+package dao;
+
+import lombok.Getter;
+import model.ListItem;
+import types.ItemStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Getter
+public class ListItemQuery {
+
+    /*
+     *  The purpose of the ListItemQuery class is to describe a filtered, ordered read of ListItem objects,
+     *  so storage engines can answer it from their indexes rather than reading every item.
+     *  Pages are read with a keyset: the query continues after the last item of the previous page,
+     *  so reading a page never skips over the pages before it.
+     *  Queries are created with a Builder. e.g. ListItemQuery.builder().statuses(ItemStatus.PENDING).limit(10).build()
+     */
+
+    /**
+     * Orders items can be returned in. Title breaks ties, so every order is total
+     */
+    public enum Order {
+        TITLE,
+        DUE_DATE, // Items without a due date come first
+        CREATED
+    }
+
+    // Statuses to include, every status if empty
+    private final Set<ItemStatus> statuses;
+
+    // Earliest due date to include, inclusive. Null if not filtered
+    private final LocalDateTime dueFrom;
+
+    // Due date to include items before, exclusive. Null if not filtered
+    private final LocalDateTime dueBefore;
+
+    // Earliest timestamp to include, inclusive. Null if not filtered
+    private final LocalDateTime createdSince;
+
+    // Whether only items without a due date are included
+    private final boolean withoutDueDate;
+
+    // Order the items are returned in
+    private final Order order;
+
+    // Whether the order is reversed
+    private final boolean descending;
+
+    // Maximum number of items returned, 0 if not limited
+    private final int limit;
+
+    // Items up to and including this one in the order are skipped. Null to start from the first item
+    private final ListItem cursor;
+
+    /**
+     * Constructor for the ListItemQuery
+     *
+     * @param builder holding the query settings
+     */
+    private ListItemQuery(Builder builder) {
+        this.statuses = Collections.unmodifiableSet(EnumSet.copyOf(builder.statuses));
+        this.dueFrom = builder.dueFrom;
+        this.dueBefore = builder.dueBefore;
+        this.createdSince = builder.createdSince;
+        this.withoutDueDate = builder.withoutDueDate;
+        this.order = builder.order;
+        this.descending = builder.descending;
+        this.limit = builder.limit;
+        this.cursor = builder.cursor;
+    }
+
+    /**
+     * Creates a Builder for a query of every item, in title order
+     *
+     * @return Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a Builder with the settings of this query. e.g. to read the page after this one
+     *
+     * @return Builder
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.statuses.addAll(this.statuses);
+        builder.dueFrom = this.dueFrom;
+        builder.dueBefore = this.dueBefore;
+        builder.createdSince = this.createdSince;
+        builder.withoutDueDate = this.withoutDueDate;
+        builder.order = this.order;
+        builder.descending = this.descending;
+        builder.limit = this.limit;
+        builder.cursor = this.cursor;
+        return builder;
+    }
+
+    /**
+     * Get a query with the filters of this query only, without its order, cursor or limit
+     * Used to select every item a bulk change applies to
+     *
+     * @return ListItemQuery
+     */
+    public ListItemQuery filtersOnly() {
+        return toBuilder().orderBy(Order.TITLE).descending(false).after(null).limit(0).build();
+    }
+
+    /**
+     * Get a query with the filters of this query only, matching the status in place of its statuses
+     * Used to read back the items a bulk change has set to the status
+     *
+     * @param status the items have
+     * @return ListItemQuery
+     */
+    public ListItemQuery filtersWithStatus(ItemStatus status) {
+        Builder builder = toBuilder().orderBy(Order.TITLE).descending(false).after(null).limit(0);
+        builder.statuses.clear();
+        return builder.statuses(status).build();
+    }
+
+    /**
+     * Checks whether the item is returned by the query, ignoring the limit
+     *
+     * @param item to check
+     * @return true if the item matches every filter, and comes after the cursor
+     */
+    public boolean matches(ListItem item) {
+        if (!this.statuses.isEmpty() && !this.statuses.contains(item.getStatus())) {
+            return false;
+        }
+        LocalDateTime dueDate = item.getDueDate();
+        if (this.withoutDueDate && dueDate != null) {
+            return false;
+        }
+        if (this.dueFrom != null && (dueDate == null || dueDate.isBefore(this.dueFrom))) {
+            return false;
+        }
+        if (this.dueBefore != null && (dueDate == null || !dueDate.isBefore(this.dueBefore))) {
+            return false;
+        }
+        if (this.createdSince != null && (item.getTimestamp() == null || item.getTimestamp().isBefore(this.createdSince))) {
+            return false;
+        }
+        return this.cursor == null || comparator().compare(item, this.cursor) > 0;
+    }
+
+    /**
+     * Get a Comparator for the order of the query
+     *
+     * @return Comparator of ListItem objects
+     */
+    public Comparator<ListItem> comparator() {
+        Comparator<ListItem> comparator = switch (this.order) {
+            case TITLE -> Comparator.comparing(ListItem::getTitle);
+            case DUE_DATE -> Comparator.comparing(ListItem::getDueDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(ListItem::getTitle);
+            case CREATED -> Comparator.comparing(ListItem::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(ListItem::getTitle);
+        };
+        return this.descending ? comparator.reversed() : comparator;
+    }
+
+    /**
+     * Builds a ListItemQuery
+     */
+    public static class Builder {
+
+        private final Set<ItemStatus> statuses = EnumSet.noneOf(ItemStatus.class);
+        private LocalDateTime dueFrom;
+        private LocalDateTime dueBefore;
+        private LocalDateTime createdSince;
+        private boolean withoutDueDate;
+        private Order order = Order.TITLE;
+        private boolean descending;
+        private int limit;
+        private ListItem cursor;
+
+        /**
+         * Private constructor, a Builder is created with ListItemQuery.builder()
+         */
+        private Builder() {
+        }
+
+        /**
+         * Only include items with one of the statuses
+         *
+         * @param statuses to include
+         * @return Builder
+         */
+        public Builder statuses(ItemStatus... statuses) {
+            Collections.addAll(this.statuses, statuses);
+            return this;
+        }
+
+        /**
+         * Only include items due on or after the date
+         *
+         * @param from earliest due date, inclusive
+         * @return Builder
+         */
+        public Builder dueFrom(LocalDateTime from) {
+            this.dueFrom = from;
+            return this;
+        }
+
+        /**
+         * Only include items due before the date
+         *
+         * @param before due date, exclusive
+         * @return Builder
+         */
+        public Builder dueBefore(LocalDateTime before) {
+            this.dueBefore = before;
+            return this;
+        }
+
+        /**
+         * Only include items due between the dates
+         *
+         * @param from   earliest due date, inclusive
+         * @param before due date, exclusive
+         * @return Builder
+         */
+        public Builder dueBetween(LocalDateTime from, LocalDateTime before) {
+            return dueFrom(from).dueBefore(before);
+        }
+
+        /**
+         * Only include items created on or after the date
+         *
+         * @param since earliest timestamp, inclusive
+         * @return Builder
+         */
+        public Builder createdSince(LocalDateTime since) {
+            this.createdSince = since;
+            return this;
+        }
+
+        /**
+         * Only include items without a due date
+         *
+         * @return Builder
+         */
+        public Builder withoutDueDate() {
+            this.withoutDueDate = true;
+            return this;
+        }
+
+        /**
+         * Set the order the items are returned in
+         *
+         * @param order of the items
+         * @return Builder
+         */
+        public Builder orderBy(Order order) {
+            this.order = order;
+            return this;
+        }
+
+        /**
+         * Set whether the order is reversed
+         *
+         * @param descending true to reverse the order
+         * @return Builder
+         */
+        public Builder descending(boolean descending) {
+            this.descending = descending;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of items returned
+         *
+         * @param limit of items, 0 for no limit
+         * @return Builder
+         */
+        public Builder limit(int limit) {
+            this.limit = Math.max(0, limit);
+            return this;
+        }
+
+        /**
+         * Continue after an item, usually the last item of the previous page
+         *
+         * @param item to continue after, or null to start from the first item
+         * @return Builder
+         */
+        public Builder after(ListItem item) {
+            this.cursor = item == null ? null : new ListItem(item);
+            return this;
+        }
+
+        /**
+         * Creates the ListItemQuery
+         *
+         * @return ListItemQuery
+         */
+        public ListItemQuery build() {
+            return new ListItemQuery(this);
+        }
+    }
+}
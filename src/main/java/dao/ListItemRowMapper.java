@@ -0,0 +1,42 @@
+package dao;
+
+import model.ListItem;
+import types.ItemStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+class ListItemRowMapper {
+
+    /*
+     *  The purpose of the ListItemRowMapper class is to turn the current row of a ResultSet
+     *  from the todolist table into a ListItem, so every query maps rows the same way.
+     */
+
+    /**
+     * Creates a ListItem from the row the ResultSet is currently positioned on
+     * Dates are read directly from the DATETIME columns, a missing due date is stored as NULL
+     * The id and version are kept, so an update can check the row has not changed since it was read
+     * A compressed description is only inflated when it is first read from the ListItem,
+     * so items shown by title and status never decompress it
+     *
+     * @param set positioned on the row to map
+     * @return ListItem created from the row
+     * @throws SQLException if a column cannot be read
+     */
+    protected ListItem mapRow(ResultSet set) throws SQLException {
+        // Create the ListItem object with the ResultSet elements
+        ListItem item = new ListItem(set.getString("title"),
+                set.getString("description"),
+                set.getObject("timestamp", LocalDateTime.class),
+                set.getObject("dueDate", LocalDateTime.class),
+                ItemStatus.valueOf(set.getString("status")));
+        if (set.getBoolean("descriptionCompressed")) {
+            byte[] compressed = set.getBytes("compressedDescription");
+            item.deferDescription(new DescriptionCodec.Compressed(compressed));
+        }
+        item.markSaved(set.getLong("id"), set.getLong("version"));
+        return item;
+    }
+}
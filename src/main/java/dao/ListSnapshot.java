@@ -0,0 +1,381 @@
+package dao;
+
+import model.ListItem;
+import types.ItemStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class ListSnapshot {
+
+    /*
+     *  The purpose of the ListSnapshot class is to read and write a compact binary snapshot of every ListItem.
+     *  The file is memory-mapped, and items are decoded from it only when they are accessed.
+     *
+     *  Layout (big-endian):
+     *  - Header:  magic (int), version (short), reserved (short), item count (int), string table offset (long)
+     *  - Records: one fixed-width record per item, sorted by title
+     *             title offset (int), title length (int), description offset (int), description length (int, -1 if null),
+     *             timestamp (long, epoch minutes UTC), dueDate (long, epoch minutes UTC, or Long.MIN_VALUE if not set),
+     *             status (byte, ItemStatus ordinal), id (long), version (long), flags (byte, 1 if the description is compressed)
+     *  - String table: the UTF-8 bytes of every title and description, referenced by the record offsets.
+     *    A compressed description is stored as the bytes written by the DescriptionCodec
+     */
+
+    // Identifies a snapshot file, and the version of its layout
+    private static final int MAGIC = 0x54445348;
+    private static final short VERSION = 3;
+
+    // Size of the header, and of each record
+    private static final int HEADER_SIZE = 20;
+    private static final int RECORD_SIZE = 50;
+
+    // Flag set on a record whose description is compressed
+    private static final byte COMPRESSED = 1;
+
+    // Stored in place of a due date that is not set
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    // The mapped snapshot file
+    private final ByteBuffer buffer;
+
+    // Number of items in the snapshot
+    private final int count;
+
+    // Position of the string table in the file
+    private final int stringTableOffset;
+
+    /**
+     * Constructor for the ListSnapshot
+     *
+     * @param buffer holding the snapshot file
+     * @throws IOException if the buffer does not hold a snapshot this version can read
+     */
+    private ListSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a to-do list snapshot");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getShort(4));
+        }
+        this.count = buffer.getInt(8);
+        this.stringTableOffset = (int) buffer.getLong(12);
+        if ((long) HEADER_SIZE + (long) this.count * RECORD_SIZE > this.stringTableOffset || this.stringTableOffset > buffer.capacity()) {
+            throw new IOException("Snapshot is truncated");
+        }
+    }
+
+    /**
+     * Maps a snapshot file into memory. Nothing is decoded until an item is accessed
+     *
+     * @param path of the snapshot file
+     * @return ListSnapshot reading from the mapped file
+     * @throws IOException if the file cannot be mapped, or is not a snapshot
+     */
+    public static ListSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ListSnapshot(mapped);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the items. The snapshot is written to a temporary file and moved into place,
+     * so a snapshot that is already mapped is never modified.
+     * The items are streamed into a file of records and a file of strings as they are read, so neither the items
+     * nor their strings are held in memory. Items given in title order are copied into place as they are;
+     * otherwise a second pass sorts the record indexes by title. Compressed descriptions which have not been read
+     * are written compressed, without inflating them
+     *
+     * @param path  to write the snapshot to
+     * @param items to write, ideally in title order
+     * @throws IOException if the snapshot cannot be written, or exceeds 2GB
+     */
+    public static void write(Path path, Stream<ListItem> items) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path records = path.resolveSibling(path.getFileName() + ".records.tmp");
+        Path strings = path.resolveSibling(path.getFileName() + ".strings.tmp");
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            int count = 0;
+            long stringOffset = 0;
+            boolean sorted = true;
+            String previous = null;
+            try (DataOutputStream recordOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(records), 64 * 1024));
+                 OutputStream stringOut = new BufferedOutputStream(Files.newOutputStream(strings), 64 * 1024)) {
+                Iterator<ListItem> iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    ListItem item = iterator.next();
+                    byte[] title = item.getTitle().getBytes(StandardCharsets.UTF_8);
+                    byte[] description;
+                    byte flags = 0;
+                    if (item.getDeferredDescription() instanceof DescriptionCodec.Compressed compressed) {
+                        description = compressed.data();
+                        flags = COMPRESSED;
+                    } else {
+                        description = item.getDescription() == null ? null : item.getDescription().getBytes(StandardCharsets.UTF_8);
+                    }
+                    long titleOffset = stringOffset;
+                    stringOffset += title.length + (description == null ? 0 : description.length);
+                    if (HEADER_SIZE + (long) (count + 1) * RECORD_SIZE + stringOffset > Integer.MAX_VALUE) {
+                        throw new IOException("The snapshot exceeds 2GB");
+                    }
+                    recordOut.writeInt((int) titleOffset);
+                    recordOut.writeInt(title.length);
+                    recordOut.writeInt((int) titleOffset + title.length);
+                    recordOut.writeInt(description == null ? -1 : description.length);
+                    recordOut.writeLong(toEpochMinute(item.getTimestamp()));
+                    recordOut.writeLong(toEpochMinute(item.getDueDate()));
+                    recordOut.writeByte(item.getStatus().ordinal());
+                    recordOut.writeLong(item.getId());
+                    recordOut.writeLong(item.getVersion());
+                    recordOut.writeByte(flags);
+                    stringOut.write(title);
+                    if (description != null) {
+                        stringOut.write(description);
+                    }
+                    sorted = sorted && (previous == null || previous.compareTo(item.getTitle()) < 0);
+                    previous = item.getTitle();
+                    count++;
+                }
+            }
+
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(count).putLong(HEADER_SIZE + (long) count * RECORD_SIZE);
+                writeFully(out, header.flip());
+                if (sorted) {
+                    transfer(records, out);
+                } else {
+                    writeSorted(records, strings, count, out);
+                }
+                transfer(strings, out);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(records);
+            Files.deleteIfExists(strings);
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Get the number of items in the snapshot
+     *
+     * @return count
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Decodes the item at the index. Items are sorted by title
+     *
+     * @param index of the item
+     * @return ListItem decoded from the snapshot
+     */
+    public ListItem get(int index) {
+        int record = recordOffset(index);
+        int descriptionLength = this.buffer.getInt(record + 12);
+        boolean compressed = (this.buffer.get(record + 49) & COMPRESSED) != 0;
+        ListItem item = new ListItem(getTitle(index),
+                descriptionLength < 0 || compressed ? null : readString(this.buffer.getInt(record + 8), descriptionLength),
+                fromEpochMinute(this.buffer.getLong(record + 16)),
+                fromEpochMinute(this.buffer.getLong(record + 24)),
+                ItemStatus.values()[this.buffer.get(record + 32)]);
+        if (compressed) {
+            // Inflated only if the description is read
+            byte[] data = new byte[descriptionLength];
+            this.buffer.get(this.stringTableOffset + this.buffer.getInt(record + 8), data);
+            item.deferDescription(new DescriptionCodec.Compressed(data));
+        }
+        item.markSaved(this.buffer.getLong(record + 33), this.buffer.getLong(record + 41));
+        return item;
+    }
+
+    /**
+     * Decodes only the title of the item at the index
+     *
+     * @param index of the item
+     * @return title
+     */
+    public String getTitle(int index) {
+        int record = recordOffset(index);
+        return readString(this.buffer.getInt(record), this.buffer.getInt(record + 4));
+    }
+
+    /**
+     * Finds the index of the item with the title, with a binary search over the titles
+     *
+     * @param title to find
+     * @return index of the item, or -1 if it is not in the snapshot
+     */
+    public int indexOf(String title) {
+        int low = 0;
+        int high = this.count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = getTitle(middle).compareTo(title);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Streams every item in title order. Each item is decoded as the Stream reaches it
+     *
+     * @return Stream of all items
+     */
+    public Stream<ListItem> stream() {
+        return IntStream.range(0, this.count).mapToObj(this::get);
+    }
+
+    /**
+     * Iterates over the titles in order, without decoding the rest of each item
+     *
+     * @return Iterator of the titles
+     */
+    public Iterator<String> titles() {
+        return IntStream.range(0, this.count).mapToObj(this::getTitle).iterator();
+    }
+
+    /**
+     * Get the position of the record for the item at the index
+     *
+     * @param index of the item
+     * @return position of the record
+     * @throws IndexOutOfBoundsException if the index is not in the snapshot
+     */
+    private int recordOffset(int index) {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not in the snapshot of " + this.count + " items");
+        }
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    /**
+     * Decodes a String from the string table
+     *
+     * @param offset in the string table
+     * @param length in bytes
+     * @return String decoded
+     */
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        this.buffer.get(this.stringTableOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the records in title order, for items which were not written in title order.
+     * Only the index of each record is held in memory, the titles are read from the mapped files
+     *
+     * @param records file of the records, in the order the items were written
+     * @param strings file of the strings the records refer to
+     * @param count   of records
+     * @param out     to write the sorted records to
+     * @throws IOException if the files cannot be read, or the records written
+     */
+    private static void writeSorted(Path records, Path strings, int count, FileChannel out) throws IOException {
+        ByteBuffer recordBuffer;
+        ByteBuffer stringBuffer;
+        try (FileChannel recordChannel = FileChannel.open(records, StandardOpenOption.READ);
+             FileChannel stringChannel = FileChannel.open(strings, StandardOpenOption.READ)) {
+            recordBuffer = recordChannel.map(FileChannel.MapMode.READ_ONLY, 0, recordChannel.size());
+            stringBuffer = stringChannel.map(FileChannel.MapMode.READ_ONLY, 0, stringChannel.size());
+        }
+        int[] order = IntStream.range(0, count).boxed()
+                .sorted(Comparator.comparing(index -> {
+                    byte[] title = new byte[recordBuffer.getInt(index * RECORD_SIZE + 4)];
+                    stringBuffer.get(recordBuffer.getInt(index * RECORD_SIZE), title);
+                    return new String(title, StandardCharsets.UTF_8);
+                }))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD_SIZE * 1024);
+        for (int index : order) {
+            if (chunk.remaining() < RECORD_SIZE) {
+                writeFully(out, chunk.flip());
+                chunk.clear();
+            }
+            chunk.put(recordBuffer.slice(index * RECORD_SIZE, RECORD_SIZE));
+        }
+        writeFully(out, chunk.flip());
+    }
+
+    /**
+     * Appends the contents of a file to a channel
+     *
+     * @param file to append
+     * @param out  to append to
+     * @throws IOException if the file cannot be read, or the channel written
+     */
+    private static void transfer(Path file, FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    /**
+     * Writes every remaining byte of a buffer to a channel
+     *
+     * @param out    to write to
+     * @param buffer to write
+     * @throws IOException if the channel cannot be written
+     */
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Converts a date to minutes since the epoch (UTC)
+     *
+     * @param date to convert, may be null
+     * @return epoch minutes, or NO_DATE if the date is null
+     */
+    private static long toEpochMinute(LocalDateTime date) {
+        return date == null ? NO_DATE : Math.floorDiv(date.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Converts minutes since the epoch (UTC) to a date
+     *
+     * @param epochMinute to convert
+     * @return date, or null if the value is NO_DATE
+     */
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return epochMinute == NO_DATE ? null : LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+}
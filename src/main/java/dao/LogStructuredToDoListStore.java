@@ -0,0 +1,1013 @@
+package dao;
+
+import exceptions.ChangesExpiredException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import exceptions.StorageException;
+import model.ListItem;
+import types.ChangeType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+public class LogStructuredToDoListStore implements ToDoListStore {
+
+    /*
+     *  The purpose of the LogStructuredToDoListStore class is to store ListItem objects in local files without a database.
+     *  Every add, update and remove is appended to the active segment file, and an in-memory index maps each title
+     *  to the position of its latest record, so a read is one positioned read.
+     *
+     *  Segments are named segment-<id>.g<generation>.log and are replayed in id order. Once the active segment is full
+     *  it is sealed, and a background thread compacts the sealed segments: their live records are copied into a single
+     *  segment with the id of the newest input and a higher generation, which replaces every input.
+     *  A checkpoint of the index is written after each compaction, so startup only replays records written since.
+     *
+     *  Every record carries the sequence of its change and when it was made, so the records of segments that have not
+     *  been compacted are the change feed. Compaction keeps only the latest record of each item, so the feed starts
+     *  after the last compacted record, or after the checkpoint when the store is reopened.
+     */
+
+    // Record operations
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte CLEAR = 3;
+
+    // Bytes before the operation of each record: the length of the rest of the record, and its CRC32
+    private static final int HEADER_SIZE = 8;
+
+    // Bytes of each record from the operation to the payload: the operation, the sequence, and when it was changed
+    private static final int BODY_PREFIX_SIZE = 17;
+
+    // Identifies a checkpoint file
+    private static final int CHECKPOINT_MAGIC = 0x544F444F;
+
+    // Name of segment files, and the checkpoint file
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.g(\\d+)\\.log");
+    private static final String CHECKPOINT_NAME = "checkpoint.dat";
+
+    // Directory holding the segment and checkpoint files
+    private final Path directory;
+
+    // Size in bytes at which the active segment is sealed, and a new one started
+    private final long segmentSize;
+
+    // Whether every append is forced to disk before returning
+    private final boolean sync;
+
+    // Location of the latest record of every stored title
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+
+    // Version of every title updated since the store was opened. Versions are not written to the log,
+    // as an item read before the store was opened cannot be edited after it
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    // Open segments by id
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    // Reads hold the read lock. Appends and segment swaps hold the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Compacts sealed segments, and writes checkpoints
+    private final ScheduledExecutorService compactor;
+
+    // Segment new records are appended to
+    private Segment active;
+
+    // Bytes in sealed segments taken up by records that have been replaced or removed
+    private long deadBytes;
+
+    // Whether records have been appended since the last checkpoint
+    private boolean dirty;
+
+    // Changes recorded in the segments that have not been compacted, by sequence
+    private final TreeMap<Long, Change> changes = new TreeMap<>();
+
+    // Sequence of the latest record appended
+    private long latestSequence;
+
+    // Sequence of the latest change no longer in the feed, changes after it are all kept
+    private long purgedThrough;
+
+    /**
+     * Constructor for the LogStructuredToDoListStore
+     * Opens the segments in the directory, rebuilds the index, and starts the background compactor
+     *
+     * @param directory                 to store the files in
+     * @param segmentSize               size in bytes at which a segment is sealed
+     * @param sync                      whether every append is forced to disk
+     * @param compactionIntervalSeconds seconds between checks for segments to compact
+     * @throws IOException if the files cannot be opened or read
+     */
+    public LogStructuredToDoListStore(Path directory, long segmentSize, boolean sync, int compactionIntervalSeconds) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(1024, segmentSize);
+        this.sync = sync;
+        Files.createDirectories(directory);
+        open();
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-store-compactor");
+            thread.setDaemon(true); // Should never keep the application alive
+            return thread;
+        });
+        long interval = Math.max(1, compactionIntervalSeconds);
+        this.compactor.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stores a new ListItem by appending it to the log
+     *
+     * @param item to store
+     * @throws ListItemAlreadyExistsException if an item with the same title is already stored
+     */
+    @Override
+    public void addListItem(ListItem item) throws ListItemAlreadyExistsException {
+        lock.writeLock().lock();
+        try {
+            if (this.index.containsKey(item.getTitle())) {
+                throw new ListItemAlreadyExistsException("An item with name '" + item.getTitle() + "' already exists");
+            }
+            this.index.put(item.getTitle(), append(PUT, putPayload(item, null), ChangeType.ADD, item.getTitle(), item.getTitle()));
+            item.markSaved();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores a collection of ListItem objects by appending them to the log
+     *
+     * @param items to store
+     * @return BatchInsertResult with the number of items stored, and the items rejected
+     */
+    @Override
+    public BatchInsertResult addListItems(Collection<ListItem> items) {
+        BatchInsertResult result = new BatchInsertResult();
+        Set<String> titles = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            for (ListItem item : items) {
+                if (item.getTitle() == null || item.getTitle().length() == 0) {
+                    result.addFailure(item, "Item title is invalid");
+                } else if (!titles.add(item.getTitle())) {
+                    result.addFailure(item, "Item appears more than once in the batch");
+                } else if (this.index.containsKey(item.getTitle())) {
+                    result.addFailure(item, "An item with this title already exists");
+                } else {
+                    try {
+                        this.index.put(item.getTitle(), append(PUT, putPayload(item, null), ChangeType.ADD, item.getTitle(), item.getTitle()));
+                        item.markSaved();
+                        result.addInserted(1);
+                    } catch (IOException e) {
+                        result.addFailure(item, "Item could not be written: " + e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Stores the changed ListItem by appending it to the log. A renamed item is written as one record
+     * which also removes the title it was stored under
+     *
+     * @param item to update
+     * @return true if the changes were saved, false if the new title is already used or the log cannot be written
+     * @throws ListItemNotFoundException if the list item is not found
+     * @throws ListItemConflictException if the list item has been changed since it was read
+     */
+    @Override
+    public boolean updateListItem(ListItem item) throws ListItemNotFoundException, ListItemConflictException {
+        if (!item.hasChanges()) {
+            return true;
+        }
+        lock.writeLock().lock();
+        try {
+            Location previous = this.index.get(item.getOriginalTitle());
+            if (previous == null) {
+                throw new ListItemNotFoundException("Item '" + item.getOriginalTitle() + "' cannot be found");
+            }
+            long version = this.versions.getOrDefault(item.getOriginalTitle(), 0L);
+            if (version != item.getVersion()) {
+                throw new ListItemConflictException("Item '" + item.getOriginalTitle() + "' has been changed by someone else since it was read");
+            }
+            boolean renamed = !Objects.equals(item.getTitle(), item.getOriginalTitle());
+            if (renamed && this.index.containsKey(item.getTitle())) {
+                return false;
+            }
+            Location location = append(PUT, putPayload(item, renamed ? item.getOriginalTitle() : null),
+                    ChangeType.UPDATE, item.getTitle(), item.getOriginalTitle());
+            this.index.remove(item.getOriginalTitle());
+            this.index.put(item.getTitle(), location);
+            this.versions.remove(item.getOriginalTitle());
+            this.versions.put(item.getTitle(), version + 1);
+            markDead(previous);
+            item.markSaved(0, version + 1);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a ListItem by appending a delete record to the log
+     *
+     * @param title of the ListItem to remove
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public void removeListItem(String title) throws ListItemNotFoundException {
+        lock.writeLock().lock();
+        try {
+            Location previous = this.index.get(title);
+            if (previous == null) {
+                throw new ListItemNotFoundException("Item '" + title + "' cannot be found");
+            }
+            markDead(append(DELETE, titlePayload(title), ChangeType.REMOVE, title, title));
+            this.index.remove(title);
+            this.versions.remove(title);
+            markDead(previous);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every ListItem by appending a clear record to the log
+     */
+    @Override
+    public void removeAllItems() {
+        lock.writeLock().lock();
+        try {
+            markDead(append(CLEAR, new byte[0], ChangeType.CLEAR, null, null));
+            this.index.values().forEach(this::markDead);
+            this.index.clear();
+            this.versions.clear();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds a ListItem by title with one positioned read
+     *
+     * @param title of the ListItem
+     * @return ListItem found, or null if it cannot be read
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public ListItem getItemByTitle(String title) throws ListItemNotFoundException {
+        try {
+            return readStored(title);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether a ListItem with the title is stored, using the index only
+     *
+     * @param title of the ListItem
+     * @return true if the item exists, false otherwise
+     */
+    @Override
+    public boolean doesListItemExist(String title) {
+        return this.index.containsKey(title);
+    }
+
+    /**
+     * Streams every stored ListItem. Items are read from the log as the Stream is advanced
+     *
+     * @return Stream of all items
+     * @throws StorageException from the Stream, if an item cannot be read from the log
+     */
+    @Override
+    public Stream<ListItem> streamAllListItems() {
+        return new ArrayList<>(this.index.keySet()).stream().map(title -> {
+            try {
+                return readStored(title);
+            } catch (ListItemNotFoundException e) {
+                // Removed after the Stream was created
+                return null;
+            } catch (IOException e) {
+                throw new StorageException("Item '" + title + "' could not be read from the log", e);
+            }
+        }).filter(Objects::nonNull);
+    }
+
+    /**
+     * Reads the changes recorded after a sequence from the segments that have not been compacted
+     *
+     * @param sequence of the last change already seen, 0 for none
+     * @param limit    maximum number of changes read
+     * @return changes after the sequence, in sequence order
+     * @throws ChangesExpiredException if changes after the sequence have been compacted, or were written before the store was opened
+     * @throws StorageException        if a changed item cannot be read from its segment
+     */
+    @Override
+    public List<ChangeEvent> getChangesSince(long sequence, int limit) throws ChangesExpiredException {
+        lock.readLock().lock();
+        try {
+            if (sequence < this.purgedThrough) {
+                throw new ChangesExpiredException("Changes up to #" + this.purgedThrough + " have been compacted, the list must be read again");
+            }
+            List<ChangeEvent> read = new ArrayList<>();
+            for (Map.Entry<Long, Change> entry : this.changes.tailMap(sequence, false).entrySet()) {
+                if (read.size() >= limit) {
+                    break;
+                }
+                Change change = entry.getValue();
+                ListItem item = change.type() == ChangeType.ADD || change.type() == ChangeType.UPDATE
+                        ? readPut(change.location()).item()
+                        : null;
+                read.add(new ChangeEvent(entry.getKey(), change.type(), change.title(), change.previousTitle(), item,
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(change.changedAt()), ZoneId.systemDefault())));
+            }
+            return read;
+        } catch (IOException e) {
+            throw new StorageException("Changes after #" + sequence + " could not be read", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the sequence of the latest record appended
+     *
+     * @return latest sequence, 0 if nothing has changed
+     */
+    @Override
+    public long getLatestSequence() {
+        lock.readLock().lock();
+        try {
+            return this.latestSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the sealed segments, and writes a checkpoint
+     *
+     * @throws IOException if the segments cannot be compacted
+     */
+    public synchronized void compact() throws IOException {
+        List<Segment> inputs;
+        List<Map.Entry<String, Location>> live = new ArrayList<>();
+        int outputId;
+        int outputGeneration;
+        lock.readLock().lock();
+        try {
+            inputs = new ArrayList<>(this.segments.headMap(this.active.id).values());
+            if (inputs.isEmpty()) {
+                return;
+            }
+            outputId = inputs.get(inputs.size() - 1).id;
+            outputGeneration = this.segments.values().stream().mapToInt(segment -> segment.generation).max().orElse(0) + 1;
+            for (Map.Entry<String, Location> entry : this.index.entrySet()) {
+                if (entry.getValue().segmentId() <= outputId) {
+                    live.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Copy the live records into the new segment without blocking writers. Sealed segments are never appended to
+        Path temporary = this.directory.resolve("segment-" + outputId + ".g" + outputGeneration + ".tmp");
+        Map<String, Location> moved = new ConcurrentHashMap<>();
+        try (FileChannel output = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (Map.Entry<String, Location> entry : live) {
+                // The record keeps its sequence, so a reopened store carries on from the latest one
+                Put put = readPutLocked(entry.getValue());
+                ByteBuffer record = encodeRecord(PUT, put.sequence(), put.changedAt(), putPayload(put.item(), null));
+                int length = record.remaining();
+                writeFully(output, record, position);
+                moved.put(entry.getKey(), new Location(outputId, position, length));
+                position += length;
+            }
+            output.force(true);
+        }
+        Path compacted = this.directory.resolve(segmentName(outputId, outputGeneration));
+        Files.move(temporary, compacted, StandardCopyOption.ATOMIC_MOVE);
+
+        lock.writeLock().lock();
+        try {
+            // Items written while compacting have a newer location, and keep it
+            for (Map.Entry<String, Location> entry : live) {
+                this.index.replace(entry.getKey(), entry.getValue(), moved.get(entry.getKey()));
+            }
+            for (Segment input : inputs) {
+                this.segments.remove(input.id);
+                input.channel.close();
+                Files.deleteIfExists(input.path);
+            }
+            this.segments.put(outputId, openSegment(compacted, outputId, outputGeneration));
+            // Only the latest record of each item is left, so the changes in the inputs leave the feed
+            while (!this.changes.isEmpty() && this.changes.firstEntry().getValue().location().segmentId() <= outputId) {
+                this.purgedThrough = this.changes.pollFirstEntry().getKey();
+            }
+            this.deadBytes = 0;
+            writeCheckpoint();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes a checkpoint and closes the segment files
+     */
+    public void close() {
+        this.compactor.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            writeCheckpoint();
+            for (Segment segment : this.segments.values()) {
+                segment.channel.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs in the background. Compacts once the sealed segments hold enough replaced or removed records,
+     * otherwise writes a checkpoint if anything has been appended since the last one
+     */
+    private void maintain() {
+        try {
+            boolean compact;
+            lock.readLock().lock();
+            try {
+                Map<Integer, Segment> sealed = this.segments.headMap(this.active.id);
+                long sealedBytes = sealed.values().stream().mapToLong(segment -> segment.size).sum();
+                compact = sealed.size() > 1 || (sealedBytes > 0 && this.deadBytes * 2 >= sealedBytes);
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (compact) {
+                compact();
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (this.dirty) {
+                    writeCheckpoint();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Opens the segments in the directory, and rebuilds the index from the checkpoint and the records after it.
+     * Segments replaced by a compacted segment, and unfinished compactions, are deleted
+     *
+     * @throws IOException if the files cannot be opened or read
+     */
+    private void open() throws IOException {
+        TreeMap<Integer, Path> paths = new TreeMap<>();
+        TreeMap<Integer, Integer> generations = new TreeMap<>();
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                Matcher matcher = SEGMENT_NAME.matcher(name);
+                if (matcher.matches()) {
+                    int id = Integer.parseInt(matcher.group(1));
+                    int generation = Integer.parseInt(matcher.group(2));
+                    // A compaction that did not finish removing its inputs leaves two segments with the same id
+                    if (generations.containsKey(id) && generations.get(id) > generation) {
+                        Files.delete(path);
+                        continue;
+                    }
+                    if (paths.containsKey(id)) {
+                        Files.delete(paths.get(id));
+                    }
+                    paths.put(id, path);
+                    generations.put(id, generation);
+                } else if (name.endsWith(".tmp")) {
+                    Files.delete(path);
+                }
+            }
+        }
+        // A compacted segment replaces every segment up to its id with a lower generation
+        int newestGeneration = -1;
+        for (Integer id : new ArrayList<>(paths.descendingKeySet())) {
+            int generation = generations.get(id);
+            if (generation < newestGeneration) {
+                Files.delete(paths.remove(id));
+            } else {
+                newestGeneration = Math.max(newestGeneration, generation);
+            }
+        }
+        for (Map.Entry<Integer, Path> entry : paths.entrySet()) {
+            this.segments.put(entry.getKey(), openSegment(entry.getValue(), entry.getKey(), generations.get(entry.getKey())));
+        }
+
+        // Replay from the checkpoint if it matches the segments, otherwise from the start
+        Location replayFrom = readCheckpoint();
+        if (replayFrom == null) {
+            this.index.clear();
+            replayFrom = new Location(this.segments.isEmpty() ? 0 : this.segments.firstKey(), 0, 0);
+        }
+        for (Segment segment : this.segments.tailMap(replayFrom.segmentId()).values()) {
+            replay(segment, segment.id == replayFrom.segmentId() ? replayFrom.offset() : 0);
+        }
+
+        Map.Entry<Integer, Segment> last = this.segments.lastEntry();
+        if (last != null && last.getValue().size < this.segmentSize) {
+            this.active = last.getValue();
+        } else {
+            int id = last == null ? 1 : last.getKey() + 1;
+            this.active = openSegment(this.directory.resolve(segmentName(id, 0)), id, 0);
+            this.segments.put(id, this.active);
+        }
+    }
+
+    /**
+     * Applies the records of a segment to the index, starting at the offset.
+     * A record cut short by a crash ends the segment, and is truncated
+     *
+     * @param segment to replay
+     * @param offset  to start from
+     * @throws IOException if the segment cannot be read
+     */
+    private void replay(Segment segment, long offset) throws IOException {
+        long position = offset;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position + HEADER_SIZE <= segment.size) {
+            header.clear();
+            readFully(segment.channel, header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || position + HEADER_SIZE + length > segment.size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            readFully(segment.channel, body, position + HEADER_SIZE);
+            if (crc(body.array()) != crc) {
+                break;
+            }
+            Location location = new Location(segment.id, position, HEADER_SIZE + length);
+            // A compacted segment holds only the latest record of each item, not its changes
+            apply(body.array(), location, segment.generation == 0);
+            position += location.length();
+        }
+        if (position < segment.size) {
+            System.out.println("Truncating incomplete record in " + segment.path.getFileName() + " at " + position);
+            segment.channel.truncate(position);
+            segment.size = position;
+        }
+    }
+
+    /**
+     * Applies a replayed record to the index, and to the change feed
+     *
+     * @param body     of the record, starting with the operation
+     * @param location of the record
+     * @param feed     whether the record is a change, rather than the latest record of a compacted item
+     * @throws IOException if the record cannot be decoded
+     */
+    private void apply(byte[] body, Location location, boolean feed) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        byte operation = in.readByte();
+        long sequence = in.readLong();
+        long changedAt = in.readLong();
+        Change change;
+        switch (operation) {
+            case PUT -> {
+                String previousTitle = ListItemCodec.readString(in);
+                String title = ListItemCodec.readItem(in).getTitle();
+                boolean updated = previousTitle != null || this.index.containsKey(title);
+                change = new Change(updated ? ChangeType.UPDATE : ChangeType.ADD, title,
+                        previousTitle == null ? title : previousTitle, location, changedAt);
+                if (previousTitle != null) {
+                    markDead(this.index.remove(previousTitle));
+                }
+                markDead(this.index.put(title, location));
+            }
+            case DELETE -> {
+                String title = ListItemCodec.readString(in);
+                change = new Change(ChangeType.REMOVE, title, title, location, changedAt);
+                markDead(this.index.remove(title));
+                markDead(location);
+            }
+            case CLEAR -> {
+                change = new Change(ChangeType.CLEAR, null, null, location, changedAt);
+                this.index.values().forEach(this::markDead);
+                this.index.clear();
+                markDead(location);
+            }
+            default -> throw new IOException("Unknown record operation at " + location);
+        }
+        this.latestSequence = Math.max(this.latestSequence, sequence);
+        if (feed) {
+            this.changes.put(sequence, change);
+        } else {
+            this.purgedThrough = Math.max(this.purgedThrough, sequence);
+        }
+    }
+
+    /**
+     * Appends a record with the next sequence to the active segment, and adds it to the change feed.
+     * The active segment is sealed, and a new one started, once it is full
+     *
+     * @param operation     of the record
+     * @param payload       of the record
+     * @param type          of change
+     * @param title         of the item changed, null for CLEAR
+     * @param previousTitle the item was stored under
+     * @return location of the record
+     * @throws IOException if the record cannot be written
+     */
+    private Location append(byte operation, byte[] payload, ChangeType type, String title, String previousTitle) throws IOException {
+        if (this.active.size >= this.segmentSize) {
+            int id = this.active.id + 1;
+            this.active = openSegment(this.directory.resolve(segmentName(id, 0)), id, 0);
+            this.segments.put(id, this.active);
+        }
+        long sequence = this.latestSequence + 1;
+        long changedAt = System.currentTimeMillis();
+        ByteBuffer record = encodeRecord(operation, sequence, changedAt, payload);
+        Location location = new Location(this.active.id, this.active.size, record.remaining());
+        writeFully(this.active.channel, record, this.active.size);
+        if (this.sync) {
+            this.active.channel.force(false);
+        }
+        this.active.size += location.length();
+        this.dirty = true;
+        this.latestSequence = sequence;
+        this.changes.put(sequence, new Change(type, title, previousTitle, location, changedAt));
+        return location;
+    }
+
+    /**
+     * Reads the latest record of a stored title, with its version
+     *
+     * @param title of the ListItem
+     * @return ListItem read
+     * @throws ListItemNotFoundException if the list item is not found
+     * @throws IOException               if the record cannot be read
+     */
+    private ListItem readStored(String title) throws ListItemNotFoundException, IOException {
+        lock.readLock().lock();
+        try {
+            Location location = this.index.get(title);
+            if (location == null) {
+                throw new ListItemNotFoundException("Item '" + title + "' cannot be found");
+            }
+            ListItem item = readItem(location);
+            item.markSaved(0, this.versions.getOrDefault(title, 0L));
+            return item;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the ListItem from a PUT record
+     *
+     * @param location of the record
+     * @return ListItem read
+     * @throws IOException if the record cannot be read
+     */
+    private ListItem readItem(Location location) throws IOException {
+        return readPut(location).item();
+    }
+
+    /**
+     * Reads a PUT record
+     *
+     * @param location of the record
+     * @return sequence, change time and ListItem of the record
+     * @throws IOException if the record cannot be read
+     */
+    private Put readPut(Location location) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(location.length());
+        readFully(this.segments.get(location.segmentId()).channel, record, location.offset());
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record.array(), HEADER_SIZE, location.length() - HEADER_SIZE));
+        in.readByte(); // The operation, always PUT
+        long sequence = in.readLong();
+        long changedAt = in.readLong();
+        ListItemCodec.readString(in); // The previous title
+        return new Put(sequence, changedAt, ListItemCodec.readItem(in));
+    }
+
+    /**
+     * Reads a PUT record, holding the read lock while it is read
+     *
+     * @param location of the record
+     * @return sequence, change time and ListItem of the record
+     * @throws IOException if the record cannot be read
+     */
+    private Put readPutLocked(Location location) throws IOException {
+        lock.readLock().lock();
+        try {
+            return readPut(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a record has been replaced or removed, if it is in a sealed segment
+     *
+     * @param location of the record, may be null
+     */
+    private void markDead(Location location) {
+        if (location != null && (this.active == null || location.segmentId() != this.active.id)) {
+            this.deadBytes += location.length();
+        }
+    }
+
+    /**
+     * Writes the index, and the position it is up to date with, to the checkpoint file
+     *
+     * @throws IOException if the checkpoint cannot be written
+     */
+    private void writeCheckpoint() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(this.active.id);
+        out.writeLong(this.active.size);
+        out.writeLong(this.latestSequence);
+        out.writeInt(this.segments.size());
+        for (Segment segment : this.segments.values()) {
+            out.writeInt(segment.id);
+            out.writeInt(segment.generation);
+        }
+        out.writeInt(this.index.size());
+        for (Map.Entry<String, Location> entry : this.index.entrySet()) {
+            ListItemCodec.writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().segmentId());
+            out.writeLong(entry.getValue().offset());
+            out.writeInt(entry.getValue().length());
+        }
+        out.flush();
+
+        Path temporary = this.directory.resolve(CHECKPOINT_NAME + ".tmp");
+        Files.write(temporary, bytes.toByteArray());
+        Files.move(temporary, this.directory.resolve(CHECKPOINT_NAME), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.dirty = false;
+    }
+
+    /**
+     * Loads the index, and the latest sequence, from the checkpoint file, if it was written for the segments that are open.
+     * The change feed starts after the checkpoint, as the changes before it are not replayed
+     *
+     * @return position the index is up to date with, or null if there is no usable checkpoint
+     */
+    private Location readCheckpoint() {
+        Path path = this.directory.resolve(CHECKPOINT_NAME);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                return null;
+            }
+            int segmentId = in.readInt();
+            long offset = in.readLong();
+            long sequence = in.readLong();
+            int segmentCount = in.readInt();
+            for (int i = 0; i < segmentCount; i++) {
+                Segment segment = this.segments.get(in.readInt());
+                if (segment == null || segment.generation != in.readInt()) {
+                    return null;
+                }
+            }
+            // Every segment up to the checkpoint position must be one the checkpoint was written for
+            if (this.segments.headMap(segmentId, true).size() != segmentCount) {
+                return null;
+            }
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++) {
+                this.index.put(ListItemCodec.readString(in), new Location(in.readInt(), in.readLong(), in.readInt()));
+            }
+            this.latestSequence = sequence;
+            this.purgedThrough = sequence;
+            return new Location(segmentId, offset, 0);
+        } catch (IOException e) {
+            e.printStackTrace();
+            this.index.clear();
+            return null;
+        }
+    }
+
+    /**
+     * Builds the payload of a PUT record
+     *
+     * @param item          to store
+     * @param previousTitle the item was stored under if it has been renamed, otherwise null
+     * @return payload
+     * @throws IOException if the item cannot be encoded
+     */
+    private static byte[] putPayload(ListItem item, String previousTitle) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ListItemCodec.writeString(out, previousTitle);
+        ListItemCodec.writeItem(out, item);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Builds the payload of a DELETE record
+     *
+     * @param title to remove
+     * @return payload
+     * @throws IOException if the title cannot be encoded
+     */
+    private static byte[] titlePayload(String title) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ListItemCodec.writeString(out, title);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Frames a record: the length of the rest of the record, its CRC32, the operation, the sequence,
+     * when it was changed and the payload
+     *
+     * @param operation of the record
+     * @param sequence  of the change
+     * @param changedAt when the change was made, in epoch milliseconds
+     * @param payload   of the record
+     * @return ByteBuffer ready to be written
+     */
+    private static ByteBuffer encodeRecord(byte operation, long sequence, long changedAt, byte[] payload) {
+        byte[] body = new byte[BODY_PREFIX_SIZE + payload.length];
+        ByteBuffer.wrap(body).put(operation).putLong(sequence).putLong(changedAt);
+        System.arraycopy(payload, 0, body, BODY_PREFIX_SIZE, payload.length);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + body.length);
+        record.putInt(body.length).putInt(crc(body)).put(body).flip();
+        return record;
+    }
+
+    /**
+     * Calculates the CRC32 of the bytes
+     *
+     * @param bytes to check
+     * @return CRC32, as an int
+     */
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Writes the whole buffer at the position
+     *
+     * @param channel  to write to
+     * @param buffer   to write
+     * @param position in the file
+     * @throws IOException if the buffer cannot be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Fills the buffer from the position
+     *
+     * @param channel  to read from
+     * @param buffer   to fill
+     * @param position in the file
+     * @throws IOException if the file ends before the buffer is full
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of segment at " + position);
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Get the file name of a segment
+     *
+     * @param id         of the segment
+     * @param generation of the segment
+     * @return file name
+     */
+    private static String segmentName(int id, int generation) {
+        return "segment-" + id + ".g" + generation + ".log";
+    }
+
+    /**
+     * Opens a segment file for reading and appending
+     *
+     * @param path       of the file
+     * @param id         of the segment
+     * @param generation of the segment
+     * @return Segment opened
+     * @throws IOException if the file cannot be opened
+     */
+    private static Segment openSegment(Path path, int id, int generation) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, generation, path, channel, channel.size());
+    }
+
+    /**
+     * Position of a record in a segment
+     */
+    private record Location(int segmentId, long offset, int length) {
+    }
+
+    /**
+     * A change in the feed, and the record it was written to
+     */
+    private record Change(ChangeType type, String title, String previousTitle, Location location, long changedAt) {
+    }
+
+    /**
+     * The contents of a PUT record
+     */
+    private record Put(long sequence, long changedAt, ListItem item) {
+    }
+
+    /**
+     * An open segment file
+     */
+    private static final class Segment {
+
+        // Position of the segment in replay order
+        private final int id;
+
+        // Increased each time segments are compacted
+        private final int generation;
+
+        // File the segment is stored in
+        private final Path path;
+
+        // Open channel to the file
+        private final FileChannel channel;
+
+        // Bytes written to the segment
+        private long size;
+
+        private Segment(int id, int generation, Path path, FileChannel channel, long size) {
+            this.id = id;
+            this.generation = generation;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class SchemaManager {
+
+    /*
+     *  The purpose of the SchemaManager class is to create the todolist table, and upgrade it to the latest version
+     *  when the application starts. Each applied version is recorded in the SchemaVersion table.
+     *  DDL statements commit as they run, so each statement of a migration is recorded in the SchemaProgress table
+     *  once it has been applied. A migration that fails part way resumes after its applied statements next time.
+     */
+
+    // Every version of the schema, in the order they are applied
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create the ToDoList table",
+                    """
+                    CREATE TABLE IF NOT EXISTS ToDoList
+                    (
+                        id INT auto_increment,
+                        title VARCHAR(40),
+                        description VARCHAR(500),
+                        timestamp VARCHAR(25),
+                        dueDate VARCHAR(25),
+                        status VARCHAR(10),
+                        primary key (id)
+                    )"""),
+            new Migration(2, "Store timestamp and dueDate as DATETIME",
+                    "ALTER TABLE ToDoList ADD COLUMN timestampConverted DATETIME NULL, ADD COLUMN dueDateConverted DATETIME NULL",
+                    // Dates were stored as 'yyyy-MM-ddTHH:mm' strings, with 'None' when there is no due date
+                    """
+                    UPDATE ToDoList
+                    SET timestampConverted = STR_TO_DATE(LEFT(REPLACE(timestamp, 'T', ' '), 16), '%Y-%m-%d %H:%i'),
+                        dueDateConverted = IF(dueDate = 'None', NULL, STR_TO_DATE(LEFT(REPLACE(dueDate, 'T', ' '), 16), '%Y-%m-%d %H:%i'))""",
+                    "ALTER TABLE ToDoList DROP COLUMN timestamp, DROP COLUMN dueDate",
+                    "ALTER TABLE ToDoList RENAME COLUMN timestampConverted TO timestamp, RENAME COLUMN dueDateConverted TO dueDate",
+                    "ALTER TABLE ToDoList MODIFY timestamp DATETIME NOT NULL"),
+            new Migration(3, "Unique title, and index status and dueDate",
+                    // Titles were only unique by convention. The first item stored with each title keeps it, the others
+                    // are renamed '<title> #<id>', and listed in the RenamedTitle table so they can be reviewed
+                    "CREATE TABLE IF NOT EXISTS RenamedTitle (id INT NOT NULL, title VARCHAR(40) NOT NULL, renamedTo VARCHAR(40) NOT NULL, primary key (id))",
+                    """
+                    INSERT IGNORE INTO RenamedTitle (id, title, renamedTo)
+                    SELECT duplicate.id, duplicate.title, CONCAT(LEFT(duplicate.title, 28), ' #', duplicate.id)
+                    FROM ToDoList duplicate JOIN ToDoList original ON duplicate.title = original.title AND duplicate.id > original.id""",
+                    "UPDATE ToDoList JOIN RenamedTitle ON ToDoList.id = RenamedTitle.id SET ToDoList.title = RenamedTitle.renamedTo",
+                    """
+                    ALTER TABLE ToDoList
+                        MODIFY title VARCHAR(40) NOT NULL,
+                        MODIFY status VARCHAR(10) NOT NULL,
+                        ADD UNIQUE INDEX uq_todolist_title (title),
+                        ADD INDEX idx_todolist_status (status),
+                        ADD INDEX idx_todolist_due_date (dueDate)"""),
+            new Migration(4, "Index the orders filtered queries read in",
+                    // Title is the tiebreaker of every query order, so the indexes return rows already sorted
+                    """
+                    ALTER TABLE ToDoList
+                        DROP INDEX idx_todolist_status,
+                        DROP INDEX idx_todolist_due_date,
+                        ADD INDEX idx_todolist_status_due_date (status, dueDate, title),
+                        ADD INDEX idx_todolist_due_date_title (dueDate, title),
+                        ADD INDEX idx_todolist_timestamp_title (timestamp, title)"""),
+            new Migration(5, "Record every change in the ToDoListChange table",
+                    """
+                    CREATE TABLE IF NOT EXISTS ToDoListChange
+                    (
+                        sequence BIGINT NOT NULL,
+                        type VARCHAR(10) NOT NULL,
+                        title VARCHAR(40) NULL,
+                        previousTitle VARCHAR(40) NULL,
+                        description VARCHAR(500) NULL,
+                        timestamp DATETIME NULL,
+                        dueDate DATETIME NULL,
+                        status VARCHAR(10) NULL,
+                        changedAt DATETIME NOT NULL,
+                        primary key (sequence),
+                        INDEX idx_todolistchange_changed_at (changedAt)
+                    )""",
+                    // A single row, locked by each writing transaction until it commits, so sequences commit in order
+                    "CREATE TABLE IF NOT EXISTS ChangeSequence (id INT NOT NULL, value BIGINT NOT NULL, purgedThrough BIGINT NOT NULL, primary key (id))",
+                    "INSERT IGNORE INTO ChangeSequence (id, value, purgedThrough) VALUES (1, 0, 0)"),
+            new Migration(6, "Version each item for optimistic concurrency",
+                    // Incremented by every update, which only applies if the version is still the one the editor read
+                    "ALTER TABLE ToDoList ADD COLUMN version BIGINT NOT NULL DEFAULT 0"),
+            new Migration(7, "Compress large descriptions",
+                    // Descriptions over the threshold are stored deflated, in the format of COMPRESS(), with description NULL
+                    """
+                    ALTER TABLE ToDoList
+                        MODIFY description TEXT NULL,
+                        ADD COLUMN descriptionCompressed BOOLEAN NOT NULL DEFAULT FALSE,
+                        ADD COLUMN compressedDescription MEDIUMBLOB NULL""",
+                    "ALTER TABLE ToDoListChange MODIFY description MEDIUMTEXT NULL"),
+            new Migration(8, "Compare titles exactly",
+                    // Titles differing only in case or accents are different items, as they are in every other store,
+                    // and the TitleFilter and duplicate checks compare them as Java strings
+                    "ALTER TABLE ToDoList MODIFY title VARCHAR(40) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL"),
+            new Migration(9, "Record compressed descriptions compressed",
+                    // Changes copy the description columns from the item's row, so are as small as the row
+                    """
+                    ALTER TABLE ToDoListChange
+                        ADD COLUMN descriptionCompressed BOOLEAN NOT NULL DEFAULT FALSE,
+                        ADD COLUMN compressedDescription MEDIUMBLOB NULL""")
+    );
+
+    // Whether the schema has been brought up to date by this process
+    private static boolean upToDate;
+
+    /**
+     * Private constructor, the SchemaManager is only used statically
+     */
+    private SchemaManager() {
+    }
+
+    /**
+     * Creates or upgrades the todolist table to the latest version, if it has not been done already
+     * If the database cannot be reached, the upgrade is attempted again next time
+     *
+     * @param pool to borrow a connection from
+     */
+    protected static synchronized void ensureUpToDate(ConnectionPool pool) {
+        if (upToDate) {
+            return;
+        }
+        Connection connection = null;
+        try {
+            connection = pool.borrow();
+            migrate(connection);
+            upToDate = true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Applies every migration newer than the current version of the schema
+     *
+     * @param connection to the database
+     * @throws SQLException if a migration fails
+     */
+    private static void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS SchemaVersion (version INT NOT NULL, description VARCHAR(100), appliedAt DATETIME NOT NULL, primary key (version))");
+            statement.execute("CREATE TABLE IF NOT EXISTS SchemaProgress (version INT NOT NULL, statement INT NOT NULL, primary key (version, statement))");
+        }
+        int current = getCurrentVersion(connection);
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() <= current) {
+                continue;
+            }
+            Set<Integer> applied = getAppliedStatements(connection, migration);
+            for (int index = 0; index < migration.statements().length; index++) {
+                if (applied.contains(index)) {
+                    continue;
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(migration.statements()[index]);
+                }
+                recordStatement(connection, migration, index);
+            }
+            recordVersion(connection, migration);
+            System.out.println("Database schema upgraded to version " + migration.version() + ": " + migration.description());
+            if (migration.version() == 3) {
+                reportRenamedTitles(connection);
+            }
+        }
+    }
+
+    /**
+     * Get the statements of a migration which have already been applied, by a run which failed part way
+     *
+     * @param connection to the database
+     * @param migration  to get the applied statements of
+     * @return indexes of the applied statements
+     * @throws SQLException if the progress cannot be read
+     */
+    private static Set<Integer> getAppliedStatements(Connection connection, Migration migration) throws SQLException {
+        Set<Integer> applied = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement("SELECT statement FROM SchemaProgress WHERE version = ?")) {
+            statement.setInt(1, migration.version());
+            try (ResultSet set = statement.executeQuery()) {
+                while (set.next()) {
+                    applied.add(set.getInt(1));
+                }
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Records that a statement of a migration has been applied
+     *
+     * @param connection to the database
+     * @param migration  the statement belongs to
+     * @param index      of the statement
+     * @throws SQLException if the progress cannot be recorded
+     */
+    private static void recordStatement(Connection connection, Migration migration, int index) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT IGNORE INTO SchemaProgress (version,statement) VALUES (?,?)")) {
+            statement.setInt(1, migration.version());
+            statement.setInt(2, index);
+            statement.execute();
+        }
+    }
+
+    /**
+     * Prints the items renamed by version 3 as they had the same title as an earlier item
+     *
+     * @param connection to the database
+     * @throws SQLException if the renamed items cannot be read
+     */
+    private static void reportRenamedTitles(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT title, renamedTo FROM RenamedTitle ORDER BY id")) {
+            while (set.next()) {
+                System.out.println("Item '" + set.getString(1) + "' has the same title as an earlier item, and has been renamed '" + set.getString(2) + "'");
+            }
+        }
+    }
+
+    /**
+     * Get the version of the schema stored in the database.
+     * A migration which failed part way leaves the previous version current.
+     * Tables created before the SchemaVersion table existed are recognised from their layout.
+     *
+     * @param connection to the database
+     * @return current version, or 0 if the todolist table does not exist
+     * @throws SQLException if the version cannot be read
+     */
+    private static int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT MAX(version) FROM SchemaVersion")) {
+            if (set.next() && set.getInt(1) > 0) {
+                return set.getInt(1);
+            }
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT MIN(version) FROM SchemaProgress")) {
+            if (set.next() && set.getInt(1) > 0) {
+                // The layout may be half way between two versions
+                return set.getInt(1) - 1;
+            }
+        }
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, "ToDoList", "dueDate")) {
+            if (!columns.next()) {
+                // The todolist table does not exist yet
+                return 0;
+            }
+            // Created by an earlier setup.sql. Dates are strings in version 1, and DATETIME from version 2
+            return columns.getInt("DATA_TYPE") == Types.VARCHAR ? 1 : 2;
+        }
+    }
+
+    /**
+     * Records that a migration has been applied, and forgets the progress of its statements
+     *
+     * @param connection to the database
+     * @param migration  applied
+     * @throws SQLException if the version cannot be recorded
+     */
+    private static void recordVersion(Connection connection, Migration migration) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO SchemaVersion (version,description,appliedAt) VALUES (?,?,?)")) {
+            statement.setInt(1, migration.version());
+            statement.setString(2, migration.description());
+            statement.setObject(3, LocalDateTime.now());
+            statement.execute();
+        }
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM SchemaProgress WHERE version = ?")) {
+            statement.setInt(1, migration.version());
+            statement.execute();
+        }
+    }
+
+    /**
+     * A version of the schema, and the statements which upgrade the previous version to it
+     */
+    private record Migration(int version, String description, String... statements) {
+    }
+}
@@ -0,0 +1,354 @@
+package dao;
+
+import model.ListItem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+class SnapshotManager {
+
+    /*
+     *  The purpose of the SnapshotManager class is to serve ListItem reads from a memory-mapped ListSnapshot.
+     *  Writes made since the snapshot was taken are recorded in an overlay, which is checked before the snapshot.
+     *  The snapshot is rewritten from the store periodically, which empties the overlay. A rewrite is skipped only
+     *  if nothing has been written here, and the store's change feed shows nothing has been written by anyone else.
+     *
+     *  Other clients may write to the store between rewrites, so the snapshot is never the final word on an item
+     *  it does not hold. A snapshot found at startup may be older than the store (e.g. the application was stopped
+     *  before it was rewritten), so every item is streamed from the store until the first rewrite has completed.
+     */
+
+    // Recorded in an overlay in place of an item that has been removed
+    private static final ListItem REMOVED = new ListItem();
+
+    // File the snapshot is written to
+    private final Path path;
+
+    // Updates hold the read lock while they are written to the store and recorded.
+    // Swapping the overlays, and clearing them, hold the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // The mapped snapshot, or null if none has been written yet
+    private volatile ListSnapshot snapshot;
+
+    // Whether the snapshot was written by this application, so held every stored item when it was written
+    private volatile boolean complete;
+
+    // Latest sequence of the store's change feed when the snapshot was written, -1 if the store has no change feed
+    private volatile long writtenSequence = -1;
+
+    // Writes made since the snapshot being written was started
+    private volatile Overlay current = new Overlay(false);
+
+    // Writes made before the snapshot being written was started, and after the mapped snapshot was written
+    private volatile Overlay previous;
+
+    // Rewrites the snapshot periodically
+    private ScheduledExecutorService writer;
+
+    /**
+     * Constructor for the SnapshotManager
+     * Maps the snapshot at the path, if there is one
+     *
+     * @param path of the snapshot file
+     */
+    protected SnapshotManager(Path path) {
+        this.path = path;
+        if (Files.exists(path)) {
+            try {
+                this.snapshot = ListSnapshot.open(path);
+            } catch (IOException e) {
+                // An unreadable snapshot is replaced by the first rewrite
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Starts rewriting the snapshot from the store, now and then periodically.
+     * Has no effect if the rewrites have already been started
+     *
+     * @param source          store to read every item from
+     * @param intervalSeconds seconds between rewrites
+     */
+    protected synchronized void start(ToDoListStore source, int intervalSeconds) {
+        if (this.writer != null) {
+            return;
+        }
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true); // Should never keep the application alive
+            return thread;
+        });
+        this.writer.scheduleWithFixedDelay(() -> {
+            try {
+                refresh(source);
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, 0, Math.max(1, intervalSeconds), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic rewrites, and writes a final snapshot so the next startup can read from it
+     *
+     * @param source store to read every item from
+     */
+    protected synchronized void close(ToDoListStore source) {
+        if (this.writer != null) {
+            this.writer.shutdownNow();
+        }
+        try {
+            refresh(source);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes a new snapshot of every item in the store, and maps it in place of the current snapshot.
+     * Has no effect if nothing has been written to the store, here or by another client, since the current snapshot.
+     * Items are read from the store in title order, so the snapshot can be written as they arrive
+     *
+     * @param source store to read every item from
+     * @throws IOException if the snapshot cannot be written or mapped
+     */
+    protected void refresh(ToDoListStore source) throws IOException {
+        // Read before the items, so anything written while they are read is written by the next rewrite
+        long sequence = getLatestSequence(source);
+        Overlay started;
+        this.lock.writeLock().lock();
+        try {
+            if (this.complete && this.current.isEmpty() && sequence >= 0 && sequence == this.writtenSequence) {
+                return;
+            }
+            // Writes from here on are recorded in a new overlay, which the new snapshot may not include
+            this.previous = this.current;
+            started = this.previous;
+            this.current = new Overlay(false);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        ListSnapshot written;
+        try (Stream<ListItem> items = source.query(ListItemQuery.builder().orderBy(ListItemQuery.Order.TITLE).build())) {
+            ListSnapshot.write(this.path, items);
+            written = ListSnapshot.open(this.path);
+        } catch (IOException | RuntimeException e) {
+            // Keep the writes the snapshot was going to include
+            this.lock.writeLock().lock();
+            try {
+                this.current = started.mergedWith(this.current);
+                this.previous = null;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            // Readers check the previous overlay before the snapshot, so the snapshot must be replaced first
+            this.snapshot = written;
+            this.complete = true;
+            this.writtenSequence = sequence;
+            this.previous = null;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the latest sequence of the store's change feed
+     *
+     * @param source store to read the sequence from
+     * @return latest sequence, or -1 if the store has no change feed
+     */
+    private static long getLatestSequence(ToDoListStore source) {
+        try {
+            return source.getLatestSequence();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Get the lock held while an update is written to the store and recorded,
+     * so a rewrite never starts part way through an update
+     *
+     * @return ReentrantReadWriteLock.ReadLock
+     */
+    protected ReentrantReadWriteLock.ReadLock getUpdateLock() {
+        return this.lock.readLock();
+    }
+
+    /**
+     * Get the lock held while every item is removed from the store and the overlays are cleared
+     *
+     * @return ReentrantReadWriteLock.WriteLock
+     */
+    protected ReentrantReadWriteLock.WriteLock getClearLock() {
+        return this.lock.writeLock();
+    }
+
+    /**
+     * Checks whether reads can be served by the snapshot
+     *
+     * @return true if a snapshot is mapped
+     */
+    protected boolean isLoaded() {
+        return this.snapshot != null;
+    }
+
+    /**
+     * Checks whether the snapshot was written by this application, so held every stored item when it was written
+     *
+     * @return true if the snapshot was written by this application
+     */
+    protected boolean isComplete() {
+        return this.complete;
+    }
+
+    /**
+     * Records an item which has been added or updated
+     *
+     * @param item stored
+     */
+    protected void put(ListItem item) {
+        this.current.changes.put(item.getTitle(), new ListItem(item));
+    }
+
+    /**
+     * Records an item which has been removed
+     *
+     * @param title of the item removed
+     */
+    protected void remove(String title) {
+        this.current.changes.put(title, REMOVED);
+    }
+
+    /**
+     * Records that every item has been removed. The clear lock should be held
+     */
+    protected void clear() {
+        this.current = new Overlay(true);
+    }
+
+    /**
+     * Finds an item in the overlays, then the snapshot
+     *
+     * @param title of the item
+     * @return ListItem found, or null if it is not in the overlays or the snapshot
+     */
+    protected ListItem find(String title) {
+        // Read in the opposite order to which refresh replaces them
+        Overlay newer = this.current;
+        Overlay older = this.previous;
+        ListSnapshot mapped = this.snapshot;
+
+        for (Overlay overlay : new Overlay[]{newer, older}) {
+            if (overlay == null) {
+                continue;
+            }
+            ListItem changed = overlay.changes.get(title);
+            if (changed != null) {
+                return changed == REMOVED ? null : new ListItem(changed);
+            }
+            if (overlay.cleared) {
+                return null;
+            }
+        }
+        int index = mapped == null ? -1 : mapped.indexOf(title);
+        return index < 0 ? null : mapped.get(index);
+    }
+
+    /**
+     * Streams every item in the overlays and the snapshot. Items in the snapshot are decoded as the Stream reaches them
+     *
+     * @return Stream of all items
+     */
+    protected Stream<ListItem> stream() {
+        Overlay newer = this.current;
+        Overlay older = this.previous;
+        ListSnapshot mapped = this.snapshot;
+
+        Stream<ListItem> changed = newer.live();
+        if (older != null && !newer.cleared) {
+            changed = Stream.concat(changed, older.live().filter(item -> !newer.changes.containsKey(item.getTitle())));
+        }
+        if (mapped == null || newer.cleared || (older != null && older.cleared)) {
+            return changed;
+        }
+        Stream<ListItem> unchanged = IntStream.range(0, mapped.size())
+                .filter(index -> {
+                    String title = mapped.getTitle(index);
+                    return !newer.changes.containsKey(title) && (older == null || !older.changes.containsKey(title));
+                })
+                .mapToObj(mapped::get);
+        return Stream.concat(changed, unchanged);
+    }
+
+    /**
+     * Writes recorded since a snapshot was started
+     */
+    private static class Overlay {
+
+        // Items added or updated, or REMOVED, by title
+        private final Map<String, ListItem> changes = new ConcurrentHashMap<>();
+
+        // Whether every item was removed, so older overlays and the snapshot are hidden
+        private final boolean cleared;
+
+        /**
+         * Constructor for the Overlay
+         *
+         * @param cleared whether every item was removed when the overlay was started
+         */
+        private Overlay(boolean cleared) {
+            this.cleared = cleared;
+        }
+
+        /**
+         * Checks whether anything has been recorded in the overlay
+         *
+         * @return true if nothing has been recorded
+         */
+        private boolean isEmpty() {
+            return !this.cleared && this.changes.isEmpty();
+        }
+
+        /**
+         * Streams copies of the items added or updated
+         *
+         * @return Stream of items
+         */
+        private Stream<ListItem> live() {
+            return this.changes.values().stream().filter(item -> item != REMOVED).map(ListItem::new);
+        }
+
+        /**
+         * Combines this overlay with a newer one. Changes in the newer overlay take priority
+         *
+         * @param newer overlay
+         * @return Overlay holding the changes of both
+         */
+        private Overlay mergedWith(Overlay newer) {
+            if (newer.cleared) {
+                return newer;
+            }
+            Overlay merged = new Overlay(this.cleared);
+            merged.changes.putAll(this.changes);
+            merged.changes.putAll(newer.changes);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package dao;
+
+import exceptions.ChangesExpiredException;
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import types.ItemStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class SnapshotToDoListStore implements ToDoListStore {
+
+    /*
+     *  The purpose of the SnapshotToDoListStore class is to serve reads from a memory-mapped snapshot of the list,
+     *  so they do not reach the wrapped store. Writes go to the wrapped store, and are recorded by the SnapshotManager
+     *  until the next snapshot includes them.
+     *  - Writes made by other clients are seen once the snapshot is next rewritten. Until then, an item the snapshot
+     *    holds may be out of date, and an item it does not hold is looked for in the wrapped store
+     *  - Filtered queries are answered by the wrapped store, from its indexes
+     */
+
+    // Store the items are written to, and read from until a snapshot is available
+    private final ToDoListStore delegate;
+
+    // The mapped snapshot, and the writes made since it was taken
+    private final SnapshotManager snapshots;
+
+    /**
+     * Constructor for the SnapshotToDoListStore
+     *
+     * @param delegate  store to write items to
+     * @param snapshots snapshot to read items from, shared by every store wrapping the same data
+     */
+    protected SnapshotToDoListStore(ToDoListStore delegate, SnapshotManager snapshots) {
+        this.delegate = delegate;
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Inserts a new ListItem into the store
+     *
+     * @param item to add into the store
+     * @throws ListItemAlreadyExistsException if an item with the same title is already stored
+     */
+    @Override
+    public void addListItem(ListItem item) throws ListItemAlreadyExistsException {
+        Lock lock = this.snapshots.getUpdateLock();
+        lock.lock();
+        try {
+            this.delegate.addListItem(item);
+            this.snapshots.put(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts a collection of ListItem objects into the store
+     *
+     * @param items to add into the store
+     * @return BatchInsertResult with the number of items stored, and the items rejected
+     */
+    @Override
+    public BatchInsertResult addListItems(Collection<ListItem> items) {
+        Lock lock = this.snapshots.getUpdateLock();
+        lock.lock();
+        try {
+            BatchInsertResult result = this.delegate.addListItems(items);
+            if (result.isCommitted()) {
+                items.stream()
+                        .filter(result::wasStored)
+                        .forEach(this.snapshots::put);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the changed fields of a ListItem to the store
+     *
+     * @param item to update in the store
+     * @return true if the changes were saved, false if they could not be
+     * @throws ListItemNotFoundException if the list item is not found
+     * @throws ListItemConflictException if the list item has been changed since it was read
+     */
+    @Override
+    public boolean updateListItem(ListItem item) throws ListItemNotFoundException, ListItemConflictException {
+        // Saving the item replaces the title it was stored with
+        String originalTitle = item.getOriginalTitle();
+        Lock lock = this.snapshots.getUpdateLock();
+        lock.lock();
+        try {
+            boolean saved = this.delegate.updateListItem(item);
+            if (saved) {
+                if (!originalTitle.equals(item.getTitle())) {
+                    this.snapshots.remove(originalTitle);
+                }
+                this.snapshots.put(item);
+            }
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the status of every ListItem matching the filters of the query in the wrapped store.
+     * The items matching are read first, so they can be recorded with their new status
+     *
+     * @param query  selecting the items to change
+     * @param status to set
+     * @return number of items changed
+     * @throws InvalidItemStatusException if the status is null
+     */
+    @Override
+    public int updateStatuses(ListItemQuery query, ItemStatus status) throws InvalidItemStatusException {
+        if (status == null) {
+            throw new InvalidItemStatusException("ItemStatus cannot be null");
+        }
+        Lock lock = this.snapshots.getUpdateLock();
+        lock.lock();
+        try {
+            List<ListItem> matching;
+            try (Stream<ListItem> items = this.delegate.query(query.filtersOnly())) {
+                matching = items.filter(item -> item.getStatus() != status).collect(Collectors.toList());
+            }
+            int updated = this.delegate.updateStatuses(query, status);
+            for (ListItem item : matching) {
+                item.setStatus(status);
+                item.markSaved(item.getId(), item.getVersion() + 1);
+                this.snapshots.put(item);
+            }
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a ListItem from the store
+     *
+     * @param title to be removed from the store
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public void removeListItem(String title) throws ListItemNotFoundException {
+        Lock lock = this.snapshots.getUpdateLock();
+        lock.lock();
+        try {
+            this.delegate.removeListItem(title);
+            this.snapshots.remove(title);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all items from the store
+     */
+    @Override
+    public void removeAllItems() {
+        Lock lock = this.snapshots.getClearLock();
+        lock.lock();
+        try {
+            this.delegate.removeAllItems();
+            this.snapshots.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds a ListItem in the snapshot, or the store if the snapshot does not hold it,
+     * as another client may have stored it since the snapshot was written
+     *
+     * @param title of the ListItem
+     * @return ListItem found
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    @Override
+    public ListItem getItemByTitle(String title) throws ListItemNotFoundException {
+        if (this.snapshots.isLoaded()) {
+            ListItem item = this.snapshots.find(title);
+            if (item != null) {
+                return item;
+            }
+        }
+        return this.delegate.getItemByTitle(title);
+    }
+
+    /**
+     * Checks whether a list item is in the snapshot, or the store if the snapshot does not hold it,
+     * as another client may have stored it since the snapshot was written
+     *
+     * @param title of the list item
+     * @return true if the item exists, false otherwise
+     */
+    @Override
+    public boolean doesListItemExist(String title) {
+        if (this.snapshots.isLoaded() && this.snapshots.find(title) != null) {
+            return true;
+        }
+        return this.delegate.doesListItemExist(title);
+    }
+
+    /**
+     * Streams every ListItem from the snapshot, or the store until a complete snapshot has been written
+     *
+     * @return Stream of all items
+     */
+    @Override
+    public Stream<ListItem> streamAllListItems() {
+        return this.snapshots.isComplete() ? this.snapshots.stream() : this.delegate.streamAllListItems();
+    }
+
+    /**
+     * Streams the ListItem objects matching the query from the store, which answers it from its indexes
+     * rather than a scan and sort of the whole snapshot
+     *
+     * @param query to filter and order the items with
+     * @return Stream of the matching items
+     */
+    @Override
+    public Stream<ListItem> query(ListItemQuery query) {
+        return this.delegate.query(query);
+    }
+
+    /**
+     * Reads the changes made after a sequence from the wrapped store
+     *
+     * @param sequence of the last change already seen, 0 for none
+     * @param limit    maximum number of changes read
+     * @return changes after the sequence, in sequence order
+     * @throws ChangesExpiredException if changes after the sequence are no longer retained
+     */
+    @Override
+    public List<ChangeEvent> getChangesSince(long sequence, int limit) throws ChangesExpiredException {
+        return this.delegate.getChangesSince(sequence, limit);
+    }
+
+    /**
+     * Get the sequence of the latest change from the wrapped store
+     *
+     * @return latest sequence, 0 if nothing has changed
+     */
+    @Override
+    public long getLatestSequence() {
+        return this.delegate.getLatestSequence();
+    }
+}
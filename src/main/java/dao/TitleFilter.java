@@ -0,0 +1,300 @@
+package dao;
+
+import types.ChangeType;
+import util.BloomFilter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+class TitleFilter {
+
+    /*
+     *  The purpose of the TitleFilter class is to keep a BloomFilter of every title in the todolist table,
+     *  so checks for titles that do not exist can be answered without a query.
+     *  Bloom filters cannot remove titles, so the filter is rebuilt from the table after many items are removed.
+     *
+     *  Other clients store titles this process never sees, so the filter follows the ToDoListChange table, polling
+     *  the titles added and renamed since the last change it has read. A title missing from the filter is only
+     *  definitely not stored if the filter has read every change committed in the last 'bloom.maxStalenessMillis'.
+     *  Otherwise the check falls through to the database. With the default of 0 it always does, as any other client
+     *  may have just stored the title, so the filter is never built; set it if titles stored elsewhere may be missed
+     *  for that long.
+     *  Titles are compared exactly, as the title column uses a binary collation.
+     */
+
+    // The filter shared by every repository, created on first use
+    private static TitleFilter instance;
+
+    // Pool to borrow connections from when building the filter
+    private final ConnectionPool pool;
+
+    // Number of titles each filter is sized for, the filter is disabled if this is 0
+    private final int expectedItems;
+
+    // Chance of a title that does not exist passing the filter
+    private final double falsePositiveRate;
+
+    // Number of removed items after which the filter is rebuilt
+    private final int rebuildAfterDeletes;
+
+    // Number of rows fetched from the database at a time while building the filter
+    private final int fetchSize;
+
+    // Milliseconds a title missing from the filter is trusted as not stored after the filter last read the changes,
+    // 0 or less never trusts it
+    private final long maxStalenessMillis;
+
+    // Whether the filter is built and used, only if it is sized and its negative answers can be trusted
+    private final boolean enabled;
+
+    // Builds the filter in the background once too many items have been removed, and reads the latest changes into it
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "title-filter-rebuild");
+        thread.setDaemon(true); // Should never keep the application alive
+        return thread;
+    });
+
+    // Filter of every stored title, null until it has been built
+    private BloomFilter filter;
+
+    // Filter being built, also receives every title added while it is built. Null if no build is running
+    private BloomFilter building;
+
+    // Number of items removed since the filter was built
+    private int deletes;
+
+    // Sequence of the last change read into the filter
+    private long syncedThrough;
+
+    // System.nanoTime() when the changes read into the filter were last read, every change committed before it has been read
+    private long syncedAt;
+
+    /**
+     * Constructor for the TitleFilter
+     * Reads the filter settings from connParams.txt, and starts reading the latest changes into the filter
+     * if its negative answers can be trusted
+     *
+     * @param pool      to borrow connections from
+     * @param connector to read the settings with
+     */
+    private TitleFilter(ConnectionPool pool, DBConnector connector) {
+        this.pool = pool;
+        this.expectedItems = Math.max(0, connector.getIntDetail("bloom.expectedItems", 100000));
+        this.falsePositiveRate = connector.getDoubleDetail("bloom.falsePositiveRate", 0.01);
+        this.rebuildAfterDeletes = Math.max(1, connector.getIntDetail("bloom.rebuildAfterDeletes", 10000));
+        this.fetchSize = connector.getIntDetail("db.fetchSize", 500);
+        this.maxStalenessMillis = connector.getIntDetail("bloom.maxStalenessMillis", 0);
+        this.enabled = this.expectedItems > 0 && this.maxStalenessMillis > 0;
+        if (this.enabled) {
+            long interval = Math.max(1, this.maxStalenessMillis / 2);
+            this.rebuilder.scheduleWithFixedDelay(this::sync, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Get the filter shared by the application. The filter is built from the todolist table
+     * the first time this is called, and again if an earlier build could not reach the database.
+     * It is never built if it is disabled, as it would never be trusted
+     *
+     * @param pool to borrow connections from
+     * @return the shared TitleFilter
+     */
+    protected static synchronized TitleFilter getInstance(ConnectionPool pool) {
+        if (instance == null) {
+            instance = new TitleFilter(pool, new DBConnector());
+        }
+        if (instance.enabled && !instance.isBuilt()) {
+            instance.rebuild();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns whether an item with the title might be stored
+     * Every title might be stored if the filter has not read the changes committed within the staleness limit
+     *
+     * @param title to check
+     * @return false if the title is definitely not stored, true if it might be
+     */
+    protected synchronized boolean mightContain(String title) {
+        if (this.filter == null || this.maxStalenessMillis <= 0
+                || System.nanoTime() - this.syncedAt > TimeUnit.MILLISECONDS.toNanos(this.maxStalenessMillis)) {
+            return true;
+        }
+        return this.filter.mightContain(title);
+    }
+
+    /**
+     * Records that an item with the title has been stored
+     *
+     * @param title stored
+     */
+    protected synchronized void add(String title) {
+        if (this.filter != null) {
+            this.filter.add(title);
+        }
+        if (this.building != null) {
+            this.building.add(title);
+        }
+    }
+
+    /**
+     * Records that an item with the title has been removed.
+     * The title keeps passing the filter until it is rebuilt, which is started once enough items have been removed.
+     *
+     * @param title removed
+     */
+    protected synchronized void removed(String title) {
+        countDelete();
+    }
+
+    /**
+     * Counts a removed item, and starts rebuilding the filter in the background once enough items have been removed
+     */
+    private synchronized void countDelete() {
+        this.deletes++;
+        if (this.filter != null && this.building == null && this.deletes >= this.rebuildAfterDeletes) {
+            this.building = newFilter();
+            this.rebuilder.execute(this::build);
+        }
+    }
+
+    /**
+     * Records that every item has been removed
+     */
+    protected synchronized void clear() {
+        if (this.filter != null) {
+            this.filter = newFilter();
+            this.deletes = 0;
+        }
+        if (this.building != null) {
+            this.building = newFilter();
+        }
+    }
+
+    /**
+     * Returns whether the filter has been built
+     *
+     * @return true if the filter has been built
+     */
+    private synchronized boolean isBuilt() {
+        return this.filter != null;
+    }
+
+    /**
+     * Builds the filter on the calling thread
+     */
+    private void rebuild() {
+        synchronized (this) {
+            if (this.building != null) {
+                return;
+            }
+            this.building = newFilter();
+        }
+        build();
+    }
+
+    /**
+     * Streams every title from the todolist table into the filter being built,
+     * and replaces the current filter with it once every title has been read
+     * The latest sequence is read first, so changes committed while the table is read are read by the next sync
+     */
+    private void build() {
+        boolean complete = false;
+        long startedAt = System.nanoTime();
+        long sequence = 0;
+        Connection connection = null;
+        try {
+            connection = this.pool.borrow();
+            sequence = ChangeLog.readLatestSequence(connection);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT title FROM ToDoList", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(this.fetchSize);
+                ResultSet set = statement.executeQuery();
+                while (set.next()) {
+                    // Titles added while the table is read have already been added to the filter being built
+                    addToBuilding(set.getString(1));
+                }
+            }
+            complete = true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            this.pool.release(connection);
+        }
+        synchronized (this) {
+            if (complete) {
+                this.filter = this.building;
+                this.deletes = 0;
+                this.syncedThrough = sequence;
+                this.syncedAt = startedAt;
+            }
+            this.building = null;
+        }
+    }
+
+    /**
+     * Reads the titles added and renamed by the changes committed since the last sync into the filter,
+     * including changes made by other clients. The filter is rebuilt if changes it has not read have been purged
+     */
+    private void sync() {
+        long sequence;
+        synchronized (this) {
+            if (this.filter == null || this.building != null) {
+                return;
+            }
+            sequence = this.syncedThrough;
+        }
+        long startedAt = System.nanoTime();
+        Connection connection = null;
+        try {
+            connection = this.pool.borrow();
+            if (ChangeLog.readPurgedThrough(connection) > sequence) {
+                this.pool.release(connection);
+                connection = null;
+                rebuild();
+                return;
+            }
+            long latest = ChangeLog.readLatestSequence(connection);
+            ChangeLog.readTitlesSince(connection, sequence, latest, (type, title) -> {
+                if (type == ChangeType.ADD || type == ChangeType.UPDATE) {
+                    add(title);
+                } else if (type == ChangeType.REMOVE) {
+                    countDelete();
+                }
+            });
+            synchronized (this) {
+                this.syncedThrough = Math.max(this.syncedThrough, latest);
+                this.syncedAt = startedAt;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            this.pool.release(connection);
+        }
+    }
+
+    /**
+     * Adds a title read from the todolist table to the filter being built
+     *
+     * @param title read
+     */
+    private synchronized void addToBuilding(String title) {
+        if (this.building != null) {
+            this.building.add(title);
+        }
+    }
+
+    /**
+     * Creates an empty filter with the configured size and false positive rate
+     *
+     * @return empty BloomFilter
+     */
+    private BloomFilter newFilter() {
+        return new BloomFilter(this.expectedItems, this.falsePositiveRate);
+    }
+}
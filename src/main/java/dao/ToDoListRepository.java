@@ -1,54 +1,337 @@
 package dao;
 
-import exceptions.InvalidDateTimeFormatException;
+import exceptions.ChangesExpiredException;
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
 import exceptions.ListItemNotFoundException;
+import exceptions.StorageException;
 import model.ListItem;
+import types.ItemField;
 import types.ItemStatus;
-import util.DateParser;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class ToDoListRepository {
+public class ToDoListRepository implements ToDoListStore {
 
     /*
      *  The purpose of the ToDoListRepository class is to handle all interactions between the application,
-     *  and the todolist table in the database.
+     *  and the todolist table in the database. It is the MySQL storage engine.
+     *  Every change is recorded in the ChangeLog in the same transaction, so it can be read back as a change feed.
+     *  Each operation leases its own connection from the pool, so one repository can be shared by many threads.
      */
 
-    private Connection connection;
+    // Inserts a ListItem, with its parameters set by addItemToStatementParams
+    private static final String INSERT_ITEM = "INSERT INTO ToDoList (title,description,descriptionCompressed,compressedDescription,timestamp,dueDate,status) VALUES (?,?,?,?,?,?,?)";
+
+    // Pool of long-lived connections, shared by every repository
+    private final ConnectionPool pool;
+
+    // Filter of stored titles, answers most checks for titles that do not exist without a query
+    private final TitleFilter titleFilter;
+
+    // Maps rows from the todolist table into ListItem objects
+    private final ListItemRowMapper rowMapper = new ListItemRowMapper();
+
+    // Number of rows fetched from the database at a time when reading all items
+    private final int fetchSize;
+
+    // Maximum number of ListItem objects sent to the database in one batch
+    private final int batchSize;
+
+    // UTF-8 length in bytes from which descriptions are stored compressed, 0 or less stores them all as text
+    private final int compressThreshold;
 
     /**
      * Constructor for the ToDoListRepository
-     * Instantiates the DBConnector
+     * Retrieves the shared ConnectionPool, makes sure the todolist table is up to date,
+     * retrieves the shared TitleFilter, reads the configured fetch and batch sizes and compression threshold,
+     * and starts purging old changes
      */
     public ToDoListRepository() {
-        this.connection = new DBConnector().getConnection();
+        this.pool = ConnectionPool.getInstance();
+        SchemaManager.ensureUpToDate(this.pool);
+        this.titleFilter = TitleFilter.getInstance(this.pool);
+        DBConnector connector = new DBConnector();
+        this.fetchSize = connector.getIntDetail("db.fetchSize", 500);
+        this.batchSize = Math.max(1, connector.getIntDetail("db.batchSize", 500));
+        this.compressThreshold = connector.getIntDetail("db.compressThreshold", 1024);
+        ChangeLog.startPurging(this.pool);
     }
 
     /**
      * Inserts a new ListItem into the database
      *
      * @param item to add into the database
+     * @throws ListItemAlreadyExistsException if an item with the same title is already stored
      */
-    public void addListItem(ListItem item) {
-        openConnection();
-        try {
+    @Override
+    public void addListItem(ListItem item) throws ListItemAlreadyExistsException {
+        // Returning the connection rolls back anything not committed
+        try (ConnectionPool.Lease lease = this.pool.lease()) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
             // Prepare the statement to be executed
-            PreparedStatement statement = this.connection.prepareStatement("INSERT INTO ToDoList (title,description,timestamp,dueDate,status) VALUES (?,?,?,?,?)");
-            // Insert item properties as parameters to the statement
+            long id;
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ITEM, Statement.RETURN_GENERATED_KEYS)) {
+                // Insert item properties as parameters to the statement
+                addItemToStatementParams(statement, item);
+                // Execute the PreparedStatement
+                statement.execute();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    id = keys.next() ? keys.getLong(1) : 0;
+                }
+            }
+            ChangeLog.recordAdded(connection, List.of(item));
+            connection.commit();
+            item.markSaved(id, 0);
+            this.titleFilter.add(item.getTitle());
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // The unique index on title rejected the item
+            throw new ListItemAlreadyExistsException("An item with name '" + item.getTitle() + "' already exists");
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Inserts a collection of ListItem objects into the database in a single transaction.
+     * Items are sent to the database in batches, rather than one statement per item.
+     * Items which cannot be stored (e.g. duplicate titles) are reported in the result, and the rest are still stored.
+     *
+     * @param items to add into the database
+     * @return BatchInsertResult with the number of items stored, and the items rejected
+     */
+    @Override
+    public BatchInsertResult addListItems(Collection<ListItem> items) {
+        BatchInsertResult result = new BatchInsertResult();
+        try (ConnectionPool.Lease lease = this.pool.lease()) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
+            // Inserted items, and the id each was given
+            Map<ListItem, Long> inserted = new LinkedHashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ITEM, Statement.RETURN_GENERATED_KEYS)) {
+                List<ListItem> batch = new ArrayList<>();
+                Set<String> titles = new HashSet<>();
+                for (ListItem item : items) {
+                    if (item.getTitle() == null || item.getTitle().length() == 0) {
+                        result.addFailure(item, "Item title is invalid");
+                    } else if (!titles.add(item.getTitle())) {
+                        result.addFailure(item, "Item appears more than once in the batch");
+                    } else {
+                        batch.add(item);
+                    }
+                    if (batch.size() == this.batchSize) {
+                        executeBatch(connection, statement, batch, result, inserted);
+                        batch.clear();
+                    }
+                }
+                executeBatch(connection, statement, batch, result, inserted);
+            }
+            ChangeLog.recordAdded(connection, new ArrayList<>(inserted.keySet()));
+            connection.commit();
+            inserted.forEach((item, id) -> {
+                item.markSaved(id, 0);
+                this.titleFilter.add(item.getTitle());
+            });
+            result.addInserted(inserted.size());
+        } catch (SQLException e) {
+            // The transaction was rolled back when the connection was returned
+            e.printStackTrace();
+            result.rolledBack(e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Sends a batch of ListItem objects to the database. The driver rewrites the batch into a multi-row INSERT,
+     * so a batch costs one round trip for the title check and one for the insert, split only if it exceeds
+     * the server's max_allowed_packet. Items whose title is already stored are rejected before the batch is sent.
+     * Titles are compared exactly, as the title column uses a binary collation.
+     * If the batch fails, e.g. as another client has just stored one of the titles, its items are inserted
+     * one at a time, so each item is only rejected for its own reason.
+     *
+     * @param connection the batch is sent on
+     * @param statement insert statement to add the batch to
+     * @param batch     of ListItem objects to insert
+     * @param result    to record rejected items in
+     * @param inserted  to add the inserted items to, with the id each was given
+     * @throws SQLException if the batch cannot be sent
+     */
+    private void executeBatch(Connection connection, PreparedStatement statement, List<ListItem> batch, BatchInsertResult result, Map<ListItem, Long> inserted) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> existing = findExistingTitles(connection, batch);
+        List<ListItem> toInsert = new ArrayList<>();
+        for (ListItem item : batch) {
+            if (existing.contains(item.getTitle())) {
+                result.addFailure(item, "An item with this title already exists");
+            } else {
+                addItemToStatementParams(statement, item);
+                statement.addBatch();
+                toInsert.add(item);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+        int[] counts;
+        long[] ids = new long[toInsert.size()];
+        try {
+            counts = statement.executeBatch();
+            // Keys are returned in the order of the batch when every statement succeeds
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length && keys.next(); i++) {
+                    ids[i] = keys.getLong(1);
+                }
+            }
+        } catch (BatchUpdateException e) {
+            // The driver reports which statements failed, every other statement was still executed.
+            // The keys cannot be matched to the items, so they are stored without an id and found by title
+            counts = e.getUpdateCounts();
+            statement.clearBatch();
+        }
+        for (int i = 0; i < toInsert.size(); i++) {
+            if (i < counts.length && counts[i] != Statement.EXECUTE_FAILED) {
+                inserted.put(toInsert.get(i), ids[i]);
+            } else {
+                // A rewritten INSERT fails every item it holds, so find which item failed, and why
+                insertSingle(connection, toInsert.get(i), result, inserted);
+            }
+        }
+    }
+
+    /**
+     * Inserts a ListItem of a batch which failed on its own, recording whether it was stored or rejected
+     *
+     * @param connection the batch is sent on
+     * @param item       to insert
+     * @param result     to record a rejection in
+     * @param inserted   to add the item to if it is inserted, with the id it was given
+     * @throws SQLException if the connection fails
+     */
+    private void insertSingle(Connection connection, ListItem item, BatchInsertResult result, Map<ListItem, Long> inserted) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_ITEM, Statement.RETURN_GENERATED_KEYS)) {
             addItemToStatementParams(statement, item);
-            // Execute the PreparedStatement
-            statement.execute();
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                inserted.put(item, keys.next() ? keys.getLong(1) : 0);
+            }
+        } catch (SQLIntegrityConstraintViolationException e) {
+            result.addFailure(item, "An item with this title already exists");
         } catch (SQLException e) {
+            if (connection.isClosed()) {
+                throw e;
+            }
+            result.addFailure(item, "Item could not be inserted: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds which of the ListItem titles are already stored in the database
+     *
+     * @param connection to query on
+     * @param items      to check
+     * @return titles already stored
+     * @throws SQLException if the query fails
+     */
+    private Set<String> findExistingTitles(Connection connection, List<ListItem> items) throws SQLException {
+        String placeholders = String.join(",", Collections.nCopies(items.size(), "?"));
+        Set<String> existing = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement("SELECT title FROM ToDoList WHERE title IN (" + placeholders + ")")) {
+            for (int i = 0; i < items.size(); i++) {
+                statement.setString((i + 1), items.get(i).getTitle());
+            }
+            try (ResultSet set = statement.executeQuery()) {
+                while (set.next()) {
+                    existing.add(set.getString("title"));
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Writes the changed fields of a ListItem to the database with a single conditional UPDATE statement, in a transaction.
+     * The row is only updated if its version is still the version the item was read with, and the version is incremented,
+     * so an edit can never overwrite a change saved since the item was read. No row lock is held while the user edits.
+     * The item is found by its id, or the title it was stored under if it has no id, so a changed title is renamed in place.
+     * Nothing is written if the ListItem has no changes.
+     *
+     * @param item to update in the database
+     * @return true if the changes were saved, false if the transaction was rolled back
+     * @throws ListItemNotFoundException if the list item is not found
+     * @throws ListItemConflictException if the list item has been changed since it was read
+     */
+    @Override
+    public boolean updateListItem(ListItem item) throws ListItemNotFoundException, ListItemConflictException {
+        if (!item.hasChanges()) {
+            return true;
+        }
+        Set<ItemField> changedFields = item.getChangedFields();
+        // Build the SET clause from the changed fields only
+        StringJoiner columns = new StringJoiner(",");
+        changedFields.forEach(field -> columns.add(getColumnAssignment(field)));
+        String key = item.getId() > 0 ? "id=?" : "title=?";
+
+        try (ConnectionPool.Lease lease = this.pool.lease();
+             PreparedStatement statement = lease.connection().prepareStatement("UPDATE ToDoList SET " + columns + ",version=version+1 WHERE " + key + " AND version=?")) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
+            int index = 1;
+            for (ItemField field : changedFields) {
+                index = setColumnValue(statement, index, item, field);
+            }
+            setKey(statement, index++, item);
+            statement.setLong(index, item.getVersion());
+
+            if (statement.executeUpdate() == 0) {
+                // Either the row is gone, or it has a newer version
+                try (PreparedStatement exists = connection.prepareStatement("SELECT version FROM ToDoList WHERE " + key)) {
+                    setKey(exists, 1, item);
+                    try (ResultSet set = exists.executeQuery()) {
+                        if (set.next()) {
+                            throw new ListItemConflictException("Item '" + item.getOriginalTitle() + "' has been changed by someone else since it was read");
+                        }
+                    }
+                }
+                throw new ListItemNotFoundException("Item '" + item.getOriginalTitle() + "' cannot be found");
+            }
+            ChangeLog.recordUpdated(connection, item.getOriginalTitle(), item);
+            connection.commit();
+            if (changedFields.contains(ItemField.TITLE)) {
+                this.titleFilter.add(item.getTitle());
+                this.titleFilter.removed(item.getOriginalTitle());
+            }
+            item.markSaved(item.getId(), item.getVersion() + 1);
+            return true;
+        } catch (SQLException e) {
+            // The transaction was rolled back when the connection was returned
             e.printStackTrace();
-        } finally {
-            closeConnection();
+            return false;
         }
     }
 
@@ -58,35 +341,74 @@ public class ToDoListRepository {
      * @param title to be removed from the database
      * @throws ListItemNotFoundException if the list item is not found
      */
+    @Override
     public void removeListItem(String title) throws ListItemNotFoundException {
-        openConnection();
-        try {
-            PreparedStatement statement = this.connection.prepareStatement("DELETE FROM ToDoList WHERE title=?");
+        try (ConnectionPool.Lease lease = this.pool.lease();
+             PreparedStatement statement = lease.connection().prepareStatement("DELETE FROM ToDoList WHERE title=?")) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
             statement.setString(1, title);
 
             if (statement.executeUpdate() == 0) {
                 throw new ListItemNotFoundException("Item '" + title + "' cannot be found");
             }
+            ChangeLog.recordRemoved(connection, title);
+            connection.commit();
+            this.titleFilter.removed(title);
         } catch (SQLException e) {
             e.printStackTrace();
-        } finally {
-            closeConnection();
         }
     }
 
     /**
      * Removes all items from the todolist table in the database
      */
+    @Override
     @SuppressWarnings("SqlWithoutWhere") // Suppress the IDE from showing a warning for the 'delete query'.
     public void removeAllItems() {       // In this situation, we are sure we want to clear it.
-        openConnection();
-        try {
-            PreparedStatement statement = this.connection.prepareStatement("DELETE FROM ToDoList");
+        try (ConnectionPool.Lease lease = this.pool.lease();
+             PreparedStatement statement = lease.connection().prepareStatement("DELETE FROM ToDoList")) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
             statement.execute();
+            ChangeLog.recordCleared(connection);
+            connection.commit();
+            this.titleFilter.clear();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the changes recorded after a sequence from the ToDoListChange table
+     *
+     * @param sequence of the last change already seen, 0 for none
+     * @param limit    maximum number of changes read
+     * @return changes after the sequence, in sequence order
+     * @throws ChangesExpiredException if changes after the sequence have been purged
+     */
+    @Override
+    public List<ChangeEvent> getChangesSince(long sequence, int limit) throws ChangesExpiredException {
+        try (ConnectionPool.Lease lease = this.pool.lease()) {
+            return ChangeLog.readSince(lease.connection(), sequence, limit);
         } catch (SQLException e) {
             e.printStackTrace();
-        } finally {
-            closeConnection();
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Get the sequence of the latest change committed to the database
+     *
+     * @return latest sequence, 0 if nothing has changed
+     */
+    @Override
+    public long getLatestSequence() {
+        try (ConnectionPool.Lease lease = this.pool.lease()) {
+            return ChangeLog.readLatestSequence(lease.connection());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
         }
     }
 
@@ -97,89 +419,279 @@ public class ToDoListRepository {
      * @return ListItem or null
      * @throws ListItemNotFoundException if the list item is not found
      */
+    @Override
     public ListItem getItemByTitle(String title) throws ListItemNotFoundException {
-        openConnection();
-        ListItem item;
-        try {
-            ResultSet set = executeStatement("SELECT * FROM ToDoList where title=?", title);
+        try (ConnectionPool.Lease lease = this.pool.lease();
+             ResultSet set = executeStatement(lease.connection(), "SELECT * FROM ToDoList where title=?", title)) {
             if (set.next()) {
-                String dueDateStr = set.getString("dueDate").replace("T", " ");
-
-                LocalDateTime timeStamp = DateParser.parseStringToLocalDateTime(set.getString("timestamp").replace("T", " "), "yyyy-MM-dd HH:mm");
-                LocalDateTime dueDate = !dueDateStr.equals("None") ? DateParser.parseStringToLocalDateTime(dueDateStr, "yyyy-MM-dd HH:mm") : null;
                 // Create the ListItem object with the ResultSet elements
-                item = new ListItem(set.getString("title"),
-                        set.getString("description"),
-                        timeStamp,
-                        dueDate,
-                        ItemStatus.valueOf(set.getString("status")));
-                return item;
+                return this.rowMapper.mapRow(set);
             }
             // ResultSet is empty
             throw new ListItemNotFoundException("Item '" + title + "' cannot be found");
-        } catch (InvalidDateTimeFormatException | SQLException e) {
+        } catch (SQLException e) {
             e.printStackTrace();
-        } finally {
-            closeConnection();
         }
         return null;
     }
 
     /**
      * Checks whether a list item is present within the todolist table
+     * Titles that fail the TitleFilter are not stored, so are answered without a query.
+     * The filter only rules titles out once it has read the changes made by every client, see TitleFilter
      *
      * @param title of the list item
      * @return true if the item exists, false otherwise
      */
+    @Override
     public boolean doesListItemExist(String title) {
-        openConnection();
-        try {
+        if (!this.titleFilter.mightContain(title)) {
+            // The title is definitely not stored
+            return false;
+        }
+        try (ConnectionPool.Lease lease = this.pool.lease();
+             ResultSet set = executeStatement(lease.connection(), "SELECT 1 FROM ToDoList WHERE title=? LIMIT 1", title)) {
             // Returns true if the returned ResultSet has next
-            return executeStatement("Select * from ToDoList WHERE title=?", title).next();
+            return set.next();
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
-        } finally {
-            closeConnection();
         }
     }
 
     /**
-     * Get all list items from within the todolist table
+     * Streams all list items from within the todolist table with a single query.
+     * Rows are mapped as they are read from the cursor, so the whole table is never held in memory.
+     * - The Stream holds a pooled connection until it is closed, so it should be used in a try-with-resources
      *
-     * @return listItems list of all items
+     * @return Stream of all items
      */
-    public List<ListItem> getAllListItems() {
-        openConnection();
-        List<ListItem> listItems = new ArrayList<>();
-        try {
-            ResultSet set = executeStatement("Select title from ToDoList", "");
-            while (set.next()) {
-                // Get the ListItem from the title, and add it to the List.
-                ListItem item = getItemByTitle(set.getString("title"));
-                listItems.add(item);
+    @Override
+    public Stream<ListItem> streamAllListItems() {
+        return streamRows("SELECT * FROM ToDoList", Collections.emptyList());
+    }
+
+    /**
+     * Streams the list items matching the query. The filters, order, keyset and limit are all applied by the database,
+     * and are covered by the status, dueDate and timestamp indexes.
+     * - The Stream holds a pooled connection until it is closed, so it should be used in a try-with-resources
+     *
+     * @param query to filter and order the items with
+     * @return Stream of the matching items
+     */
+    @Override
+    public Stream<ListItem> query(ListItemQuery query) {
+        List<Object> params = new ArrayList<>();
+        StringJoiner where = getWhereClause(query, params);
+        String direction = query.isDescending() ? " DESC" : "";
+        String order = switch (query.getOrder()) {
+            case TITLE -> "title" + direction;
+            case DUE_DATE -> "dueDate" + direction + ", title" + direction;
+            case CREATED -> "timestamp" + direction + ", title" + direction;
+        };
+        return streamRows("SELECT * FROM ToDoList" + where + " ORDER BY " + order
+                + (query.getLimit() > 0 ? " LIMIT " + query.getLimit() : ""), params);
+    }
+
+    /**
+     * Sets the status of every list item matching the filters of the query with one set-based UPDATE, in a transaction.
+     * The changed rows are recorded in the ChangeLog with one INSERT ... SELECT, so the number of statements
+     * does not grow with the number of items. Each changed row has its version incremented.
+     * - The order, cursor and limit of the query are not used. Items which already have the status are not changed
+     *
+     * @param query  selecting the items to change
+     * @param status to set
+     * @return number of items changed
+     * @throws InvalidItemStatusException if the status is null
+     */
+    @Override
+    public int updateStatuses(ListItemQuery query, ItemStatus status) throws InvalidItemStatusException {
+        if (status == null) {
+            throw new InvalidItemStatusException("ItemStatus cannot be null");
+        }
+        List<Object> params = new ArrayList<>();
+        StringJoiner where = getWhereClause(query.filtersOnly(), params);
+        where.add("status <> ?");
+        params.add(status.toString());
+
+        try (ConnectionPool.Lease lease = this.pool.lease()) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
+            // Locks the matching rows, so the rows recorded are the rows updated
+            ChangeLog.recordStatusUpdated(connection, where.toString(), params, status);
+            int updated;
+            try (PreparedStatement statement = connection.prepareStatement("UPDATE ToDoList SET status=?, version=version+1" + where)) {
+                statement.setString(1, status.toString());
+                setParams(statement, 2, params);
+                updated = statement.executeUpdate();
             }
-        } catch (SQLException | ListItemNotFoundException e) {
+            connection.commit();
+            return updated;
+        } catch (SQLException e) {
+            // The transaction was rolled back when the connection was returned
             e.printStackTrace();
-        } finally {
-            closeConnection();
+            return 0;
+        }
+    }
+
+    /**
+     * Get the WHERE clause selecting the rows matching the filters and cursor of the query
+     *
+     * @param query  to get the filters from
+     * @param params to add the values of the filters to
+     * @return conditions, which more can be added to, and which are empty if the query has no filters
+     */
+    private StringJoiner getWhereClause(ListItemQuery query, List<Object> params) {
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        if (!query.getStatuses().isEmpty()) {
+            StringJoiner placeholders = new StringJoiner(",");
+            query.getStatuses().forEach(status -> {
+                placeholders.add("?");
+                params.add(status.toString());
+            });
+            where.add("status IN (" + placeholders + ")");
+        }
+        if (query.isWithoutDueDate()) {
+            where.add("dueDate IS NULL");
+        }
+        if (query.getDueFrom() != null) {
+            where.add("dueDate >= ?");
+            params.add(query.getDueFrom());
+        }
+        if (query.getDueBefore() != null) {
+            where.add("dueDate < ?");
+            params.add(query.getDueBefore());
+        }
+        if (query.getCreatedSince() != null) {
+            where.add("timestamp >= ?");
+            params.add(query.getCreatedSince());
+        }
+        if (query.getCursor() != null) {
+            where.add(getKeysetCondition(query, params));
+        }
+        return where;
+    }
+
+    /**
+     * Get the condition selecting the rows after the cursor of the query, in the order of the query
+     * MySQL sorts NULL before every date, so rows without a date come first in ascending order, and last in descending
+     *
+     * @param query  with a cursor
+     * @param params to add the values of the cursor to
+     * @return condition for the WHERE clause
+     */
+    private String getKeysetCondition(ListItemQuery query, List<Object> params) {
+        ListItem cursor = query.getCursor();
+        String comparison = query.isDescending() ? " < ?" : " > ?";
+        if (query.getOrder() == ListItemQuery.Order.TITLE) {
+            params.add(cursor.getTitle());
+            return "title" + comparison;
+        }
+        String column = query.getOrder() == ListItemQuery.Order.DUE_DATE ? "dueDate" : "timestamp";
+        LocalDateTime value = query.getOrder() == ListItemQuery.Order.DUE_DATE ? cursor.getDueDate() : cursor.getTimestamp();
+        if (value == null) {
+            params.add(cursor.getTitle());
+            return query.isDescending()
+                    ? "(" + column + " IS NULL AND title" + comparison + ")"
+                    : "((" + column + " IS NULL AND title" + comparison + ") OR " + column + " IS NOT NULL)";
         }
-        return listItems;
+        params.add(value);
+        params.add(value);
+        params.add(cursor.getTitle());
+        String condition = "(" + column + comparison + " OR (" + column + " = ? AND title" + comparison + "))";
+        return query.isDescending() ? "(" + condition + " OR " + column + " IS NULL)" : condition;
+    }
+
+    /**
+     * Streams the rows returned by a query on a connection borrowed for the lifetime of the Stream
+     *
+     * @param sql    of the query
+     * @param params of the query
+     * @return Stream of the rows mapped into ListItem objects
+     * @throws StorageException if the query fails, and from the Stream if a row cannot be read
+     */
+    private Stream<ListItem> streamRows(String sql, List<Object> params) {
+        Connection streamConnection;
+        try {
+            streamConnection = this.pool.borrow();
+        } catch (SQLException e) {
+            throw new StorageException("Items could not be read", e);
+        }
+        try {
+            PreparedStatement statement = streamConnection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            setParams(statement, 1, params);
+            // Read the rows from the database in chunks, rather than all at once
+            statement.setFetchSize(this.fetchSize);
+            ResultSet set = statement.executeQuery();
+            return StreamSupport.stream(mapRows(set), false).onClose(() -> {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                } finally {
+                    this.pool.release(streamConnection);
+                }
+            });
+        } catch (SQLException e) {
+            this.pool.release(streamConnection);
+            throw new StorageException("Items could not be read", e);
+        }
+    }
+
+    /**
+     * Sets the values as statement parameters, in order
+     *
+     * @param statement to set the parameters on
+     * @param first     index of the first parameter
+     * @param params    values to set
+     * @throws SQLException error
+     */
+    protected static void setParams(PreparedStatement statement, int first, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(first + i, params.get(i));
+        }
+    }
+
+    /**
+     * Creates a Spliterator which maps each row of the ResultSet into a ListItem as it is advanced
+     * A row which cannot be read fails the stream, rather than ending it as if every row had been read
+     *
+     * @param set to read rows from
+     * @return Spliterator of ListItem objects
+     * @throws StorageException from the Stream if a row cannot be read
+     */
+    private Spliterator<ListItem> mapRows(ResultSet set) {
+        return new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super ListItem> action) {
+                try {
+                    if (!set.next()) {
+                        return false;
+                    }
+                    action.accept(rowMapper.mapRow(set));
+                    return true;
+                } catch (SQLException e) {
+                    throw new StorageException("Items could not be read", e);
+                }
+            }
+        };
     }
 
     /**
      * Prepares the passed statement and adds the params if there is any as statement parameters.
-     * Returns the ResultSet
+     * Returns the ResultSet, which closes the statement when it is closed
      * - Should not be used on statements that don't return a ResultSet
      *
-     * @param statement to execute
+     * @param connection to prepare the statement on
+     * @param statement  to execute
      * @param params    String[] parameters
      * @return ResultSet returned from the database
      * @throws SQLException if a syntax error occurs, or an attempt to use the method on a statement which does
      *                      not return a ResultSet
      */
-    private ResultSet executeStatement(String statement, String... params) throws SQLException {
+    private ResultSet executeStatement(Connection connection, String statement, String... params) throws SQLException {
         PreparedStatement preparedStatement = connection.prepareStatement(statement);
+        preparedStatement.closeOnCompletion();
         if (params[0].length() > 0) {
             for (int i = 0; i < params.length; i++) {
                 try {
@@ -201,39 +713,84 @@ public class ToDoListRepository {
      * @throws SQLException error
      */
     private void addItemToStatementParams(PreparedStatement statement, ListItem item) throws SQLException {
-        // Declare the properties of the ListItem ready to be inserted into the statement
-        String title = item.getTitle();
-        String description = item.getDescription();
-        String timestamp = item.getTimestamp().toString();
-        // The DueDate may not have been set by the user, if it has not, then instantiate the String to 'None'
-        String dueDate = (item.getDueDate() == null ? "None" : item.getDueDate().toString());
-
-        ItemStatus status = item.getStatus();
         // Set statement parameters equal to each of the ListItem's properties.
-        statement.setString(1, title);
-        statement.setString(2, description);
-        statement.setString(3, timestamp);
-        statement.setString(4, dueDate);
-        statement.setString(5, status.toString());
+        int index = setColumnValue(statement, 1, item, ItemField.TITLE);
+        index = setColumnValue(statement, index, item, ItemField.DESCRIPTION);
+        statement.setObject(index++, item.getTimestamp());
+        index = setColumnValue(statement, index, item, ItemField.DUE_DATE);
+        setColumnValue(statement, index, item, ItemField.STATUS);
     }
 
     /**
-     * Opens the connection to the database
+     * Sets the key an item is found by as a statement parameter: its id, or the title it was stored under if it has no id
+     *
+     * @param statement to set the parameter on
+     * @param index     of the parameter
+     * @param item      to get the key from
+     * @throws SQLException error
      */
-    private void openConnection() {
-        this.connection = new DBConnector().getConnection();
+    private void setKey(PreparedStatement statement, int index, ListItem item) throws SQLException {
+        if (item.getId() > 0) {
+            statement.setLong(index, item.getId());
+        } else {
+            statement.setString(index, item.getOriginalTitle());
+        }
     }
 
     /**
-     * Closes the connection to the database
-     * The connection should be closed as soon as possible using this method
+     * Get the assignment of the todolist columns that store the field, for the SET clause of an update
+     * The description is stored in three columns: its text, whether it is compressed, and its compressed bytes
+     *
+     * @param field of the ListItem
+     * @return column assignment with a parameter for each column
      */
-    private void closeConnection() {
-        try {
-            this.connection.close();
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private String getColumnAssignment(ItemField field) {
+        return switch (field) {
+            case TITLE -> "title=?";
+            case DESCRIPTION -> "description=?,descriptionCompressed=?,compressedDescription=?";
+            case DUE_DATE -> "dueDate=?";
+            case STATUS -> "status=?";
+        };
+    }
+
+    /**
+     * Sets the value of the field as statement parameters, bound as the types of its columns
+     * A description at least the compression threshold long is stored compressed, with its text NULL
+     *
+     * @param statement to set the parameters on
+     * @param index     of the first parameter
+     * @param item      to get the value from
+     * @param field     of the ListItem
+     * @return index of the parameter after the field
+     * @throws SQLException error
+     */
+    private int setColumnValue(PreparedStatement statement, int index, ListItem item, ItemField field) throws SQLException {
+        switch (field) {
+            case TITLE -> statement.setString(index, item.getTitle());
+            case DESCRIPTION -> {
+                byte[] compressed = DescriptionCodec.compress(item.getDescription(), this.compressThreshold);
+                if (compressed == null) {
+                    statement.setString(index, item.getDescription());
+                    statement.setBoolean(index + 1, false);
+                    statement.setNull(index + 2, Types.BLOB);
+                } else {
+                    statement.setNull(index, Types.VARCHAR);
+                    statement.setBoolean(index + 1, true);
+                    statement.setBytes(index + 2, compressed);
+                }
+                return index + 3;
+            }
+            // The DueDate may not have been set by the user, if it has not, then store NULL
+            case DUE_DATE -> {
+                if (item.getDueDate() == null) {
+                    statement.setNull(index, Types.TIMESTAMP);
+                } else {
+                    statement.setObject(index, item.getDueDate());
+                }
+            }
+            case STATUS -> statement.setString(index, item.getStatus().toString());
         }
+        return index + 1;
     }
 
 }
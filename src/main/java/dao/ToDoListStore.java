@@ -0,0 +1,176 @@
+package dao;
+
+import exceptions.ChangesExpiredException;
+import exceptions.ChangesNotRecordedException;
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import exceptions.StorageException;
+import model.ListItem;
+import types.ItemStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public interface ToDoListStore {
+
+    /*
+     *  The purpose of the ToDoListStore interface is to define the operations a storage engine provides
+     *  for ListItem objects, so the application does not depend on where the items are stored.
+     *  Items are keyed by title. Engines hand out copies, so edits are only stored through updateListItem.
+     */
+
+    /**
+     * Stores a new ListItem
+     *
+     * @param item to store
+     * @throws ListItemAlreadyExistsException if an item with the same title is already stored
+     */
+    void addListItem(ListItem item) throws ListItemAlreadyExistsException;
+
+    /**
+     * Stores a collection of ListItem objects
+     * Items which cannot be stored (e.g. duplicate titles) are reported in the result, and the rest are still stored.
+     *
+     * @param items to store
+     * @return BatchInsertResult with the number of items stored, and the items rejected
+     */
+    BatchInsertResult addListItems(Collection<ListItem> items);
+
+    /**
+     * Stores the changed fields of a ListItem. The item is found by the title it was stored under
+     * The changes are only stored if the item has the version it is stored with, which each update increments
+     *
+     * @param item to update
+     * @return true if the changes were saved, false if they could not be
+     * @throws ListItemNotFoundException if the list item is not found
+     * @throws ListItemConflictException if the list item has been changed since it was read
+     */
+    boolean updateListItem(ListItem item) throws ListItemNotFoundException, ListItemConflictException;
+
+    /**
+     * Sets the status of every stored ListItem matching the filters of the query
+     * - The order, cursor and limit of the query are not used. Items which already have the status are not changed
+     * - Engines should change every item with one set-based write. This default updates the items one at a time,
+     *   and skips items changed or removed while it runs
+     *
+     * @param query  selecting the items to change
+     * @param status to set
+     * @return number of items changed
+     * @throws InvalidItemStatusException if the status is null
+     */
+    default int updateStatuses(ListItemQuery query, ItemStatus status) throws InvalidItemStatusException {
+        if (status == null) {
+            throw new InvalidItemStatusException("ItemStatus cannot be null");
+        }
+        List<ListItem> matching;
+        try (Stream<ListItem> items = query(query.filtersOnly())) {
+            matching = items.filter(item -> item.getStatus() != status).collect(Collectors.toList());
+        }
+        int updated = 0;
+        for (ListItem item : matching) {
+            item.setStatus(status);
+            try {
+                if (updateListItem(item)) {
+                    updated++;
+                }
+            } catch (ListItemNotFoundException | ListItemConflictException e) {
+                // Changed or removed since it was read, so it is left as it is
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Removes a ListItem
+     *
+     * @param title of the ListItem to remove
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    void removeListItem(String title) throws ListItemNotFoundException;
+
+    /**
+     * Removes every ListItem
+     */
+    void removeAllItems();
+
+    /**
+     * Finds a ListItem by title
+     *
+     * @param title of the ListItem
+     * @return ListItem found
+     * @throws ListItemNotFoundException if the list item is not found
+     */
+    ListItem getItemByTitle(String title) throws ListItemNotFoundException;
+
+    /**
+     * Checks whether a ListItem with the title is stored
+     *
+     * @param title of the ListItem
+     * @return true if the item exists, false otherwise
+     */
+    boolean doesListItemExist(String title);
+
+    /**
+     * Streams every stored ListItem
+     * - The Stream may hold resources until it is closed, so it should be used in a try-with-resources
+     * - A failure to read the items fails the Stream, it never ends early as if every item had been read
+     *
+     * @return Stream of all items
+     * @throws StorageException if the items cannot be read, from this method or the Stream
+     */
+    Stream<ListItem> streamAllListItems();
+
+    /**
+     * Streams the stored ListItem objects matching the query, in the order of the query
+     * - Engines should answer the query from their indexes. This default reads every item
+     * - The Stream may hold resources until it is closed, so it should be used in a try-with-resources
+     *
+     * @param query to filter and order the items with
+     * @return Stream of the matching items
+     */
+    default Stream<ListItem> query(ListItemQuery query) {
+        Stream<ListItem> items = streamAllListItems().filter(query::matches).sorted(query.comparator());
+        return query.getLimit() > 0 ? items.limit(query.getLimit()) : items;
+    }
+
+    /**
+     * Reads the changes made after a sequence, so a client can apply only what changed since it last read
+     * - Engines which record changes override this. This default throws ChangesNotRecordedException
+     *
+     * @param sequence of the last change already seen, 0 for none
+     * @param limit    maximum number of changes read
+     * @return changes after the sequence, in sequence order
+     * @throws ChangesExpiredException     if changes after the sequence are no longer retained
+     * @throws ChangesNotRecordedException if the engine does not record changes, so the list must always be read in full
+     */
+    default List<ChangeEvent> getChangesSince(long sequence, int limit) throws ChangesExpiredException {
+        throw new ChangesNotRecordedException("The storage engine does not record changes");
+    }
+
+    /**
+     * Get the sequence of the latest change, for a client to read changes from after a full read
+     * - Engines which record changes override this. This default throws ChangesNotRecordedException
+     *
+     * @return latest sequence, 0 if nothing has changed
+     * @throws ChangesNotRecordedException if the engine does not record changes
+     */
+    default long getLatestSequence() {
+        throw new ChangesNotRecordedException("The storage engine does not record changes");
+    }
+
+    /**
+     * Get every stored ListItem
+     *
+     * @return listItems list of all items
+     */
+    default List<ListItem> getAllListItems() {
+        try (Stream<ListItem> items = streamAllListItems()) {
+            return items.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+}
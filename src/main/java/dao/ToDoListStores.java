@@ -0,0 +1,187 @@
+package dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class ToDoListStores {
+
+    /*
+     *  The purpose of the ToDoListStores class is to create the storage engine selected by the
+     *  'storage.engine' detail in connParams.txt (or the 'storage.engine' system property).
+     *  - mysql:  the todolist table in MySQL, with recently used items cached (default)
+     *  - memory: an in-memory store, shared by the whole application. Nothing is kept when the application exits
+     *  - log:    an append-only log of segment files in the 'storage.path' directory, shared by the whole application
+     *  - columnar: an in-memory store holding each property in a primitive column, for very large lists.
+     *              Shared by the whole application, and does not record changes
+     *
+     *  If 'storage.snapshot' is true, reads from the mysql and log engines are served from a memory-mapped snapshot
+     *  at 'storage.snapshotPath', rewritten every 'storage.snapshotIntervalSeconds'.
+     *
+     *  Everything opened is closed by one shutdown hook, the last opened first, so the final snapshot is read
+     *  before the store or connection pool it reads from is closed. Separate hooks would run at the same time.
+     */
+
+    // The in-memory store, shared so every ToDoList in the application sees the same items
+    private static InMemoryToDoListStore memoryStore;
+
+    // The columnar store, shared so every ToDoList in the application sees the same items
+    private static ColumnarToDoListStore columnarStore;
+
+    // The log-structured store, shared so only one instance appends to the segment files
+    private static LogStructuredToDoListStore logStore;
+
+    // The snapshot shared by every store, so writes through any of them are seen by the others
+    private static SnapshotManager snapshots;
+
+    // Closes the storage when the application exits, the last registered first
+    private static final Deque<Runnable> closers = new ArrayDeque<>();
+
+    // Whether the shutdown hook running the closers has been added
+    private static boolean closeHookAdded;
+
+    /**
+     * Private constructor, the ToDoListStores class is only used statically
+     */
+    private ToDoListStores() {
+    }
+
+    /**
+     * Creates the configured storage engine
+     *
+     * @return ToDoListStore for the configured engine
+     * @throws IllegalArgumentException if the configured engine is unknown
+     * @throws UncheckedIOException     if the log-structured store cannot be opened
+     */
+    public static ToDoListStore create() {
+        DBConnector connector = new DBConnector();
+        String engine = connector.getDetail("storage.engine", "mysql").trim();
+        return switch (engine) {
+            case "mysql" -> new CachingToDoListRepository(withSnapshot(connector, new ToDoListRepository()));
+            case "memory" -> getMemoryStore();
+            case "log" -> withSnapshot(connector, getLogStore(connector));
+            case "columnar" -> getColumnarStore();
+            default -> throw new IllegalArgumentException("Unknown storage engine '" + engine + "'");
+        };
+    }
+
+    /**
+     * Get an integer setting from connParams.txt, for settings used outside the storage engines
+     *
+     * @param key          of the setting. e.g. 'view.pageSize'
+     * @param defaultValue returned if the setting is not present, or is not a number
+     * @return value of the setting, or defaultValue
+     */
+    public static int getIntSetting(String key, int defaultValue) {
+        return new DBConnector().getIntDetail(key, defaultValue);
+    }
+
+    /**
+     * Get a true/false setting from connParams.txt, for settings used outside the storage engines
+     *
+     * @param key          of the setting. e.g. 'reminder.enabled'
+     * @param defaultValue returned if the setting is not present
+     * @return value of the setting, or defaultValue
+     */
+    public static boolean getBooleanSetting(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(new DBConnector().getDetail(key, String.valueOf(defaultValue)).trim());
+    }
+
+    /**
+     * Registers something to close when the application exits. Everything registered is closed in turn by one
+     * shutdown hook, the last registered first, so anything reading from a store must be registered after it
+     *
+     * @param closer to run when the application exits
+     */
+    protected static synchronized void closeOnExit(Runnable closer) {
+        if (!closeHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(ToDoListStores::closeAll, "storage-shutdown"));
+            closeHookAdded = true;
+        }
+        closers.push(closer);
+    }
+
+    /**
+     * Runs every registered closer, the last registered first. A closer which fails does not stop the others
+     */
+    private static synchronized void closeAll() {
+        while (!closers.isEmpty()) {
+            try {
+                closers.pop().run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Get the in-memory store shared by the application, creating it on first use
+     *
+     * @return the shared InMemoryToDoListStore
+     */
+    private static synchronized InMemoryToDoListStore getMemoryStore() {
+        if (memoryStore == null) {
+            memoryStore = new InMemoryToDoListStore();
+        }
+        return memoryStore;
+    }
+
+    /**
+     * Get the columnar store shared by the application, creating it on first use
+     *
+     * @return the shared ColumnarToDoListStore
+     */
+    private static synchronized ColumnarToDoListStore getColumnarStore() {
+        if (columnarStore == null) {
+            columnarStore = new ColumnarToDoListStore();
+        }
+        return columnarStore;
+    }
+
+    /**
+     * Get the log-structured store shared by the application, opening it on first use
+     * The store writes a checkpoint and closes its files when the application exits
+     *
+     * @param connector to read the store settings with
+     * @return the shared LogStructuredToDoListStore
+     * @throws UncheckedIOException if the store cannot be opened
+     */
+    private static synchronized LogStructuredToDoListStore getLogStore(DBConnector connector) {
+        if (logStore == null) {
+            try {
+                logStore = new LogStructuredToDoListStore(Path.of(connector.getDetail("storage.path", "data/todolist")),
+                        connector.getIntDetail("storage.segmentSize", 4 * 1024 * 1024),
+                        Boolean.parseBoolean(connector.getDetail("storage.sync", "false").trim()),
+                        connector.getIntDetail("storage.compactionIntervalSeconds", 60));
+            } catch (IOException e) {
+                throw new UncheckedIOException("The log-structured store cannot be opened", e);
+            }
+            closeOnExit(logStore::close);
+        }
+        return logStore;
+    }
+
+    /**
+     * Wraps the store so reads are served from the snapshot, if snapshots are enabled.
+     * The snapshot is mapped, and its periodic rewrites started, on first use
+     *
+     * @param connector to read the snapshot settings with
+     * @param store     to wrap
+     * @return SnapshotToDoListStore wrapping the store, or the store if snapshots are disabled
+     */
+    private static synchronized ToDoListStore withSnapshot(DBConnector connector, ToDoListStore store) {
+        if (!Boolean.parseBoolean(connector.getDetail("storage.snapshot", "false").trim())) {
+            return store;
+        }
+        if (snapshots == null) {
+            snapshots = new SnapshotManager(Path.of(connector.getDetail("storage.snapshotPath", "data/todolist.snapshot")));
+            snapshots.start(store, connector.getIntDetail("storage.snapshotIntervalSeconds", 60));
+            SnapshotManager started = snapshots;
+            // Registered after the store, so the final snapshot is written before the store is closed
+            closeOnExit(() -> started.close(store));
+        }
+        return new SnapshotToDoListStore(store, snapshots);
+    }
+}
@@ -0,0 +1,8 @@
+package exceptions;
+
+public class ChangesExpiredException extends Exception {
+
+    public ChangesExpiredException(String message) {
+        super(message);
+    }
+}
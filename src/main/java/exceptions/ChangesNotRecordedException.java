@@ -0,0 +1,8 @@
+package exceptions;
+
+public class ChangesNotRecordedException extends RuntimeException {
+
+    public ChangesNotRecordedException(String message) {
+        super(message);
+    }
+}
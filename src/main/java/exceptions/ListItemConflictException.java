@@ -0,0 +1,8 @@
+package exceptions;
+
+public class ListItemConflictException extends Exception {
+
+    public ListItemConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,129 @@
+package model;
+
+import dao.ToDoListStore;
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import types.ItemField;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+public class ItemEditSession {
+
+    /*
+     *  The purpose of the ItemEditSession class is to collect every edit made to a ListItem while
+     *  the item editor is open, and save them to the store together when the editor is closed.
+     *  If someone else saved the item first, the edits can be applied again to the latest stored item and retried.
+     */
+
+    // Store the edits are saved to
+    private final ToDoListStore repository;
+
+    // ListItem being edited
+    private final ListItem item;
+
+    // Copy of the ListItem when the session began or was reloaded, restored if the edits cannot be saved
+    private ListItem original;
+
+    // Told the title the item was stored under, and the saved item, once the edits are saved
+    private final BiConsumer<String, ListItem> onSaved;
+
+    /**
+     * Constructor for the ItemEditSession
+     * Takes a copy of the ListItem so the edits can be rolled back
+     *
+     * @param repository to save the edits to
+     * @param item       to edit
+     * @param onSaved    told the previous title and the saved item once the edits are saved
+     */
+    protected ItemEditSession(ToDoListStore repository, ListItem item, BiConsumer<String, ListItem> onSaved) {
+        this.repository = repository;
+        this.item = item;
+        this.original = new ListItem(item);
+        this.onSaved = onSaved;
+    }
+
+    /**
+     * Get the ListItem being edited
+     *
+     * @return item
+     */
+    public ListItem getItem() {
+        return this.item;
+    }
+
+    /**
+     * Saves every edit made during the session as one transactional write.
+     * If the write fails, the ListItem is rolled back to how it was when the session began.
+     * If someone else saved the item since it was read, the edits are kept, so they can be reloaded and retried, or rolled back
+     *
+     * @return true if the edits were saved
+     * @throws ListItemConflictException if the item has been changed since it was read
+     */
+    public boolean commit() throws ListItemConflictException {
+        try {
+            if (this.repository.updateListItem(this.item)) {
+                this.onSaved.accept(this.original.getTitle(), this.item);
+                return true;
+            }
+            // The stores refuse a rename onto a title already used without reporting it
+            if (!Objects.equals(this.item.getTitle(), this.original.getTitle()) && this.repository.doesListItemExist(this.item.getTitle())) {
+                System.out.println("An item with name '" + this.item.getTitle() + "' already exists");
+            }
+        } catch (ListItemNotFoundException e) {
+            e.printStackTrace();
+        }
+        rollback();
+        return false;
+    }
+
+    /**
+     * Reads the latest stored version of the ListItem, and applies the edits made during the session to it again,
+     * so the edits can be committed on top of the change that conflicted with them
+     *
+     * @throws ListItemNotFoundException if the item has been removed or renamed since it was read
+     */
+    public void reload() throws ListItemNotFoundException {
+        ListItem latest = this.repository.getItemByTitle(this.original.getOriginalTitle());
+        if (latest == null) {
+            throw new ListItemNotFoundException("Item '" + this.original.getOriginalTitle() + "' cannot be found");
+        }
+        ListItem edited = new ListItem(this.item);
+        Set<ItemField> changedFields = this.item.getChangedFields();
+        this.original = new ListItem(latest);
+        this.item.revertTo(latest);
+        for (ItemField field : changedFields) {
+            applyEdit(edited, field);
+        }
+    }
+
+    /**
+     * Sets a field of the ListItem to its value in the edited copy
+     *
+     * @param edited copy of the ListItem with the edits
+     * @param field  to set
+     */
+    private void applyEdit(ListItem edited, ItemField field) {
+        switch (field) {
+            case TITLE -> this.item.setTitle(edited.getTitle());
+            case DESCRIPTION -> this.item.setDescription(edited.getDescription());
+            case DUE_DATE -> this.item.setDueDate(edited.getDueDate());
+            case STATUS -> {
+                try {
+                    this.item.setStatus(edited.getStatus());
+                } catch (InvalidItemStatusException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards every edit made during the session
+     */
+    public void rollback() {
+        this.item.revertTo(this.original);
+    }
+}
@@ -1,20 +1,23 @@
 package model;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import exceptions.InvalidDateTimeFormatException;
 import org.apache.commons.text.WordUtils;
+import types.ItemField;
 import types.ItemStatus;
 import exceptions.InvalidItemStatusException;
-import util.DateParser;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Getter
 @Setter
-@AllArgsConstructor
 public class ListItem {
 
     // Title of the ListItem
@@ -23,6 +26,11 @@ public class ListItem {
     // Description of the ListItem
     private String description;
 
+    // Reads the description the first time it is needed, if the store deferred reading it, otherwise null
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Supplier<String> descriptionLoader;
+
     // Date & Time that the ListItem was created
     private LocalDateTime timestamp;
 
@@ -32,6 +40,25 @@ public class ListItem {
     // The Status of the ListItem <PENDING, PROGRESS, COMPLETED>
     private ItemStatus status;
 
+    // Id the store assigned to the ListItem, 0 if it has not been stored or the store does not assign ids
+    @Setter(AccessLevel.NONE)
+    private long id;
+
+    // Version of the stored ListItem when it was read. Each update increments it,
+    // and is refused if the stored version no longer matches, so concurrent edits are never silently overwritten
+    @Setter(AccessLevel.NONE)
+    private long version;
+
+    // Title the ListItem was stored with, used to find it in the database after the title has been changed
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String originalTitle;
+
+    // Fields that have been changed since the ListItem was loaded or saved
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final EnumSet<ItemField> changedFields = EnumSet.noneOf(ItemField.class);
+
     /**
      * Default constructor for the ListItem
      * Instantiates the timestamp variable with the current date & time
@@ -52,12 +79,112 @@ public class ListItem {
     public ListItem(String title, String description, ItemStatus status) {
         this.title = title;
         this.description = description;
-        try {
-            this.timestamp = DateParser.parseStringToLocalDateTime(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).toString(), "yyyy-MM-dd HH:mm");
-        } catch (InvalidDateTimeFormatException e) {
-            e.printStackTrace();
-        }
+        this.timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES); // Instantiate the timestamp variable with the current date & time
         this.status = status;
+        this.originalTitle = title;
+    }
+
+    /**
+     * Constructor for the ListItem
+     * Instantiates all properties, used when loading a stored ListItem
+     *
+     * @param title       of the list item
+     * @param description of the list item
+     * @param timestamp   the list item was created
+     * @param dueDate     of the list item, may be null
+     * @param status      of the list item
+     */
+    public ListItem(String title, String description, LocalDateTime timestamp, LocalDateTime dueDate, ItemStatus status) {
+        this.title = title;
+        this.description = description;
+        this.timestamp = timestamp;
+        this.dueDate = dueDate;
+        this.status = status;
+        this.originalTitle = title;
+    }
+
+    /**
+     * Copy constructor for the ListItem
+     * The copy has the same properties, id, version, stored title and changed fields as the item
+     *
+     * @param item to copy
+     */
+    public ListItem(ListItem item) {
+        this(item.title, item.description, item.timestamp, item.dueDate, item.status);
+        this.id = item.id;
+        this.version = item.version;
+        this.originalTitle = item.originalTitle;
+        this.changedFields.addAll(item.changedFields);
+        this.descriptionLoader = item.descriptionLoader;
+    }
+
+    /**
+     * Get the description of the ListItem, reading it first if the store deferred reading it
+     *
+     * @return description
+     */
+    public String getDescription() {
+        if (this.descriptionLoader != null) {
+            this.description = this.descriptionLoader.get();
+            this.descriptionLoader = null;
+        }
+        return this.description;
+    }
+
+    /**
+     * Get the reader of a description which has not been read yet
+     *
+     * @return reader passed to deferDescription, or null if the description has been read or set
+     */
+    public Supplier<String> getDeferredDescription() {
+        return this.descriptionLoader;
+    }
+
+    /**
+     * Defers reading the description until it is first needed, e.g. so a stored description is only
+     * decompressed if it is shown. The description is not marked as changed
+     *
+     * @param loader reads the description
+     */
+    public void deferDescription(Supplier<String> loader) {
+        this.description = null;
+        this.descriptionLoader = loader;
+    }
+
+    /**
+     * Sets the title of the ListItem
+     *
+     * @param title to set
+     */
+    public void setTitle(String title) {
+        markChanged(ItemField.TITLE, this.title, title);
+        this.title = title;
+    }
+
+    /**
+     * Sets the description of the ListItem
+     * A deferred description is replaced without being read, so it is always marked as changed
+     *
+     * @param description to set
+     */
+    public void setDescription(String description) {
+        if (this.descriptionLoader != null) {
+            this.changedFields.add(ItemField.DESCRIPTION);
+            this.descriptionLoader = null;
+        } else {
+            markChanged(ItemField.DESCRIPTION, this.description, description);
+        }
+        this.description = description;
+    }
+
+    /**
+     * Sets the due date of the ListItem
+     *
+     * @param dueDate to set, may be null
+     */
+    public void setDueDate(LocalDateTime dueDate) {
+        markChanged(ItemField.DUE_DATE, this.dueDate, dueDate);
+        this.dueDate = dueDate;
     }
 
     /**
@@ -70,10 +197,91 @@ public class ListItem {
         if (status == null) {
             throw new InvalidItemStatusException("ItemStatus cannot be null");
         }
-        System.out.println("\nItem status has been updated: [" + this.status + "]" + " -> " + "[" + status + "]");
+        markChanged(ItemField.STATUS, this.status, status);
         this.status = status;
     }
 
+    /**
+     * Get the title the ListItem is stored under in the database
+     * This differs from the title if the title has been changed, and not yet saved
+     *
+     * @return originalTitle
+     */
+    public String getOriginalTitle() {
+        return this.originalTitle;
+    }
+
+    /**
+     * Get the fields that have been changed since the ListItem was loaded or saved
+     *
+     * @return Set of changed fields
+     */
+    public Set<ItemField> getChangedFields() {
+        return Collections.unmodifiableSet(EnumSet.copyOf(this.changedFields));
+    }
+
+    /**
+     * Returns whether any fields have been changed since the ListItem was loaded or saved
+     *
+     * @return true if the ListItem has unsaved changes
+     */
+    public boolean hasChanges() {
+        return !this.changedFields.isEmpty();
+    }
+
+    /**
+     * Marks the ListItem as saved. Clears the changed fields, and the
+     * current title becomes the title it is stored under
+     */
+    public void markSaved() {
+        this.originalTitle = this.title;
+        this.changedFields.clear();
+    }
+
+    /**
+     * Marks the ListItem as saved with the id and version it is stored with
+     *
+     * @param id      the store assigned to the item
+     * @param version of the stored item
+     */
+    public void markSaved(long id, long version) {
+        this.id = id;
+        this.version = version;
+        markSaved();
+    }
+
+    /**
+     * Reverts the ListItem to the properties, id, version, stored title and changed fields of a copy taken earlier
+     *
+     * @param copy of the ListItem to revert to
+     */
+    public void revertTo(ListItem copy) {
+        this.title = copy.title;
+        this.description = copy.description;
+        this.descriptionLoader = copy.descriptionLoader;
+        this.timestamp = copy.timestamp;
+        this.dueDate = copy.dueDate;
+        this.status = copy.status;
+        this.id = copy.id;
+        this.version = copy.version;
+        this.originalTitle = copy.originalTitle;
+        this.changedFields.clear();
+        this.changedFields.addAll(copy.changedFields);
+    }
+
+    /**
+     * Records the field as changed if the new value differs from the current value
+     *
+     * @param field    being set
+     * @param current  value of the field
+     * @param newValue of the field
+     */
+    private void markChanged(ItemField field, Object current, Object newValue) {
+        if (!Objects.equals(current, newValue)) {
+            this.changedFields.add(field);
+        }
+    }
+
     /**
      * Returns a readable version of this object
      *
@@ -83,7 +291,7 @@ public class ListItem {
     public String toString() {
         return "=".repeat(30) +
                 "\nTitle: [" + this.title +
-                "]\n\nDescription: [" + WordUtils.wrap(this.description, 90) +
+                "]\n\nDescription: [" + WordUtils.wrap(getDescription(), 90) +
                 "]\n\nCreated: [" + this.timestamp.toString().replace("T", " ") +
                 (this.dueDate != null ? "]\nDue date: [" + this.dueDate.toString().replace("T", " ") : "") +
                 "]\nStatus: [" + this.status + "]\n";
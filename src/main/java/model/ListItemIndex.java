@@ -0,0 +1,320 @@
+package model;
+
+import types.ItemStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ListItemIndex {
+
+    /*
+     *  The purpose of the ListItemIndex class is to hold every stored ListItem in memory, indexed so the common views
+     *  of the list are range scans rather than reads of the whole store.
+     *  - by title:    the primary map, every item
+     *  - by status:   the items with each status, in title order
+     *  - by due date: the items with a due date, in due date then title order
+     *  - open by due date: the same, for each status other than COMPLETED, so the next due and overdue views
+     *    are range scans which never pass over the completed history
+     *
+     *  The index is warmed from one read of the store, then kept up to date by the ToDoList as it changes items.
+     *  Items are copied in and out, so edits to an item are only seen once it has been saved.
+     */
+
+    // Order of the due date index, due date then title
+    private static final Comparator<ListItem> DUE_ORDER = Comparator.comparing(ListItem::getDueDate).thenComparing(ListItem::getTitle);
+
+    // Every item by title
+    private final Map<String, ListItem> byTitle = new HashMap<>();
+
+    // Items with each status by title
+    private final EnumMap<ItemStatus, NavigableMap<String, ListItem>> byStatus = new EnumMap<>(ItemStatus.class);
+
+    // Items with a due date by due date, then title
+    private final NavigableMap<LocalDateTime, NavigableMap<String, ListItem>> byDueDate = new TreeMap<>();
+
+    // Items with a due date which have not been completed, by status, then due date, then title
+    private final EnumMap<ItemStatus, NavigableMap<LocalDateTime, NavigableMap<String, ListItem>>> openByDueDate = new EnumMap<>(ItemStatus.class);
+
+    // Reads hold the read lock, changes hold the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor for the ListItemIndex
+     */
+    public ListItemIndex() {
+        for (ItemStatus status : ItemStatus.values()) {
+            this.byStatus.put(status, new TreeMap<>());
+            if (status != ItemStatus.COMPLETED) {
+                this.openByDueDate.put(status, new TreeMap<>());
+            }
+        }
+    }
+
+    /**
+     * Replaces the contents of the index with the items
+     *
+     * @param items to index, e.g. every stored item
+     */
+    public void load(Stream<ListItem> items) {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+            items.forEach(this::addLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a ListItem, replacing any item indexed with the same title
+     *
+     * @param item to index
+     */
+    public void add(ListItem item) {
+        lock.writeLock().lock();
+        try {
+            addLocked(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes a ListItem which may have been renamed
+     *
+     * @param previousTitle title the item was indexed under
+     * @param item          with its new properties
+     */
+    public void update(String previousTitle, ListItem item) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(previousTitle);
+            addLocked(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the ListItem with the title from the index
+     *
+     * @param title of the item to remove
+     */
+    public void remove(String title) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every ListItem from the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of indexed items
+     *
+     * @return number of items
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return this.byTitle.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the ListItem with the title
+     *
+     * @param title of the item
+     * @return copy of the item, or null if it is not indexed
+     */
+    public ListItem get(String title) {
+        lock.readLock().lock();
+        try {
+            ListItem item = this.byTitle.get(title);
+            return item == null ? null : new ListItem(item);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get every ListItem with the status, in title order
+     *
+     * @param status of the items
+     * @return copies of the items
+     */
+    public List<ListItem> withStatus(ItemStatus status) {
+        lock.readLock().lock();
+        try {
+            return copy(this.byStatus.get(status).values().stream(), Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the next ListItem objects due from a time which have not been completed, in due date order
+     *
+     * @param from  earliest due date included
+     * @param limit maximum number of items returned
+     * @return copies of the items
+     */
+    public List<ListItem> nextDue(LocalDateTime from, int limit) {
+        lock.readLock().lock();
+        try {
+            return open(range -> range.tailMap(from, true), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the ListItem objects due before a time which have not been completed, most overdue first
+     *
+     * @param now   time the items are overdue at
+     * @param limit maximum number of items returned
+     * @return copies of the items
+     */
+    public List<ListItem> overdue(LocalDateTime now, int limit) {
+        lock.readLock().lock();
+        try {
+            return open(range -> range.headMap(now, false), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the ListItem objects due in a range, in due date order
+     *
+     * @param from   earliest due date included
+     * @param before due date the items are due before
+     * @return copies of the items
+     */
+    public List<ListItem> dueBetween(LocalDateTime from, LocalDateTime before) {
+        lock.readLock().lock();
+        try {
+            if (!from.isBefore(before)) {
+                return new ArrayList<>();
+            }
+            return copy(this.byDueDate.subMap(from, true, before, false).values().stream().flatMap(items -> items.values().stream()), Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a ListItem, replacing any item indexed with the same title. The write lock should be held
+     *
+     * @param item to index
+     */
+    private void addLocked(ListItem item) {
+        removeLocked(item.getTitle());
+        ListItem copy = new ListItem(item);
+        this.byTitle.put(copy.getTitle(), copy);
+        this.byStatus.get(copy.getStatus()).put(copy.getTitle(), copy);
+        if (copy.getDueDate() != null) {
+            this.byDueDate.computeIfAbsent(copy.getDueDate(), key -> new TreeMap<>()).put(copy.getTitle(), copy);
+            NavigableMap<LocalDateTime, NavigableMap<String, ListItem>> open = this.openByDueDate.get(copy.getStatus());
+            if (open != null) {
+                open.computeIfAbsent(copy.getDueDate(), key -> new TreeMap<>()).put(copy.getTitle(), copy);
+            }
+        }
+    }
+
+    /**
+     * Removes the ListItem with the title from every index. The write lock should be held
+     *
+     * @param title of the item to remove
+     */
+    private void removeLocked(String title) {
+        ListItem removed = this.byTitle.remove(title);
+        if (removed == null) {
+            return;
+        }
+        this.byStatus.get(removed.getStatus()).remove(title);
+        if (removed.getDueDate() != null) {
+            removeDue(this.byDueDate, removed);
+            NavigableMap<LocalDateTime, NavigableMap<String, ListItem>> open = this.openByDueDate.get(removed.getStatus());
+            if (open != null) {
+                removeDue(open, removed);
+            }
+        }
+    }
+
+    /**
+     * Removes a ListItem from a due date index, and its due date once no other item has it
+     *
+     * @param index to remove the item from
+     * @param item  to remove
+     */
+    private static void removeDue(NavigableMap<LocalDateTime, NavigableMap<String, ListItem>> index, ListItem item) {
+        NavigableMap<String, ListItem> due = index.get(item.getDueDate());
+        due.remove(item.getTitle());
+        if (due.isEmpty()) {
+            index.remove(item.getDueDate());
+        }
+    }
+
+    /**
+     * Removes every ListItem from every index. The write lock should be held
+     */
+    private void clearLocked() {
+        this.byTitle.clear();
+        this.byStatus.values().forEach(Map::clear);
+        this.byDueDate.clear();
+        this.openByDueDate.values().forEach(Map::clear);
+    }
+
+    /**
+     * Get the first items of a range of the due date index of each open status, merged in due date then title order.
+     * At most limit items are read from each status. The read lock should be held
+     *
+     * @param range of a due date index to read
+     * @param limit maximum number of items returned
+     * @return copies of the items
+     */
+    private List<ListItem> open(UnaryOperator<NavigableMap<LocalDateTime, NavigableMap<String, ListItem>>> range, int limit) {
+        return copy(this.openByDueDate.values().stream()
+                .flatMap(index -> range.apply(index).values().stream()
+                        .flatMap(items -> items.values().stream())
+                        .limit(Math.max(0, limit)))
+                .sorted(DUE_ORDER), limit);
+    }
+
+    /**
+     * Copies items out of the index
+     *
+     * @param items to copy
+     * @param limit maximum number of items copied
+     * @return copies of the items
+     */
+    private static List<ListItem> copy(Stream<ListItem> items, int limit) {
+        return items.limit(Math.max(0, limit)).map(ListItem::new).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,155 @@
+package model;
+
+import dao.ListItemQuery;
+import dao.ToDoListStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ListItemPager {
+
+    /*
+     *  The purpose of the ListItemPager class is to read the to-do list one page at a time, in due date order.
+     *  Each page is read with a keyset query continuing after the last item of the page before it,
+     *  so every page is a bounded, indexed query however deep it is. The item each visited page continues after
+     *  is remembered, so previous pages and jumps to visited pages are a single query.
+     */
+
+    // Store the pages are read from
+    private final ToDoListStore repository;
+
+    // Query for the first page, limited to one more item than a page to tell whether there is a next page
+    private final ListItemQuery firstPage;
+
+    // Number of items on each page
+    private final int pageSize;
+
+    // Item each visited page continues after, by page index. Null for the first page
+    private final List<ListItem> cursors = new ArrayList<>();
+
+    // Items on the current page
+    private List<ListItem> items = Collections.emptyList();
+
+    // Index of the current page, from 0
+    private int page;
+
+    // Whether there is a page after the current page
+    private boolean hasNextPage;
+
+    /**
+     * Constructor for the ListItemPager
+     *
+     * @param repository to read the pages from
+     * @param pageSize   number of items on each page
+     */
+    protected ListItemPager(ToDoListStore repository, int pageSize) {
+        this.repository = repository;
+        this.pageSize = Math.max(1, pageSize);
+        this.firstPage = ListItemQuery.builder()
+                .orderBy(ListItemQuery.Order.DUE_DATE)
+                .limit(this.pageSize + 1)
+                .build();
+        this.cursors.add(null);
+    }
+
+    /**
+     * Reads the first page
+     *
+     * @return items on the first page
+     */
+    public List<ListItem> firstPage() {
+        return load(0);
+    }
+
+    /**
+     * Reads the page after the current page, if there is one
+     *
+     * @return items on the page, or the current page if it is the last page
+     */
+    public List<ListItem> nextPage() {
+        return this.hasNextPage ? load(this.page + 1) : this.items;
+    }
+
+    /**
+     * Reads the page before the current page, if there is one
+     *
+     * @return items on the page, or the current page if it is the first page
+     */
+    public List<ListItem> previousPage() {
+        return this.page > 0 ? load(this.page - 1) : this.items;
+    }
+
+    /**
+     * Reads a page by number. Pages which have not been visited are reached by reading each page before them
+     *
+     * @param number of the page, from 1
+     * @return items on the page, or the last page if there are fewer pages
+     */
+    public List<ListItem> jumpToPage(int number) {
+        int target = Math.max(0, number - 1);
+        // Walk forward from the last visited page until the target page's cursor is known
+        while (this.cursors.size() <= target) {
+            load(this.cursors.size() - 1);
+            if (!this.hasNextPage) {
+                return this.items;
+            }
+        }
+        return load(target);
+    }
+
+    /**
+     * Get the number of the current page, from 1
+     *
+     * @return page number
+     */
+    public int getPageNumber() {
+        return this.page + 1;
+    }
+
+    /**
+     * Checks whether there is a page after the current page
+     *
+     * @return true if there is a next page
+     */
+    public boolean hasNextPage() {
+        return this.hasNextPage;
+    }
+
+    /**
+     * Checks whether there is a page before the current page
+     *
+     * @return true if there is a previous page
+     */
+    public boolean hasPreviousPage() {
+        return this.page > 0;
+    }
+
+    /**
+     * Reads the page at the index, and remembers the item the next page continues after
+     *
+     * @param index of the page
+     * @return items on the page
+     */
+    private List<ListItem> load(int index) {
+        ListItemQuery query = this.firstPage.toBuilder().after(this.cursors.get(index)).build();
+        List<ListItem> read;
+        try (Stream<ListItem> items = this.repository.query(query)) {
+            read = items.collect(Collectors.toList());
+        }
+        this.hasNextPage = read.size() > this.pageSize;
+        this.items = this.hasNextPage ? read.subList(0, this.pageSize) : read;
+        this.page = index;
+        if (this.hasNextPage) {
+            ListItem last = this.items.get(this.items.size() - 1);
+            if (this.cursors.size() == index + 1) {
+                this.cursors.add(last);
+            } else {
+                this.cursors.set(index + 1, last);
+            }
+        }
+        return this.items;
+    }
+}
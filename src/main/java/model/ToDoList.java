@@ -1,25 +1,116 @@
 package model;
 
-import dao.ToDoListRepository;
+import dao.BatchInsertResult;
+import dao.ChangeEvent;
+import dao.ListItemQuery;
+import dao.ToDoListStore;
+import dao.ToDoListStores;
+import exceptions.ChangesExpiredException;
+import exceptions.ChangesNotRecordedException;
 import exceptions.InvalidDateTimeFormatException;
+import exceptions.InvalidItemStatusException;
 import exceptions.InvalidItemTitleException;
 import exceptions.ListItemAlreadyExistsException;
 import exceptions.ListItemNotFoundException;
+import exceptions.StorageException;
+import reminder.ReminderScheduler;
+import reminder.ReminderSink;
+import search.InvertedIndex;
+import transfer.ImportResult;
+import transfer.ListItemExporter;
+import transfer.ListItemFormat;
+import transfer.ListItemImporter;
+import types.ItemStatus;
 import util.DateParser;
 import util.InputReader;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ToDoList {
 
-    // Repository for handling interacting with the backend
-    private final ToDoListRepository repository;
+    // Store for handling interacting with the backend
+    private final ToDoListStore repository;
+
+    // Maximum number of items printed by a search
+    private static final int SEARCH_LIMIT = 20;
+
+    // Index of the terms in each item's title and description. Built on the first search, then kept up to date
+    private InvertedIndex searchIndex;
+
+    // Reminds the user of items coming due, null unless reminders have been started
+    private ReminderScheduler reminders;
+
+    // Every stored item in memory, indexed by status and due date. Null unless it has been enabled
+    private ListItemIndex itemIndex;
 
     /**
-     * Constructor for the ToDoList class. Instantiates the ToDoListRepository
+     * Constructor for the ToDoList class. Instantiates the configured ToDoListStore
      */
     public ToDoList() {
-        this.repository = new ToDoListRepository();
+        this(ToDoListStores.create());
+    }
+
+    /**
+     * Constructor for the ToDoList class
+     *
+     * @param store to store the ListItem objects in
+     */
+    public ToDoList(ToDoListStore store) {
+        this.repository = store;
+    }
+
+    /**
+     * Holds every stored item in memory, indexed by title, status and due date, so the next due, status and overdue
+     * views are served from memory. The index is warmed from one read of the store, and kept up to date as items
+     * are changed through this ToDoList
+     */
+    public void useItemIndex() {
+        ListItemIndex index = new ListItemIndex();
+        try (Stream<ListItem> items = this.repository.streamAllListItems()) {
+            index.load(items);
+        }
+        synchronized (this) {
+            this.itemIndex = index;
+        }
+    }
+
+    /**
+     * Starts reminding the user when items come due, and when they become overdue
+     * The tick and overdue period are set by 'reminder.tickMillis' and 'reminder.overdueMinutes' in connParams.txt
+     *
+     * @param sink to deliver the reminders to
+     */
+    public void startReminders(ReminderSink sink) {
+        ReminderScheduler scheduler = new ReminderScheduler(this.repository, sink, Clock.systemDefaultZone(),
+                Math.max(1, ToDoListStores.getIntSetting("reminder.tickMillis", 1000)),
+                Duration.ofMinutes(Math.max(1, ToDoListStores.getIntSetting("reminder.overdueMinutes", 60))));
+        useReminders(scheduler);
+        scheduler.start();
+    }
+
+    /**
+     * Schedules the reminders of every stored item with the scheduler, and keeps them up to date as items change
+     *
+     * @param scheduler to schedule the reminders with
+     */
+    public void useReminders(ReminderScheduler scheduler) {
+        scheduler.load();
+        synchronized (this) {
+            this.reminders = scheduler;
+        }
     }
 
     /**
@@ -60,12 +151,77 @@ public class ToDoList {
         try {
             ListItem item = createListItem(reader); // Creates the ListItem from user input
             this.repository.addListItem(item); // Stores the ListItem in the database
+            indexItem(null, item);
             System.out.println(item.getTitle() + " has been added to your to-do list.");
         } catch (ListItemAlreadyExistsException | InvalidDateTimeFormatException | InvalidItemTitleException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Adds a collection of ListItem objects into the database in batches
+     * Items which could not be added are printed out with the reason they were rejected
+     *
+     * @param items to add into the database
+     * @return BatchInsertResult with the number of items added, and the items rejected
+     */
+    public BatchInsertResult addListItems(Collection<ListItem> items) {
+        BatchInsertResult result = this.repository.addListItems(items);
+        if (!result.isCommitted()) {
+            System.out.println("\nNo items were added: " + result.getError());
+            return result;
+        }
+        items.stream().filter(result::wasStored).forEach(item -> indexItem(null, item));
+        result.getFailures().forEach(failure -> System.out.println("'" + failure.title() + "' was not added: " + failure.reason()));
+        System.out.println("\n" + result.getInserted() + " items have been added to your to-do list.");
+        return result;
+    }
+
+    /**
+     * Requests a .csv, .jsonl or .ndjson file from the user, and imports the ListItem objects in it in batches
+     * Records which could not be imported are printed out with the reason they were rejected
+     *
+     * @param reader to read user input
+     */
+    public void importListItems(InputReader reader) {
+        Path path = Path.of(reader.getNextText("\nEnter the file to import [.csv, .jsonl or .ndjson]").trim());
+        ImportResult result;
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            result = new ListItemImporter(this.repository, ToDoListStores.getIntSetting("db.batchSize", 500))
+                    .importFrom(in, ListItemFormat.fromPath(path));
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return;
+        }
+        synchronized (this) {
+            // Rebuilt from the store on the next search
+            this.searchIndex = null;
+        }
+        reloadViews();
+        result.getRejections().forEach((location, reason) -> System.out.println(location + " was not imported: " + reason));
+        if (result.getRejected() > result.getRejections().size()) {
+            System.out.println("... and " + (result.getRejected() - result.getRejections().size()) + " more records were not imported.");
+        }
+        System.out.println("\n" + result.getImported() + " items have been imported into your to-do list.");
+    }
+
+    /**
+     * Requests a .csv, .jsonl or .ndjson file from the user, and exports every ListItem to it
+     * Items are written as they are read, rather than after the whole list has been loaded
+     *
+     * @param reader to read user input
+     */
+    public void exportListItems(InputReader reader) {
+        Path path = Path.of(reader.getNextText("\nEnter the file to export to [.csv, .jsonl or .ndjson]").trim());
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+             Stream<ListItem> items = this.repository.streamAllListItems()) {
+            long count = ListItemExporter.export(items, out, ListItemFormat.fromPath(path));
+            System.out.println("\n" + count + " items have been exported to " + path + ".");
+        } catch (IOException | IllegalArgumentException | StorageException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Removes a ListItem from the database
      *
@@ -75,6 +231,7 @@ public class ToDoList {
         try {
             String itemRemovingTitle = requestItemTitle(reader);
             this.repository.removeListItem(itemRemovingTitle);
+            unindexItem(itemRemovingTitle);
             System.out.println("\n" + itemRemovingTitle + " has been removed from your to-do list");
         } catch (ListItemNotFoundException | InvalidItemTitleException e) {
             e.printStackTrace();
@@ -89,18 +246,46 @@ public class ToDoList {
     public void removeListItem(ListItem item) {
         try {
             this.repository.removeListItem(item.getTitle());
+            unindexItem(item.getTitle());
         } catch (ListItemNotFoundException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Updates (adds) a ListItem into the database
+     * Begins an edit session for a ListItem
+     * Edits made to the ListItem are saved together when the session is committed
      *
-     * @param item to add into the database
+     * @param item to edit
+     * @return ItemEditSession for the ListItem
      */
-    public void updateListItem(ListItem item) {
-        this.repository.addListItem(item);
+    public ItemEditSession beginEdit(ListItem item) {
+        return new ItemEditSession(this.repository, item, this::indexItem);
+    }
+
+    /**
+     * Begins reading the to-do list one page at a time, in due date order
+     * The number of items on each page is set by 'view.pageSize' in connParams.txt
+     *
+     * @return ListItemPager positioned before the first page
+     */
+    public ListItemPager beginPaging() {
+        return new ListItemPager(this.repository, ToDoListStores.getIntSetting("view.pageSize", 10));
+    }
+
+    /**
+     * Prints a page of ListItem objects, and the page number
+     *
+     * @param pager reading the pages
+     * @param items on the page
+     */
+    public void printPage(ListItemPager pager, List<ListItem> items) {
+        if (items.isEmpty()) {
+            System.out.println("\nThe to-do list is empty.");
+            return;
+        }
+        items.forEach(System.out::println);
+        System.out.println("\nPage " + pager.getPageNumber() + (pager.hasNextPage() ? "" : " (last page)"));
     }
 
     /**
@@ -108,6 +293,17 @@ public class ToDoList {
      */
     public void clearAllListItems() {
         this.repository.removeAllItems();
+        synchronized (this) {
+            if (this.searchIndex != null) {
+                this.searchIndex.clear();
+            }
+            if (this.itemIndex != null) {
+                this.itemIndex.clear();
+            }
+            if (this.reminders != null) {
+                this.reminders.cancelAll();
+            }
+        }
         System.out.println("\nThe to-do list has been cleared.");
     }
 
@@ -159,9 +355,320 @@ public class ToDoList {
 
     /**
      * Prints all ListItem objects found in the database
+     * Items are printed as they are read, rather than after the whole list has been loaded
      */
     public void printAllListItems() {
-        this.repository.getAllListItems().forEach(System.out::println);
+        try (Stream<ListItem> items = this.repository.streamAllListItems()) {
+            items.forEach(System.out::println);
+        } catch (StorageException e) {
+            // The items printed so far are not the whole list
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Get the ListItem objects matching the query, in the order of the query
+     *
+     * @param query to filter and order the items with
+     * @return items matching the query
+     */
+    public List<ListItem> findListItems(ListItemQuery query) {
+        try (Stream<ListItem> items = this.repository.query(query)) {
+            return items.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Get the next ListItem objects due which have not been completed, in due date order
+     *
+     * @param limit maximum number of items returned
+     * @return items due from now
+     */
+    public List<ListItem> getNextDueListItems(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        ListItemIndex index = getItemIndex();
+        if (index != null) {
+            return index.nextDue(now, limit);
+        }
+        return findListItems(ListItemQuery.builder().statuses(ItemStatus.PENDING, ItemStatus.PROGRESS)
+                .dueFrom(now).orderBy(ListItemQuery.Order.DUE_DATE).limit(limit).build());
+    }
+
+    /**
+     * Get the ListItem objects due before now which have not been completed, most overdue first
+     *
+     * @param limit maximum number of items returned
+     * @return overdue items
+     */
+    public List<ListItem> getOverdueListItems(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        ListItemIndex index = getItemIndex();
+        if (index != null) {
+            return index.overdue(now, limit);
+        }
+        return findListItems(ListItemQuery.builder().statuses(ItemStatus.PENDING, ItemStatus.PROGRESS)
+                .dueBefore(now).orderBy(ListItemQuery.Order.DUE_DATE).limit(limit).build());
+    }
+
+    /**
+     * Get every ListItem with the status, in title order
+     *
+     * @param status of the items
+     * @return items with the status
+     */
+    public List<ListItem> getListItemsWithStatus(ItemStatus status) {
+        ListItemIndex index = getItemIndex();
+        if (index != null) {
+            return index.withStatus(status);
+        }
+        return findListItems(ListItemQuery.builder().statuses(status).orderBy(ListItemQuery.Order.TITLE).build());
+    }
+
+    /**
+     * Get the changes made to the list after a sequence, so a client can apply only what changed since it last read
+     *
+     * @param sequence of the last change already seen, 0 for none
+     * @param limit    maximum number of changes returned
+     * @return changes after the sequence, in sequence order
+     * @throws ChangesExpiredException     if changes after the sequence are no longer retained, and the list must be read again
+     * @throws ChangesNotRecordedException if the storage engine does not record changes
+     */
+    public List<ChangeEvent> getChangesSince(long sequence, int limit) throws ChangesExpiredException {
+        return this.repository.getChangesSince(sequence, limit);
+    }
+
+    /**
+     * Get the sequence of the latest change made to the list
+     *
+     * @return latest sequence, 0 if nothing has changed
+     * @throws ChangesNotRecordedException if the storage engine does not record changes
+     */
+    public long getLatestSequence() {
+        return this.repository.getLatestSequence();
+    }
+
+    /**
+     * Requests filters from the user, and prints the ListItem objects matching them in due date order
+     * Items are printed as they are read, rather than after every match has been loaded
+     *
+     * @param reader to read user input
+     */
+    public void printFilteredListItems(InputReader reader) {
+        ListItemQuery.Builder builder;
+        try {
+            builder = requestFilters(reader).orderBy(ListItemQuery.Order.DUE_DATE);
+        } catch (IllegalArgumentException | InvalidDateTimeFormatException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        try (Stream<ListItem> items = this.repository.query(builder.build())) {
+            // Counted as they are printed, as count() may skip the pipeline
+            long[] count = {0};
+            items.forEach(item -> {
+                System.out.println(item);
+                count[0]++;
+            });
+            System.out.println("\n" + count[0] + " items match the filter.");
+        } catch (StorageException e) {
+            // The items printed so far are not every match
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Sets the status of every ListItem matching the filters of the query at once
+     * Items which already have the status are not changed
+     *
+     * @param query  selecting the items to change
+     * @param status to set
+     * @return number of items changed
+     * @throws InvalidItemStatusException if the status is null
+     */
+    public int updateListItemStatuses(ListItemQuery query, ItemStatus status) throws InvalidItemStatusException {
+        int updated = this.repository.updateStatuses(query, status);
+        boolean viewed;
+        synchronized (this) {
+            viewed = this.searchIndex != null || this.itemIndex != null || this.reminders != null;
+        }
+        if (updated > 0 && viewed) {
+            // Only the items matching the filters can have changed, so only they are read back and re-indexed
+            try (Stream<ListItem> items = this.repository.query(query.filtersWithStatus(status))) {
+                items.forEach(item -> indexItem(item.getTitle(), item));
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Requests filters and a status from the user, and sets the status of every ListItem matching the filters at once
+     * e.g. every PENDING item due before now can be moved to PROGRESS
+     *
+     * @param reader to read user input
+     */
+    public void updateStatusesInBulk(InputReader reader) {
+        try {
+            ListItemQuery query = requestFilters(reader).build();
+            ItemStatus status = ItemStatus.valueOf(reader.getNextText("\nEnter the status to set [PENDING, PROGRESS, COMPLETED]").trim().toUpperCase());
+            int updated = updateListItemStatuses(query, status);
+            System.out.println("\n" + updated + " items have been updated to [" + status + "].");
+        } catch (IllegalArgumentException | InvalidDateTimeFormatException | InvalidItemStatusException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Finds the ListItem objects containing every term of the query in their title or description, most relevant first
+     *
+     * @param query terms to search for, separated by spaces. A term ending in '*' matches any word starting with it
+     * @param limit maximum number of items returned
+     * @return matching items, most relevant first
+     */
+    public List<ListItem> searchListItems(String query, int limit) {
+        List<ListItem> found = new ArrayList<>();
+        for (String title : getSearchIndex().search(query, limit)) {
+            try {
+                found.add(this.repository.getItemByTitle(title));
+            } catch (ListItemNotFoundException e) {
+                // Removed through another ToDoList since it was indexed
+                unindexItem(title);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Requests search terms from the user, and prints the most relevant ListItem objects
+     *
+     * @param reader to read user input
+     */
+    public void printSearchResults(InputReader reader) {
+        String query = reader.getNextText("\nEnter the words to search for [End a word with * to match words starting with it]");
+        List<ListItem> found = searchListItems(query, SEARCH_LIMIT);
+        found.forEach(System.out::println);
+        System.out.println("\n" + found.size() + " items match '" + query + "'.");
+    }
+
+    /**
+     * Get the search index, building it from every stored item on first use
+     *
+     * @return InvertedIndex of the stored items
+     */
+    private synchronized InvertedIndex getSearchIndex() {
+        if (this.searchIndex == null) {
+            InvertedIndex index = new InvertedIndex();
+            try (Stream<ListItem> items = this.repository.streamAllListItems()) {
+                items.forEach(index::add);
+            }
+            this.searchIndex = index;
+        }
+        return this.searchIndex;
+    }
+
+    /**
+     * Get the in-memory index of the stored items
+     *
+     * @return ListItemIndex, or null if it has not been enabled
+     */
+    private synchronized ListItemIndex getItemIndex() {
+        return this.itemIndex;
+    }
+
+    /**
+     * Indexes a stored ListItem for searching, if the search index has been built, in the item index, if it has
+     * been enabled, and reschedules its reminders, if reminders have been started
+     *
+     * @param previousTitle title the item was stored under, or null if it is new
+     * @param item          stored
+     */
+    private synchronized void indexItem(String previousTitle, ListItem item) {
+        if (this.searchIndex != null) {
+            this.searchIndex.update(previousTitle == null ? item.getTitle() : previousTitle, item);
+        }
+        if (this.itemIndex != null) {
+            this.itemIndex.update(previousTitle == null ? item.getTitle() : previousTitle, item);
+        }
+        if (this.reminders != null) {
+            this.reminders.reschedule(previousTitle, item);
+        }
+    }
+
+    /**
+     * Removes a ListItem from the search index, if the search index has been built, from the item index, if it has
+     * been enabled, and cancels its reminders, if reminders have been started
+     *
+     * @param title of the item removed
+     */
+    private synchronized void unindexItem(String title) {
+        if (this.searchIndex != null) {
+            this.searchIndex.remove(title);
+        }
+        if (this.itemIndex != null) {
+            this.itemIndex.remove(title);
+        }
+        if (this.reminders != null) {
+            this.reminders.cancel(title);
+        }
+    }
+
+    /**
+     * Reloads the item index and reminders from the store, if they have been started
+     * Used after a change to many items at once, which does not say which items it changed
+     */
+    private void reloadViews() {
+        ListItemIndex index;
+        ReminderScheduler scheduler;
+        synchronized (this) {
+            index = this.itemIndex;
+            scheduler = this.reminders;
+        }
+        if (index != null) {
+            try (Stream<ListItem> items = this.repository.streamAllListItems()) {
+                index.load(items);
+            }
+        }
+        if (scheduler != null) {
+            scheduler.load();
+        }
+    }
+
+    /**
+     * Requests the statuses, due dates and creation date to filter items by from the user
+     *
+     * @param reader to read user input
+     * @return Builder of a query with the filters
+     * @throws IllegalArgumentException       if a status is invalid
+     * @throws InvalidDateTimeFormatException if a date is invalid
+     */
+    private ListItemQuery.Builder requestFilters(InputReader reader) throws InvalidDateTimeFormatException {
+        ListItemQuery.Builder builder = ListItemQuery.builder();
+        String statuses = reader.getNextText("\nEnter the statuses to include, separated by commas [PENDING, PROGRESS, COMPLETED][Leave blank for all]");
+        for (String status : statuses.split(",")) {
+            if (!status.isBlank()) {
+                builder.statuses(ItemStatus.valueOf(status.trim().toUpperCase()));
+            }
+        }
+        if (reader.getNextText("\nOnly include items without a due date? [y/n]").trim().equalsIgnoreCase("y")) {
+            builder.withoutDueDate();
+        } else {
+            builder.dueFrom(requestFilterDate(reader, "\nEnter the earliest due date using format [yyyy-MM-dd HH:mm][Leave blank if none]"));
+            builder.dueBefore(requestFilterDate(reader, "\nEnter the date items are due before using format [yyyy-MM-dd HH:mm][Leave blank if none]"));
+        }
+        builder.createdSince(requestFilterDate(reader, "\nEnter the earliest date items were created using format [yyyy-MM-dd HH:mm][Leave blank if none]"));
+        return builder;
+    }
+
+    /**
+     * Requests an optional date for a filter from the user
+     *
+     * @param reader to read user input
+     * @param prompt to print
+     * @return date entered, or null if left blank
+     * @throws InvalidDateTimeFormatException if the date is invalid
+     */
+    private LocalDateTime requestFilterDate(InputReader reader, String prompt) throws InvalidDateTimeFormatException {
+        String date = reader.getNextText(prompt);
+        return date.isBlank() ? null : DateParser.parseStringToLocalDateTime(date.trim(), "yyyy-MM-dd HH:mm");
     }
 
     /**
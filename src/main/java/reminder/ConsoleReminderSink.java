@@ -0,0 +1,18 @@
+package reminder;
+
+public class ConsoleReminderSink implements ReminderSink {
+
+    /*
+     *  The purpose of the ConsoleReminderSink class is to print each reminder to the console.
+     */
+
+    /**
+     * Prints the reminder to the console
+     *
+     * @param reminder fired
+     */
+    @Override
+    public void remind(Reminder reminder) {
+        System.out.println("\n" + reminder);
+    }
+}
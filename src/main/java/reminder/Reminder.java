@@ -0,0 +1,61 @@
+package reminder;
+
+import lombok.Getter;
+import model.ListItem;
+import types.ReminderType;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class Reminder {
+
+    /*
+     *  The purpose of the Reminder class is to describe a ListItem which has come due, or become overdue.
+     */
+
+    // Whether the item has come due, or become overdue
+    private final ReminderType type;
+
+    // Title of the item
+    private final String title;
+
+    // Date the item is due on
+    private final LocalDateTime dueDate;
+
+    // The item when the reminder fired
+    private final ListItem item;
+
+    /**
+     * Constructor for the Reminder
+     *
+     * @param type of reminder
+     * @param item the reminder is for
+     */
+    public Reminder(ReminderType type, ListItem item) {
+        this.type = type;
+        this.title = item.getTitle();
+        this.dueDate = item.getDueDate();
+        this.item = new ListItem(item);
+    }
+
+    /**
+     * Get the item the reminder is for
+     * A copy is returned, so the reminder is not changed by edits
+     *
+     * @return ListItem
+     */
+    public ListItem getItem() {
+        return new ListItem(this.item);
+    }
+
+    /**
+     * Returns a readable version of this object
+     *
+     * @return String readable Reminder
+     */
+    @Override
+    public String toString() {
+        return "Reminder: '" + this.title + "' " + (this.type == ReminderType.DUE ? "is due now" : "is overdue")
+                + " [" + this.dueDate.toString().replace("T", " ") + "]";
+    }
+}
@@ -0,0 +1,272 @@
+package reminder;
+
+import dao.ListItemQuery;
+import dao.ToDoListStore;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import types.ItemStatus;
+import types.ReminderType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class ReminderScheduler implements AutoCloseable {
+
+    /*
+     *  The purpose of the ReminderScheduler class is to remind the user when a ListItem comes due, and again when it
+     *  has been overdue for a while. Every PENDING or PROGRESS item with a due date has its deadlines in one
+     *  TimingWheel, so scheduling, rescheduling and cancelling an item are constant time however many are waiting,
+     *  and a single ticker thread advances the wheel.
+     *
+     *  The ToDoList keeps the scheduler up to date as items are added, edited and removed. When a reminder fires the
+     *  item is read again, and the reminder is dropped if the item has since been completed, removed or given
+     *  another due date, so changes made elsewhere never produce a stale reminder.
+     *  Reloading reconciles with the store rather than starting again, so a reminder that has fired never fires again
+     *  for the same due date.
+     */
+
+    // Number of levels of the wheel. With a tick of a second, deadlines up to 194 days ahead are linked directly
+    private static final int LEVELS = 4;
+
+    // Store the items are read from
+    private final ToDoListStore store;
+
+    // Receives the reminders
+    private final ReminderSink sink;
+
+    // Clock the due dates are compared with
+    private final Clock clock;
+
+    // Length of a tick in milliseconds
+    private final long tickMillis;
+
+    // How long after its due date an item is overdue
+    private final Duration overdueAfter;
+
+    // Deadlines of every scheduled item
+    private final TimingWheel<Deadline> wheel;
+
+    // Deadlines scheduled for each item by title
+    private final Map<String, Scheduled> scheduled = new HashMap<>();
+
+    // Due date of each item by title whose reminders have all fired, so they are not scheduled again
+    private final Map<String, LocalDateTime> finished = new HashMap<>();
+
+    // Advances the wheel, started by start()
+    private ScheduledExecutorService ticker;
+
+    /**
+     * Constructor for the ReminderScheduler
+     *
+     * @param store        to read the items from
+     * @param sink         to deliver the reminders to
+     * @param clock        to compare the due dates with
+     * @param tickMillis   length of a tick in milliseconds, reminders fire up to a tick late
+     * @param overdueAfter how long after its due date an item is overdue
+     */
+    public ReminderScheduler(ToDoListStore store, ReminderSink sink, Clock clock, long tickMillis, Duration overdueAfter) {
+        if (overdueAfter.isNegative() || overdueAfter.isZero()) {
+            throw new IllegalArgumentException("Items must become overdue after their due date");
+        }
+        this.store = store;
+        this.sink = sink;
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.overdueAfter = overdueAfter;
+        this.wheel = new TimingWheel<>(tickMillis, LEVELS, clock.millis());
+    }
+
+    /**
+     * Schedules every PENDING and PROGRESS item with a due date, from one read of the store
+     * Items whose due date is unchanged keep their reminders, and any that have fired, and items no longer read are cancelled
+     */
+    public synchronized void load() {
+        Set<String> loaded = new HashSet<>();
+        try (Stream<ListItem> items = this.store.query(ListItemQuery.builder().statuses(ItemStatus.PENDING, ItemStatus.PROGRESS).build())) {
+            items.filter(item -> item.getDueDate() != null).forEach(item -> {
+                loaded.add(item.getTitle());
+                schedule(item);
+            });
+        }
+        // Completed, removed or undated since, e.g. by another client
+        for (String title : new ArrayList<>(this.scheduled.keySet())) {
+            if (!loaded.contains(title)) {
+                cancel(title);
+            }
+        }
+        this.finished.keySet().retainAll(loaded);
+    }
+
+    /**
+     * Starts the ticker thread, which advances the wheel every tick
+     */
+    public synchronized void start() {
+        if (this.ticker != null) {
+            return;
+        }
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-ticker");
+            thread.setDaemon(true); // Should never keep the application alive
+            return thread;
+        });
+        this.ticker.scheduleAtFixedRate(() -> {
+            try {
+                advanceTo(this.clock.millis());
+            } catch (RuntimeException e) {
+                // Thrown out of the task, it would stop the ticker
+                e.printStackTrace();
+            }
+        }, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules the reminders of a stored item, replacing any scheduled for its title
+     * Completed items, and items without a due date, have no reminders
+     *
+     * @param item stored
+     */
+    public synchronized void schedule(ListItem item) {
+        if (item.getDueDate() == null || item.getStatus() == ItemStatus.COMPLETED) {
+            cancel(item.getTitle());
+            return;
+        }
+        Scheduled current = this.scheduled.get(item.getTitle());
+        if ((current != null && current.dueDate().equals(item.getDueDate())) || item.getDueDate().equals(this.finished.get(item.getTitle()))) {
+            // Unchanged, and any reminder which has already fired should not fire again
+            return;
+        }
+        cancel(item.getTitle());
+        long due = item.getDueDate().atZone(this.clock.getZone()).toInstant().toEpochMilli();
+        long overdue = due + this.overdueAfter.toMillis();
+        // An item loaded after it became overdue is only reminded that it is overdue
+        TimingWheel.Timeout<Deadline> dueTimeout = overdue > this.clock.millis()
+                ? this.wheel.schedule(due, new Deadline(item.getTitle(), item.getDueDate(), ReminderType.DUE))
+                : null;
+        TimingWheel.Timeout<Deadline> overdueTimeout = this.wheel.schedule(overdue, new Deadline(item.getTitle(), item.getDueDate(), ReminderType.OVERDUE));
+        this.scheduled.put(item.getTitle(), new Scheduled(item.getDueDate(), dueTimeout, overdueTimeout));
+    }
+
+    /**
+     * Reschedules the reminders of an item which has been saved
+     *
+     * @param previousTitle title the item was stored under, or null if it is new
+     * @param item          saved
+     */
+    public synchronized void reschedule(String previousTitle, ListItem item) {
+        if (previousTitle != null && !previousTitle.equals(item.getTitle())) {
+            cancel(previousTitle);
+        }
+        schedule(item);
+    }
+
+    /**
+     * Cancels the reminders of an item
+     *
+     * @param title of the item
+     */
+    public synchronized void cancel(String title) {
+        this.finished.remove(title);
+        Scheduled removed = this.scheduled.remove(title);
+        if (removed != null) {
+            this.wheel.cancel(removed.due());
+            this.wheel.cancel(removed.overdue());
+        }
+    }
+
+    /**
+     * Cancels every reminder
+     */
+    public synchronized void cancelAll() {
+        this.wheel.clear();
+        this.scheduled.clear();
+        this.finished.clear();
+    }
+
+    /**
+     * Get the number of items with reminders still to fire
+     *
+     * @return number of items
+     */
+    public synchronized int size() {
+        return this.scheduled.size();
+    }
+
+    /**
+     * Stops the ticker thread. Scheduled reminders are kept, and fire if the ticker is started again
+     */
+    @Override
+    public synchronized void close() {
+        if (this.ticker != null) {
+            this.ticker.shutdownNow();
+            this.ticker = null;
+        }
+    }
+
+    /**
+     * Advances the wheel to a time, and delivers the reminders due by then
+     * Reminders are delivered without holding the lock, so a slow sink never delays edits
+     *
+     * @param nowMillis time to advance to, in milliseconds
+     */
+    protected void advanceTo(long nowMillis) {
+        List<Deadline> expired = new ArrayList<>();
+        synchronized (this) {
+            this.wheel.advanceTo(nowMillis, deadline -> {
+                Scheduled current = this.scheduled.get(deadline.title());
+                if (deadline.type() == ReminderType.OVERDUE && current != null && current.overdue().getPayload() == deadline) {
+                    // The last reminder of the item
+                    this.scheduled.remove(deadline.title());
+                    this.finished.put(deadline.title(), deadline.dueDate());
+                }
+                expired.add(deadline);
+            });
+        }
+        expired.forEach(this::deliver);
+    }
+
+    /**
+     * Reads the item a deadline is for, and delivers its reminder if it is still due on the same date
+     *
+     * @param deadline expired
+     */
+    private void deliver(Deadline deadline) {
+        ListItem item;
+        try {
+            item = this.store.getItemByTitle(deadline.title());
+        } catch (ListItemNotFoundException e) {
+            // Removed since it was scheduled
+            return;
+        }
+        if (item.getStatus() == ItemStatus.COMPLETED || !deadline.dueDate().equals(item.getDueDate())) {
+            return;
+        }
+        try {
+            this.sink.remind(new Reminder(deadline.type(), item));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A reminder waiting in the wheel
+     */
+    private record Deadline(String title, LocalDateTime dueDate, ReminderType type) {
+    }
+
+    /**
+     * The reminders scheduled for an item, and the due date they were scheduled for
+     */
+    private record Scheduled(LocalDateTime dueDate, TimingWheel.Timeout<Deadline> due, TimingWheel.Timeout<Deadline> overdue) {
+    }
+}
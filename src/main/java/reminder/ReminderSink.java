@@ -0,0 +1,16 @@
+package reminder;
+
+public interface ReminderSink {
+
+    /*
+     *  The purpose of the ReminderSink interface is to receive the reminders fired by the ReminderScheduler.
+     *  Reminders are delivered on the scheduler's ticker thread, so a sink should return quickly.
+     */
+
+    /**
+     * Delivers a reminder
+     *
+     * @param reminder fired
+     */
+    void remind(Reminder reminder);
+}
@@ -0,0 +1,274 @@
+package reminder;
+
+import java.util.function.Consumer;
+
+public class TimingWheel<T> {
+
+    /*
+     *  The purpose of the TimingWheel class is to hold a very large number of deadlines, each of which can be
+     *  scheduled and cancelled in constant time, and to find the ones which have passed as the clock advances.
+     *
+     *  Time is divided into ticks. The wheel is a hierarchy of levels of 64 slots each. Level 0 has a slot for each
+     *  of the next 64 ticks, level 1 a slot for each of the next 64 runs of 64 ticks, and so on. A deadline is linked
+     *  into the lowest level whose range covers it. When the clock enters a run of level 0, the matching slot of
+     *  level 1 is cascaded, its deadlines relinked into the levels below, and the same for each higher level.
+     *  Deadlines beyond the range of the top level wait in it, and are relinked until they are in range.
+     *
+     *  The wheel is not thread safe, the owner should hold a lock while using it.
+     */
+
+    // Number of bits of the tick each level indexes by
+    private static final int SLOT_BITS = 6;
+
+    // Number of slots in each level
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    // Mask of the slot index within a level
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    // Length of a tick in milliseconds
+    private final long tickMillis;
+
+    // Time of tick 0 in milliseconds
+    private final long originMillis;
+
+    // Head of the circular list of deadlines in each slot of each level
+    private final Timeout<T>[][] slots;
+
+    // Furthest number of ticks ahead a deadline can be linked, later deadlines are linked at it and relinked later
+    private final long maxDelta;
+
+    // Last tick the wheel has advanced to
+    private long currentTick;
+
+    // Number of scheduled deadlines
+    private int size;
+
+    /**
+     * Constructor for the TimingWheel
+     *
+     * @param tickMillis   length of a tick in milliseconds
+     * @param levels       number of levels. Deadlines up to 64^levels ticks ahead are linked directly
+     * @param originMillis time the wheel starts at, in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int levels, long originMillis) {
+        if (tickMillis < 1 || levels < 1 || levels > 10) {
+            throw new IllegalArgumentException("A timing wheel needs a tick of at least 1ms, and 1 to 10 levels");
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+        this.slots = (Timeout<T>[][]) new Timeout<?>[levels][SLOTS];
+        for (Timeout<T>[] level : this.slots) {
+            for (int index = 0; index < SLOTS; index++) {
+                // The head of an empty slot links to itself
+                Timeout<T> head = new Timeout<>(0, null);
+                head.prev = head;
+                head.next = head;
+                level[index] = head;
+            }
+        }
+        this.maxDelta = (1L << (SLOT_BITS * levels)) - 1;
+    }
+
+    /**
+     * Schedules a deadline. A deadline which has already passed expires on the next tick
+     *
+     * @param deadlineMillis time the deadline expires, in milliseconds
+     * @param payload        returned when the deadline expires
+     * @return Timeout which can be cancelled
+     */
+    public Timeout<T> schedule(long deadlineMillis, T payload) {
+        // Rounded up, so a deadline never expires before its time
+        Timeout<T> timeout = new Timeout<>(Math.floorDiv(deadlineMillis - this.originMillis + this.tickMillis - 1, this.tickMillis), payload);
+        link(timeout, this.currentTick + 1);
+        this.size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a deadline, so it never expires
+     *
+     * @param timeout returned when the deadline was scheduled
+     * @return true if the deadline was scheduled, false if it had already expired or been cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.next == null) {
+            return false;
+        }
+        unlink(timeout);
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to a time, passing the payload of every deadline up to it to the consumer, in tick order
+     *
+     * @param nowMillis time to advance to, in milliseconds. Earlier times are ignored
+     * @param expired   consumer of the expired payloads
+     */
+    public void advanceTo(long nowMillis, Consumer<T> expired) {
+        long target = Math.floorDiv(nowMillis - this.originMillis, this.tickMillis);
+        while (this.currentTick < target) {
+            this.currentTick++;
+            cascade();
+            Timeout<T> head = this.slots[0][(int) (this.currentTick & SLOT_MASK)];
+            for (Timeout<T> timeout = detach(head); timeout != null; ) {
+                Timeout<T> next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                if (timeout.deadlineTick <= this.currentTick) {
+                    this.size--;
+                    expired.accept(timeout.payload);
+                } else {
+                    // Linked at the top of the wheel's range, and still out of range
+                    link(timeout, this.currentTick + 1);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * Get the number of scheduled deadlines
+     *
+     * @return number of deadlines
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Cancels every deadline
+     */
+    public void clear() {
+        for (Timeout<T>[] level : this.slots) {
+            for (Timeout<T> head : level) {
+                for (Timeout<T> timeout = detach(head); timeout != null; ) {
+                    Timeout<T> next = timeout.next;
+                    timeout.prev = null;
+                    timeout.next = null;
+                    timeout = next;
+                }
+            }
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Relinks the deadlines of every level whose run starts at the current tick into the levels below
+     */
+    private void cascade() {
+        for (int level = 1; level < this.slots.length; level++) {
+            if (((this.currentTick >>> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) {
+                return;
+            }
+            int index = (int) ((this.currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            for (Timeout<T> timeout = detach(this.slots[level][index]); timeout != null; ) {
+                Timeout<T> next = timeout.next;
+                // The current tick's slot has not been expired yet, so deadlines due now can still be linked into it
+                link(timeout, this.currentTick);
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * Links a deadline into the slot of the lowest level covering it
+     *
+     * @param timeout  to link
+     * @param earliest tick the deadline can be linked at
+     */
+    private void link(Timeout<T> timeout, long earliest) {
+        long tick = Math.max(timeout.deadlineTick, earliest);
+        long delta = Math.min(tick - this.currentTick, this.maxDelta);
+        tick = this.currentTick + delta;
+        int level = 0;
+        while (level < this.slots.length - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Timeout<T> head = this.slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    /**
+     * Unlinks a deadline from its slot
+     *
+     * @param timeout to unlink
+     */
+    private void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    /**
+     * Empties a slot, returning its deadlines as a list linked by next, ending in null
+     *
+     * @param head of the slot
+     * @return first deadline of the slot, or null if it is empty
+     */
+    private Timeout<T> detach(Timeout<T> head) {
+        if (head.next == head) {
+            return null;
+        }
+        Timeout<T> first = head.next;
+        head.prev.next = null;
+        head.next = head;
+        head.prev = head;
+        return first;
+    }
+
+    /**
+     * A scheduled deadline, and its place in the wheel
+     *
+     * @param <T> type of payload
+     */
+    public static class Timeout<T> {
+
+        // Tick the deadline expires on
+        private final long deadlineTick;
+
+        // Returned when the deadline expires
+        private final T payload;
+
+        // Previous deadline in the slot, or null if not scheduled
+        private Timeout<T> prev;
+
+        // Next deadline in the slot, or null if not scheduled
+        private Timeout<T> next;
+
+        /**
+         * Constructor for the Timeout
+         *
+         * @param deadlineTick tick the deadline expires on
+         * @param payload      returned when the deadline expires
+         */
+        private Timeout(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        /**
+         * Get the payload returned when the deadline expires
+         *
+         * @return payload
+         */
+        public T getPayload() {
+            return this.payload;
+        }
+
+        /**
+         * Returns whether the deadline is still scheduled
+         *
+         * @return true if it has not expired or been cancelled
+         */
+        public boolean isScheduled() {
+            return this.next != null;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package search;
+
+import model.ListItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class InvertedIndex {
+
+    /*
+     *  The purpose of the InvertedIndex class is to find ListItem titles by the terms in their title and description.
+     *  Each term has a posting list of the titles containing it, with how often it appears. Terms in the title count
+     *  more than terms in the description. Terms are kept sorted, so a prefix matches a contiguous range of terms.
+     *
+     *  A query matches the items containing every one of its terms (AND). A term ending in '*' matches any term
+     *  starting with it. Matches are ranked by TF-IDF: terms that appear often in an item, and rarely in others,
+     *  score highest.
+     */
+
+    // Weight of a term appearing in the title, compared to once in the description
+    private static final int TITLE_WEIGHT = 3;
+
+    // Marks a query term as a prefix
+    private static final String PREFIX_MARKER = "*";
+
+    // Posting list of each term: the titles containing the term, and the weighted number of times it appears
+    private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+
+    // Terms of each indexed title, so an item can be removed without reading it again
+    private final Map<String, Set<String>> documentTerms = new HashMap<>();
+
+    // Searches hold the read lock, changes hold the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexes the title and description of the ListItem, replacing any item indexed with the same title
+     *
+     * @param item to index
+     */
+    public void add(ListItem item) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        Tokenizer.tokenize(item.getTitle()).forEach(term -> frequencies.merge(term, TITLE_WEIGHT, Integer::sum));
+        Tokenizer.tokenize(item.getDescription()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(item.getTitle());
+            frequencies.forEach((term, frequency) -> this.postings.computeIfAbsent(term, key -> new HashMap<>()).put(item.getTitle(), frequency));
+            this.documentTerms.put(item.getTitle(), frequencies.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes a ListItem which may have been renamed
+     *
+     * @param previousTitle title the item was indexed under
+     * @param item          with its new title and description
+     */
+    public void update(String previousTitle, ListItem item) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(previousTitle);
+            add(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the ListItem with the title from the index
+     *
+     * @param title of the item to remove
+     */
+    public void remove(String title) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every ListItem from the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            this.postings.clear();
+            this.documentTerms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of indexed items
+     *
+     * @return number of items
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return this.documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the titles of the items containing every term of the query, most relevant first
+     *
+     * @param query terms to search for, separated by spaces. A term ending in '*' is a prefix
+     * @param limit maximum number of titles returned
+     * @return titles of the matching items, most relevant first
+     */
+    public List<String> search(String query, int limit) {
+        List<QueryTerm> terms = parse(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Score the items matching each term, then keep the items matching every term
+            List<Map<String, Double>> matches = new ArrayList<>();
+            for (QueryTerm term : terms) {
+                Map<String, Double> scores = score(term);
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                matches.add(scores);
+            }
+            // Intersect starting from the fewest matches, so the work is bounded by the rarest term
+            matches.sort(Comparator.comparingInt(Map::size));
+
+            Comparator<Map.Entry<String, Double>> ranking = Map.Entry.<String, Double>comparingByValue()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+            PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(ranking);
+            for (Map.Entry<String, Double> candidate : matches.get(0).entrySet()) {
+                double score = candidate.getValue();
+                boolean matchesAll = true;
+                for (int i = 1; i < matches.size() && matchesAll; i++) {
+                    Double termScore = matches.get(i).get(candidate.getKey());
+                    matchesAll = termScore != null;
+                    score += matchesAll ? termScore : 0;
+                }
+                if (matchesAll) {
+                    best.add(Map.entry(candidate.getKey(), score));
+                    if (best.size() > limit) {
+                        best.poll(); // Drop the lowest ranked match
+                    }
+                }
+            }
+
+            List<String> titles = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                titles.add(best.poll().getKey());
+            }
+            Collections.reverse(titles);
+            return titles;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores every item containing the term, or a term starting with it if it is a prefix
+     * The read lock should be held
+     *
+     * @param term to score
+     * @return TF-IDF score of each matching title
+     */
+    private Map<String, Double> score(QueryTerm term) {
+        Map<String, Double> scores = new HashMap<>();
+        Map<String, Map<String, Integer>> matched = term.prefix()
+                ? this.postings.subMap(term.text(), true, term.text() + Character.MAX_VALUE, false)
+                : this.postings.containsKey(term.text()) ? Map.of(term.text(), this.postings.get(term.text())) : Map.of();
+        int documents = this.documentTerms.size();
+        for (Map<String, Integer> posting : matched.values()) {
+            double idf = Math.log(1 + (double) documents / posting.size());
+            posting.forEach((title, frequency) -> scores.merge(title, frequency * idf, Double::sum));
+        }
+        return scores;
+    }
+
+    /**
+     * Removes the title from the posting list of each of its terms. The write lock should be held
+     *
+     * @param title of the item to remove
+     */
+    private void removeLocked(String title) {
+        Set<String> terms = this.documentTerms.remove(title);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<String, Integer> posting = this.postings.get(term);
+            posting.remove(title);
+            if (posting.isEmpty()) {
+                this.postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Splits a query into its terms. The last term split from a word ending in '*' is a prefix
+     *
+     * @param query to split
+     * @return terms of the query, without duplicates
+     */
+    private static List<QueryTerm> parse(String query) {
+        Set<QueryTerm> terms = new HashSet<>();
+        List<QueryTerm> ordered = new ArrayList<>();
+        if (query == null) {
+            return ordered;
+        }
+        for (String word : query.trim().split("\\s+")) {
+            List<String> tokens = Tokenizer.tokenize(word);
+            for (int i = 0; i < tokens.size(); i++) {
+                QueryTerm term = new QueryTerm(tokens.get(i), i == tokens.size() - 1 && word.endsWith(PREFIX_MARKER));
+                if (terms.add(term)) {
+                    ordered.add(term);
+                }
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * A term of a query
+     *
+     * @param text   of the term
+     * @param prefix whether the term matches any term starting with it
+     */
+    private record QueryTerm(String text, boolean prefix) {
+    }
+}
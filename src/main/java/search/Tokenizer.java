@@ -0,0 +1,43 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class Tokenizer {
+
+    /*
+     *  The purpose of the Tokenizer class is to split text into the terms stored in, and searched for in, the InvertedIndex.
+     *  Terms are runs of letters and digits, in lower case. e.g. "Buy 2 to-do lists!" -> [buy, 2, to, do, lists]
+     */
+
+    /**
+     * Private constructor, the Tokenizer is only used statically
+     */
+    private Tokenizer() {
+    }
+
+    /**
+     * Splits the text into terms, in the order they appear. Repeated terms are kept
+     *
+     * @param text to split, may be null
+     * @return terms in the text
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean termCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (termCharacter && start < 0) {
+                start = i;
+            } else if (!termCharacter && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
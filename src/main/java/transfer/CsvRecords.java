@@ -0,0 +1,165 @@
+package transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+class CsvRecords {
+
+    /*
+     *  The purpose of the CsvRecords class is to read and write RFC 4180 CSV records one at a time.
+     *  Fields containing a comma, quote or line break are quoted, and quotes inside them are doubled.
+     *  An empty unquoted field is read as null, and an empty quoted field ("") as an empty String.
+     */
+
+    // Reader the records are read from
+    private final Reader in;
+
+    // Character read ahead of the current record, or -2 if none
+    private int peeked = -2;
+
+    // Line the next record starts on, from 1
+    private long line = 1;
+
+    /**
+     * Constructor for the CsvRecords reader
+     *
+     * @param in to read records from, should be buffered
+     */
+    protected CsvRecords(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Writes a record, followed by a line break
+     *
+     * @param out    to write to
+     * @param fields of the record, null fields are written empty
+     * @throws IOException if the record cannot be written
+     */
+    protected static void write(Writer out, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String field = fields[i];
+            if (field == null) {
+                continue;
+            }
+            if (field.isEmpty() || field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(field.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(field);
+            }
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Reads the next record. A record may span several lines if a quoted field contains line breaks
+     *
+     * @return fields of the record, or null at the end of the input
+     * @throws IOException              if the input cannot be read
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    protected String[] next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        long startLine = this.line;
+        while (true) {
+            if (c == -1 || c == '\n' || c == '\r') {
+                fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (c != -1) {
+                    this.line++;
+                }
+                return fields.toArray(new String[0]);
+            }
+            if (c == ',') {
+                fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '"' && field.length() == 0 && !quoted) {
+                quoted = true;
+                readQuoted(field, startLine);
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Get the line the next record starts on
+     *
+     * @return line number, from 1
+     */
+    protected long getLine() {
+        return this.line;
+    }
+
+    /**
+     * Reads a quoted field up to its closing quote
+     *
+     * @param field     to append the characters of the field to
+     * @param startLine the record started on, for the error message
+     * @throws IOException              if the input cannot be read
+     * @throws IllegalArgumentException if the input ends before the closing quote
+     */
+    private void readQuoted(StringBuilder field, long startLine) throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new IllegalArgumentException("Quoted field starting on line " + startLine + " is not closed");
+            }
+            if (c == '"') {
+                if (peek() != '"') {
+                    return;
+                }
+                read(); // A doubled quote is a quote inside the field
+            } else if (c == '\n') {
+                this.line++;
+            }
+            field.append((char) c);
+        }
+    }
+
+    /**
+     * Reads the next character
+     *
+     * @return character, or -1 at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    private int read() throws IOException {
+        if (this.peeked != -2) {
+            int c = this.peeked;
+            this.peeked = -2;
+            return c;
+        }
+        return this.in.read();
+    }
+
+    /**
+     * Looks at the next character without reading it
+     *
+     * @return character, or -1 at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    private int peek() throws IOException {
+        if (this.peeked == -2) {
+            this.peeked = this.in.read();
+        }
+        return this.peeked;
+    }
+}
@@ -0,0 +1,44 @@
+package transfer;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+public class ImportResult {
+
+    // Maximum number of rejected records described, so a file of bad records does not fill memory
+    private static final int MAX_DESCRIBED = 1000;
+
+    // Number of ListItem objects stored
+    private long imported;
+
+    // Number of records which were not stored
+    private long rejected;
+
+    // Location of each described rejected record (line number, or title), and the reason it was rejected
+    private final Map<String, String> rejections = new LinkedHashMap<>();
+
+    /**
+     * Records that a number of ListItem objects were stored
+     *
+     * @param count of ListItem objects stored
+     */
+    protected void addImported(long count) {
+        this.imported += count;
+    }
+
+    /**
+     * Records that a record was rejected. Only the first rejections are described
+     *
+     * @param location of the record. e.g. 'line 12'
+     * @param reason   it was rejected
+     */
+    protected void addRejection(String location, String reason) {
+        this.rejected++;
+        if (this.rejections.size() < MAX_DESCRIBED) {
+            this.rejections.put(location, reason);
+        }
+    }
+}
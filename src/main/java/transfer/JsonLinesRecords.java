@@ -0,0 +1,289 @@
+package transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class JsonLinesRecords {
+
+    /*
+     *  The purpose of the JsonLinesRecords class is to read and write JSON Lines records one at a time.
+     *  Each line is a flat JSON object. Values are written as strings or null. Numbers and booleans are read as their text,
+     *  nested objects and arrays are not supported.
+     */
+
+    // Reader the lines are read from
+    private final BufferedReader in;
+
+    // Line of the record last read, from 1
+    private long line;
+
+    /**
+     * Constructor for the JsonLinesRecords reader
+     *
+     * @param in to read records from
+     */
+    protected JsonLinesRecords(BufferedReader in) {
+        this.in = in;
+    }
+
+    /**
+     * Writes a record as a JSON object on one line
+     *
+     * @param out    to write to
+     * @param names  of the fields
+     * @param values of the fields, may be null
+     * @throws IOException if the record cannot be written
+     */
+    protected static void write(Writer out, String[] names, String... values) throws IOException {
+        out.write('{');
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeString(out, names[i]);
+            out.write(':');
+            if (values[i] == null) {
+                out.write("null");
+            } else {
+                writeString(out, values[i]);
+            }
+        }
+        out.write("}\n");
+    }
+
+    /**
+     * Reads the next record. Blank lines are skipped
+     *
+     * @return fields of the record by name, or null at the end of the input
+     * @throws IOException              if the input cannot be read
+     * @throws IllegalArgumentException if the line is not a flat JSON object
+     */
+    protected Map<String, String> next() throws IOException {
+        String text;
+        do {
+            text = this.in.readLine();
+            if (text == null) {
+                return null;
+            }
+            this.line++;
+        } while (text.isBlank());
+        return new Parser(text, this.line).parseObject();
+    }
+
+    /**
+     * Get the line of the record last read
+     *
+     * @return line number, from 1
+     */
+    protected long getLine() {
+        return this.line;
+    }
+
+    /**
+     * Writes a JSON string, escaping quotes, backslashes and control characters
+     *
+     * @param out   to write to
+     * @param value to write
+     * @throws IOException if the string cannot be written
+     */
+    private static void writeString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Parses one line holding a flat JSON object
+     */
+    private static class Parser {
+
+        private final String text;
+        private final long line;
+        private int position;
+
+        /**
+         * Constructor for the Parser
+         *
+         * @param text of the line
+         * @param line number, for error messages
+         */
+        private Parser(String text, long line) {
+            this.text = text;
+            this.line = line;
+        }
+
+        /**
+         * Parses the object
+         *
+         * @return fields by name
+         * @throws IllegalArgumentException if the line is not a flat JSON object
+         */
+        private Map<String, String> parseObject() {
+            Map<String, String> fields = new LinkedHashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                this.position++;
+            } else {
+                do {
+                    String name = parseString();
+                    expect(':');
+                    fields.put(name, parseValue());
+                } while (accept(','));
+                expect('}');
+            }
+            if (skipWhitespace() < this.text.length()) {
+                throw error("unexpected text after the object");
+            }
+            return fields;
+        }
+
+        /**
+         * Parses a string, null, number or boolean value
+         *
+         * @return value as text, or null
+         * @throws IllegalArgumentException if the value is not supported
+         */
+        private String parseValue() {
+            char c = peek();
+            if (c == '"') {
+                return parseString();
+            }
+            if (c == '{' || c == '[') {
+                throw error("nested objects and arrays are not supported");
+            }
+            int start = this.position;
+            while (this.position < this.text.length() && ",} \t".indexOf(this.text.charAt(this.position)) < 0) {
+                this.position++;
+            }
+            String literal = this.text.substring(start, this.position);
+            if (literal.isEmpty()) {
+                throw error("missing value");
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        /**
+         * Parses a quoted string, decoding escapes
+         *
+         * @return string
+         * @throws IllegalArgumentException if the string is not closed, or has an invalid escape
+         */
+        private String parseString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (this.position < this.text.length()) {
+                char c = this.text.charAt(this.position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (this.position >= this.text.length()) {
+                    break;
+                }
+                char escaped = this.text.charAt(this.position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (this.position + 4 > this.text.length()) {
+                            throw error("invalid unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(this.text.substring(this.position, this.position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("invalid unicode escape");
+                        }
+                        this.position += 4;
+                    }
+                    default -> throw error("invalid escape '\\" + escaped + "'");
+                }
+            }
+            throw error("string is not closed");
+        }
+
+        /**
+         * Skips whitespace, then reads the expected character
+         *
+         * @param expected character
+         * @throws IllegalArgumentException if the next character is different
+         */
+        private void expect(char expected) {
+            if (peek() != expected) {
+                throw error("expected '" + expected + "'");
+            }
+            this.position++;
+        }
+
+        /**
+         * Skips whitespace, then reads the character if it is next
+         *
+         * @param character to read
+         * @return true if the character was read
+         */
+        private boolean accept(char character) {
+            if (peek() == character) {
+                this.position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Skips whitespace, then returns the next character without reading it
+         *
+         * @return next character, or 0 at the end of the line
+         */
+        private char peek() {
+            skipWhitespace();
+            return this.position < this.text.length() ? this.text.charAt(this.position) : 0;
+        }
+
+        /**
+         * Skips whitespace
+         *
+         * @return position of the next character
+         */
+        private int skipWhitespace() {
+            while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position))) {
+                this.position++;
+            }
+            return this.position;
+        }
+
+        /**
+         * Creates an error for the line
+         *
+         * @param reason the line is invalid
+         * @return IllegalArgumentException
+         */
+        private IllegalArgumentException error(String reason) {
+            return new IllegalArgumentException("Line " + this.line + " is not a valid record: " + reason);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package transfer;
+
+import model.ListItem;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+public class ListItemExporter {
+
+    /*
+     *  The purpose of the ListItemExporter class is to write ListItem objects to CSV or JSON Lines as they are read,
+     *  so an export never holds the whole list in memory.
+     */
+
+    // Names of the exported fields, in the order they are written
+    protected static final String[] FIELDS = {"title", "description", "timestamp", "dueDate", "status"};
+
+    // Format dates are written in
+    protected static final String DATE_FORMAT = "yyyy-MM-dd HH:mm";
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT);
+
+    /**
+     * Private constructor, the ListItemExporter is only used statically
+     */
+    private ListItemExporter() {
+    }
+
+    /**
+     * Writes every item in the Stream. CSV starts with a header row of the field names
+     *
+     * @param items  to write, e.g. ToDoListStore.streamAllListItems()
+     * @param out    to write to, should be buffered
+     * @param format to write
+     * @return number of items written
+     * @throws IOException if an item cannot be written
+     */
+    public static long export(Stream<ListItem> items, Writer out, ListItemFormat format) throws IOException {
+        if (format == ListItemFormat.CSV) {
+            CsvRecords.write(out, FIELDS);
+        }
+        long count = 0;
+        Iterator<ListItem> iterator = items.iterator();
+        while (iterator.hasNext()) {
+            String[] values = toValues(iterator.next());
+            if (format == ListItemFormat.CSV) {
+                CsvRecords.write(out, values);
+            } else {
+                JsonLinesRecords.write(out, FIELDS, values);
+            }
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Get the values of the exported fields of a ListItem
+     *
+     * @param item to get the values of
+     * @return values, in the order of FIELDS
+     */
+    private static String[] toValues(ListItem item) {
+        return new String[]{item.getTitle(), item.getDescription(), format(item.getTimestamp()), format(item.getDueDate()), item.getStatus().toString()};
+    }
+
+    /**
+     * Formats a date for export
+     *
+     * @param date to format, may be null
+     * @return formatted date, or null
+     */
+    private static String format(LocalDateTime date) {
+        return date == null ? null : date.format(DATE_FORMATTER);
+    }
+}
@@ -0,0 +1,27 @@
+package transfer;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum ListItemFormat {
+    CSV,
+    JSON_LINES;
+
+    /**
+     * Get the format of a file from its extension. '.csv' is CSV, '.jsonl' and '.ndjson' are JSON Lines
+     *
+     * @param path of the file
+     * @return ListItemFormat of the file
+     * @throws IllegalArgumentException if the extension is not a supported format
+     */
+    public static ListItemFormat fromPath(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSON_LINES;
+        }
+        throw new IllegalArgumentException("'" + path.getFileName() + "' is not a .csv, .jsonl or .ndjson file");
+    }
+}
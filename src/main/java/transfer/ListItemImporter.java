@@ -0,0 +1,221 @@
+package transfer;
+
+import dao.BatchInsertResult;
+import dao.ToDoListStore;
+import exceptions.InvalidDateTimeFormatException;
+import model.ListItem;
+import types.ItemStatus;
+import util.DateParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+public class ListItemImporter {
+
+    /*
+     *  The purpose of the ListItemImporter class is to read ListItem objects from CSV or JSON Lines, and store them in batches.
+     *  Records are parsed one at a time and only one batch is held in memory, so files of any size can be imported.
+     *  Records which cannot be parsed, or stored, are reported in the ImportResult and the rest are still imported.
+     *  - CSV files start with a header row naming the columns: title, description, timestamp, dueDate, status
+     *  - Only the title is required. Dates use the format yyyy-MM-dd HH:mm
+     */
+
+    // Store the items are imported into
+    private final ToDoListStore store;
+
+    // Number of items stored at a time
+    private final int batchSize;
+
+    /**
+     * Constructor for the ListItemImporter
+     *
+     * @param store     to import the items into
+     * @param batchSize number of items stored at a time
+     */
+    public ListItemImporter(ToDoListStore store, int batchSize) {
+        this.store = store;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Imports every record from the input
+     *
+     * @param in     to read records from
+     * @param format of the records
+     * @return ImportResult with the number of items imported, and the records rejected
+     * @throws IOException if the input cannot be read
+     */
+    public ImportResult importFrom(Reader in, ListItemFormat format) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in, 64 * 1024);
+        ImportResult result = new ImportResult();
+        List<ListItem> batch = new ArrayList<>(this.batchSize);
+        if (format == ListItemFormat.CSV) {
+            importCsv(reader, batch, result);
+        } else {
+            importJsonLines(reader, batch, result);
+        }
+        store(batch, result);
+        return result;
+    }
+
+    /**
+     * Imports every CSV record after the header row
+     *
+     * @param reader to read records from
+     * @param batch  to collect items in
+     * @param result to record the outcome in
+     * @throws IOException if the input cannot be read
+     */
+    private void importCsv(BufferedReader reader, List<ListItem> batch, ImportResult result) throws IOException {
+        CsvRecords records = new CsvRecords(reader);
+        String[] header = records.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            if (header[i] != null) {
+                columns.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+        if (!columns.containsKey("title")) {
+            result.addRejection("line 1", "The header row has no title column");
+            return;
+        }
+
+        while (true) {
+            String location = "line " + records.getLine();
+            String[] fields;
+            try {
+                fields = records.next();
+            } catch (IllegalArgumentException e) {
+                // The rest of the file is inside the unclosed field
+                result.addRejection(location, e.getMessage());
+                return;
+            }
+            if (fields == null) {
+                return;
+            }
+            if (fields.length == 1 && fields[0] == null) {
+                continue; // Blank line
+            }
+            add(location, name -> {
+                Integer column = columns.get(name.toLowerCase(Locale.ROOT));
+                return column == null || column >= fields.length ? null : fields[column];
+            }, batch, result);
+        }
+    }
+
+    /**
+     * Imports every JSON Lines record
+     *
+     * @param reader to read records from
+     * @param batch  to collect items in
+     * @param result to record the outcome in
+     * @throws IOException if the input cannot be read
+     */
+    private void importJsonLines(BufferedReader reader, List<ListItem> batch, ImportResult result) throws IOException {
+        JsonLinesRecords records = new JsonLinesRecords(reader);
+        while (true) {
+            Map<String, String> fields;
+            try {
+                fields = records.next();
+            } catch (IllegalArgumentException e) {
+                result.addRejection("line " + records.getLine(), e.getMessage());
+                continue;
+            }
+            if (fields == null) {
+                return;
+            }
+            add("line " + records.getLine(), fields::get, batch, result);
+        }
+    }
+
+    /**
+     * Creates a ListItem from the fields of a record and adds it to the batch, storing the batch once it is full
+     *
+     * @param location of the record, for rejections
+     * @param fields   of the record by name
+     * @param batch    to add the item to
+     * @param result   to record the outcome in
+     */
+    private void add(String location, Function<String, String> fields, List<ListItem> batch, ImportResult result) {
+        try {
+            batch.add(toItem(fields));
+        } catch (IllegalArgumentException | InvalidDateTimeFormatException e) {
+            result.addRejection(location, e.getMessage());
+            return;
+        }
+        if (batch.size() >= this.batchSize) {
+            store(batch, result);
+        }
+    }
+
+    /**
+     * Stores the batch, records which items were stored and rejected, then empties it
+     *
+     * @param batch  to store
+     * @param result to record the outcome in
+     */
+    private void store(List<ListItem> batch, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        BatchInsertResult stored = this.store.addListItems(batch);
+        if (stored.isCommitted()) {
+            result.addImported(stored.getInserted());
+            stored.getFailures().forEach(failure -> result.addRejection("title '" + failure.title() + "'", failure.reason()));
+        } else {
+            batch.forEach(item -> result.addRejection("title '" + item.getTitle() + "'", stored.getError()));
+        }
+        batch.clear();
+    }
+
+    /**
+     * Creates a ListItem from the fields of a record
+     *
+     * @param fields of the record by name
+     * @return ListItem
+     * @throws IllegalArgumentException       if the title is missing, or the status is unknown
+     * @throws InvalidDateTimeFormatException if a date is invalid
+     */
+    private static ListItem toItem(Function<String, String> fields) throws InvalidDateTimeFormatException {
+        String title = fields.apply("title");
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("The record has no title");
+        }
+        String status = fields.apply("status");
+        ItemStatus itemStatus;
+        try {
+            itemStatus = status == null || status.isBlank() ? ItemStatus.PENDING : ItemStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("'" + status + "' is not a status");
+        }
+        LocalDateTime timestamp = parseDate(fields.apply("timestamp"));
+        return new ListItem(title,
+                fields.apply("description"),
+                timestamp == null ? LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES) : timestamp,
+                parseDate(fields.apply("dueDate")),
+                itemStatus);
+    }
+
+    /**
+     * Parses an imported date
+     *
+     * @param date to parse, may be null or blank
+     * @return date, or null if not set
+     * @throws InvalidDateTimeFormatException if the date is invalid
+     */
+    private static LocalDateTime parseDate(String date) throws InvalidDateTimeFormatException {
+        return date == null || date.isBlank() ? null : DateParser.parseStringToLocalDateTime(date.trim(), ListItemExporter.DATE_FORMAT);
+    }
+}
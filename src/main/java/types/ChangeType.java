@@ -0,0 +1,8 @@
+package types;
+
+public enum ChangeType {
+    ADD,
+    UPDATE,
+    REMOVE,
+    CLEAR
+}
@@ -0,0 +1,8 @@
+package types;
+
+public enum ItemField {
+    TITLE,
+    DESCRIPTION,
+    DUE_DATE,
+    STATUS
+}
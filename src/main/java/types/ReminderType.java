@@ -0,0 +1,6 @@
+package types;
+
+public enum ReminderType {
+    DUE,
+    OVERDUE
+}
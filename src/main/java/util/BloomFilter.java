@@ -0,0 +1,98 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+
+public class BloomFilter {
+
+    /*
+     *  The purpose of the BloomFilter class is to answer "has this String been added?" from a compact bit array.
+     *  A negative answer is always correct, a positive answer may be wrong at roughly the configured rate.
+     */
+
+    // Bits set by the added Strings
+    private final long[] bits;
+
+    // Number of bits in the filter
+    private final long bitCount;
+
+    // Number of bits set for each String
+    private final int hashCount;
+
+    /**
+     * Constructor for the BloomFilter
+     * Sizes the filter to hold the expected number of Strings at the false positive rate
+     *
+     * @param expectedInsertions number of Strings expected to be added
+     * @param falsePositiveRate  chance of a positive answer for a String that was never added. e.g. 0.01
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int expected = Math.max(1, expectedInsertions);
+        double rate = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long optimalBits = (long) Math.ceil(-expected * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.max(1, (optimalBits + 63) / 64)];
+        this.bitCount = this.bits.length * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / expected * Math.log(2)));
+    }
+
+    /**
+     * Adds the String to the filter
+     *
+     * @param value to add
+     */
+    public synchronized void add(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < this.hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, this.bitCount);
+            this.bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    /**
+     * Returns whether the String might have been added
+     *
+     * @param value to check
+     * @return false if the String was definitely never added, true if it might have been
+     */
+    public synchronized boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < this.hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, this.bitCount);
+            if ((this.bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the UTF-8 bytes of the String with 64-bit FNV-1a
+     *
+     * @param value to hash
+     * @return hash
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Derives a second hash by scrambling the first, so each String sets several independent bits
+     *
+     * @param hash to scramble
+     * @return scrambled hash, always odd
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash | 1;
+    }
+}
@@ -6,9 +6,14 @@ import exceptions.InvalidDateTimeFormatException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DateParser {
 
+    // Formatters that have already been built, keyed by their format. DateTimeFormatter is immutable and thread-safe
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
     /**
      * Parses the String parameter into a LocalDateTime variable using the format parameter
      *
@@ -18,7 +23,7 @@ public class DateParser {
      * @throws InvalidDateTimeFormatException if the String date parameter cannot be parsed
      */
     public static LocalDateTime parseStringToLocalDateTime(String date, String format) throws InvalidDateTimeFormatException {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+        DateTimeFormatter formatter = FORMATTERS.computeIfAbsent(format, DateTimeFormatter::ofPattern);
         try {
             return LocalDateTime.parse(date.replace("T", " "), formatter);
         } catch (DateTimeParseException e) {
@@ -0,0 +1,153 @@
+package util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class LruCache<K, V> {
+
+    /*
+     *  The purpose of the LruCache class is to hold a bounded number of values in memory.
+     *  When full, the least recently used value is evicted. Values can optionally expire after a time to live.
+     */
+
+    // Maximum number of values held, values are not cached if this is 0
+    private final int maxSize;
+
+    // Milliseconds a value is held for before it expires, values never expire if this is 0
+    private final long ttlMillis;
+
+    // Values in access order, the least recently used value is first
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // Number of lookups that found a value
+    private long hits;
+
+    // Number of lookups that did not find a value
+    private long misses;
+
+    // Number of values removed because the cache was full, or the value expired
+    private long evictions;
+
+    /**
+     * Constructor for the LruCache
+     *
+     * @param maxSize   maximum number of values held
+     * @param ttlMillis milliseconds a value is held for, 0 to never expire
+     */
+    public LruCache(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlMillis = Math.max(0, ttlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the value held for the key
+     *
+     * @param key of the value
+     * @return value, or null if it is not held or has expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = this.entries.get(key);
+        if (entry != null && entry.isExpired()) {
+            this.entries.remove(key);
+            this.evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            this.misses++;
+            return null;
+        }
+        this.hits++;
+        return entry.value;
+    }
+
+    /**
+     * Holds the value for the key, replacing any value already held
+     *
+     * @param key   of the value
+     * @param value to hold
+     */
+    public synchronized void put(K key, V value) {
+        if (this.maxSize == 0) {
+            return;
+        }
+        long expiresAt = this.ttlMillis == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + this.ttlMillis;
+        this.entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * Removes the value held for the key
+     *
+     * @param key of the value
+     */
+    public synchronized void remove(K key) {
+        this.entries.remove(key);
+    }
+
+    /**
+     * Removes every value
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Get the number of values held
+     *
+     * @return size
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Get the number of lookups that found a value
+     *
+     * @return hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Get the number of lookups that did not find a value
+     *
+     * @return misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Get the number of values removed because the cache was full, or the value expired
+     *
+     * @return evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * A value held in the cache, and the time it expires
+     */
+    private record Entry<V>(V value, long expiresAt) {
+
+        /**
+         * Returns whether the value has expired
+         *
+         * @return true if the value has expired
+         */
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= this.expiresAt;
+        }
+    }
+}
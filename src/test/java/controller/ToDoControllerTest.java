@@ -30,7 +30,7 @@ class ToDoControllerTest {
         String[] inputLines = {"2", "New Title", // Add to your to-do list | Title
                 "New Description", // Description
                 "2021-04-01 14:25", // Due date
-                "6"}; // Exit value
+                "12"}; // Exit value
         TestUtil.simulateUserInput(inputLines);
         new ToDoController();
 
@@ -47,7 +47,7 @@ class ToDoControllerTest {
         TestUtil.createExampleItem();
 
         // Remove from your to-do list | Title | Exit value
-        String[] inputLines = {"3", "Example list item", "6"};
+        String[] inputLines = {"3", "Example list item", "12"};
         TestUtil.simulateUserInput(inputLines);
         new ToDoController();
 
@@ -66,7 +66,7 @@ class ToDoControllerTest {
         // Assert it was added correctly
         assertTrue(list.listItemExists("Example list item"));
 
-        String[] inputLines = {"4", "6"}; // Clear to-do list | Exit value
+        String[] inputLines = {"4", "12"}; // Clear to-do list | Exit value
         TestUtil.simulateUserInput(inputLines);
         new ToDoController();
 
@@ -92,7 +92,7 @@ class ToDoControllerTest {
                 "2", "New description", // Edit description | New description
                 "3", "2021-01-01 05:15", // Edit due date | New Due date
                 "4", "3", // Edit status | Status Option
-                "5", "6"}; // Return to main menu | Exit value
+                "5", "12"}; // Return to main menu | Exit value
         TestUtil.simulateUserInput(inputLines);
         new ToDoController();
 
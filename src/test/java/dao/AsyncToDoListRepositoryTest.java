@@ -0,0 +1,93 @@
+package dao;
+
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import org.junit.jupiter.api.Test;
+import types.ItemStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncToDoListRepositoryTest {
+
+    // Operations allowed to run at once, the size of the ConnectionPool
+    private static final int POOL_SIZE = Math.max(1, new DBConnector().getIntDetail("pool.maxSize", 10));
+
+    /**
+     * Test that the operations of every async repository together never run more at once than the pool has connections
+     */
+    @Test
+    void concurrencyBoundTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        InMemoryToDoListStore store = new InMemoryToDoListStore() {
+            @Override
+            public boolean doesListItemExist(String title) {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return super.doesListItemExist(title);
+            }
+        };
+        AsyncToDoListRepository first = new AsyncToDoListRepository(store);
+        AsyncToDoListRepository second = new AsyncToDoListRepository(store);
+
+        List<CompletableFuture<Boolean>> checks = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE * 2; i++) {
+            checks.add((i % 2 == 0 ? first : second).doesListItemExist("Item " + i));
+        }
+        // Wait for the pool to fill, then give the rest the chance to start if they wrongly could
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (running.get() < POOL_SIZE && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+        assertEquals(POOL_SIZE, running.get());
+
+        release.countDown();
+        for (CompletableFuture<Boolean> check : checks) {
+            assertFalse(check.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(POOL_SIZE, mostRunning.get());
+    }
+
+    /**
+     * Test that exceptions thrown by an operation complete its future exceptionally, and give back its permit
+     */
+    @Test
+    void exceptionCompletesFutureTest() throws Exception {
+        AsyncToDoListRepository repository = new AsyncToDoListRepository(new InMemoryToDoListStore());
+        repository.addListItem(new ListItem("One", "First", ItemStatus.PENDING)).get(10, TimeUnit.SECONDS);
+
+        ExecutionException missing = assertThrows(ExecutionException.class,
+                () -> repository.getItemByTitle("Missing").get(10, TimeUnit.SECONDS));
+        assertInstanceOf(ListItemNotFoundException.class, missing.getCause());
+        ExecutionException duplicate = assertThrows(ExecutionException.class,
+                () -> repository.addListItem(new ListItem("One", "Again", ItemStatus.PENDING)).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(ListItemAlreadyExistsException.class, duplicate.getCause());
+
+        // More failures than permits, so a permit kept by a failure would leave none for the read after them
+        for (int i = 0; i < POOL_SIZE + 1; i++) {
+            CompletableFuture<Void> removal = repository.removeListItem("Missing " + i);
+            assertThrows(ExecutionException.class, () -> removal.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals("First", repository.getItemByTitle("One").get(10, TimeUnit.SECONDS).getDescription());
+        assertEquals(Map.of("One", true, "Missing", false),
+                repository.doListItemsExist(List.of("One", "Missing")).get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,185 @@
+package dao;
+
+import exceptions.ChangesNotRecordedException;
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import org.junit.jupiter.api.Test;
+import types.ItemStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarToDoListStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final ColumnarToDoListStore store = new ColumnarToDoListStore(16);
+
+    /**
+     * Test that items are read back as they were stored, renamed, updated, and removed,
+     * that removed rows are reused, and that stale versions are refused
+     */
+    @Test
+    void addUpdateRemoveTest() throws ListItemAlreadyExistsException, ListItemNotFoundException, ListItemConflictException, InvalidItemStatusException {
+        store.addListItem(new ListItem("Caf\u00e9 \u2615", "Fl\u00e5t white", NOW, NOW.plusDays(1), ItemStatus.PENDING));
+        store.addListItem(new ListItem("No description", null, NOW, null, ItemStatus.PROGRESS));
+        assertThrows(ListItemAlreadyExistsException.class, () -> store.addListItem(new ListItem("Caf\u00e9 \u2615", "", ItemStatus.PENDING)));
+
+        ListItem item = store.getItemByTitle("Caf\u00e9 \u2615");
+        assertEquals("Fl\u00e5t white", item.getDescription());
+        assertEquals(NOW, item.getTimestamp());
+        assertEquals(NOW.plusDays(1), item.getDueDate());
+        assertNull(store.getItemByTitle("No description").getDescription());
+        assertNull(store.getItemByTitle("No description").getDueDate());
+
+        ListItem stale = store.getItemByTitle("No description");
+        ListItem first = store.getItemByTitle("No description");
+        first.setDescription("First");
+        assertTrue(store.updateListItem(first));
+        item.setTitle("Tea");
+        item.setDescription("Green");
+        item.setStatus(ItemStatus.COMPLETED);
+        item.setDueDate(null);
+        assertTrue(store.updateListItem(item));
+        assertFalse(store.doesListItemExist("Caf\u00e9 \u2615"));
+        ListItem updated = store.getItemByTitle("Tea");
+        assertEquals("Green", updated.getDescription());
+        assertEquals(ItemStatus.COMPLETED, updated.getStatus());
+        assertNull(updated.getDueDate());
+        assertEquals(1, updated.getVersion());
+
+        stale.setDescription("Lost update");
+        assertThrows(ListItemConflictException.class, () -> store.updateListItem(stale));
+
+        item.setTitle("No description");
+        assertFalse(store.updateListItem(item));
+
+        store.removeListItem("Tea");
+        assertThrows(ListItemNotFoundException.class, () -> store.removeListItem("Tea"));
+        store.addListItem(new ListItem("Reused", "", NOW, null, ItemStatus.PENDING));
+        assertEquals(2, store.size());
+        assertEquals(List.of("No description", "Reused"), titles(store.streamAllListItems().sorted((a, b) -> a.getTitle().compareTo(b.getTitle()))));
+    }
+
+    /**
+     * Test that the item whose add grows the title table is linked once, so it is gone once removed,
+     * and its row can be reused by another title
+     */
+    @Test
+    void removeItemThatGrewTableTest() throws ListItemAlreadyExistsException, ListItemNotFoundException {
+        for (int i = 0; i < 300; i++) {
+            store.addListItem(new ListItem("t" + i, "", NOW, null, ItemStatus.PENDING));
+        }
+        // Every item is removed, so whichever of them grew the table is covered
+        for (int i = 0; i < 300; i++) {
+            String title = "t" + i;
+            store.removeListItem(title);
+            assertFalse(store.doesListItemExist(title), title + " still found after it was removed");
+            assertThrows(ListItemNotFoundException.class, () -> store.getItemByTitle(title));
+        }
+        assertEquals(0, store.size());
+        store.addListItem(new ListItem("Reused", "", NOW, null, ItemStatus.PENDING));
+        assertEquals(List.of("Reused"), titles(store.streamAllListItems()));
+    }
+
+    /**
+     * Test that asking for the changes fails with the documented exception, as the store does not record them
+     */
+    @Test
+    void changesNotRecordedTest() {
+        assertThrows(ChangesNotRecordedException.class, () -> store.getChangesSince(0, 10));
+        assertThrows(ChangesNotRecordedException.class, store::getLatestSequence);
+    }
+
+    /**
+     * Test that filters scanned over the columns return the same items, in the same order, as the in-memory store,
+     * including dates between minutes, and that bulk status updates change the same items
+     */
+    @Test
+    void queryMatchesInMemoryStoreTest() throws InvalidItemStatusException {
+        InMemoryToDoListStore expected = new InMemoryToDoListStore();
+        Random random = new Random(11);
+        List<ListItem> items = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            LocalDateTime dueDate = random.nextInt(4) == 0 ? null : NOW.plusMinutes(random.nextInt(20000) - 10000);
+            items.add(new ListItem("Item " + i, "Description " + i, NOW.minusMinutes(random.nextInt(5000)), dueDate,
+                    ItemStatus.values()[random.nextInt(3)]));
+        }
+        store.addListItems(items.stream().map(ListItem::new).collect(Collectors.toList()));
+        expected.addListItems(items.stream().map(ListItem::new).collect(Collectors.toList()));
+
+        List<ListItemQuery> queries = List.of(
+                ListItemQuery.builder().build(),
+                ListItemQuery.builder().statuses(ItemStatus.PROGRESS).orderBy(ListItemQuery.Order.DUE_DATE).build(),
+                ListItemQuery.builder().dueFrom(NOW.plusSeconds(30)).dueBefore(NOW.plusDays(2).plusNanos(1)).build(),
+                ListItemQuery.builder().statuses(ItemStatus.PENDING, ItemStatus.COMPLETED).dueBefore(NOW).orderBy(ListItemQuery.Order.DUE_DATE).descending(true).limit(25).build(),
+                ListItemQuery.builder().withoutDueDate().createdSince(NOW.minusDays(1)).orderBy(ListItemQuery.Order.CREATED).build());
+        for (ListItemQuery query : queries) {
+            assertEquals(titles(expected.query(query)), titles(store.query(query)));
+            assertEquals(expected.query(query.filtersOnly()).count(), store.count(query));
+        }
+
+        int[] counts = store.countByStatus();
+        for (ItemStatus status : ItemStatus.values()) {
+            assertEquals(expected.getItemsByStatus(status).size(), counts[status.ordinal()]);
+        }
+
+        ListItemQuery overdue = ListItemQuery.builder().statuses(ItemStatus.PENDING).dueBefore(NOW).build();
+        assertEquals(expected.updateStatuses(overdue, ItemStatus.PROGRESS), store.updateStatuses(overdue, ItemStatus.PROGRESS));
+        ListItemQuery progress = ListItemQuery.builder().statuses(ItemStatus.PROGRESS).build();
+        assertEquals(titles(expected.query(progress)), titles(store.query(progress)));
+    }
+
+    /**
+     * Test that the view passed to forEachMatching reads each matching row,
+     * and that items survive the arena being compacted after many updates
+     */
+    @Test
+    void viewAndCompactionTest() throws ListItemAlreadyExistsException, ListItemNotFoundException, ListItemConflictException {
+        for (int i = 0; i < 200; i++) {
+            store.addListItem(new ListItem("Item " + i, "", NOW, NOW.plusMinutes(i), i % 2 == 0 ? ItemStatus.PENDING : ItemStatus.COMPLETED));
+        }
+        // Each round replaces every description, leaving the previous ones in the arena until it is compacted
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 200; i++) {
+                ListItem item = store.getItemByTitle("Item " + i);
+                item.setDescription(("Round " + round + " ").repeat(20));
+                assertTrue(store.updateListItem(item));
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            assertEquals(("Round 9 ").repeat(20), store.getItemByTitle("Item " + i).getDescription());
+        }
+
+        List<String> titles = new ArrayList<>();
+        long[] dueMinutes = {0};
+        store.forEachMatching(ListItemQuery.builder().statuses(ItemStatus.PENDING).dueBefore(NOW.plusMinutes(10)).build(), view -> {
+            titles.add(view.getTitle());
+            dueMinutes[0] += view.getDueDateMinutes() - NOW.toEpochSecond(ZoneOffset.UTC) / 60;
+        });
+        assertEquals(List.of("Item 0", "Item 2", "Item 4", "Item 6", "Item 8"), titles);
+        assertEquals(0 + 2 + 4 + 6 + 8, dueMinutes[0]);
+    }
+
+    /**
+     * Get the titles of the items
+     *
+     * @param items to get the titles of
+     * @return titles in order
+     */
+    private static List<String> titles(Stream<ListItem> items) {
+        try (items) {
+            return items.map(ListItem::getTitle).collect(Collectors.toList());
+        }
+    }
+}
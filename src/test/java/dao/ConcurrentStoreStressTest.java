@@ -0,0 +1,224 @@
+package dao;
+
+import exceptions.ListItemAlreadyExistsException;
+import model.ListItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import types.ItemStatus;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentStoreStressTest {
+
+    private static final int THREADS = 16;
+
+    private static final int ROUNDS = 300;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that the in-memory store stays consistent while many threads add, read, update and remove items
+     */
+    @Test
+    void inMemoryStressTest() throws Exception {
+        InMemoryToDoListStore store = new InMemoryToDoListStore();
+        hammer(store, "memory");
+        // Every thread adds, updates and removes its item each round, and the contended title is added once a round
+        assertEquals(THREADS * ROUNDS * 3L + ROUNDS, store.getLatestSequence());
+    }
+
+    /**
+     * Test that the caching repository never serves an item older than the last write, while many threads share it
+     */
+    @Test
+    void cachingStressTest() throws Exception {
+        hammer(new CachingToDoListRepository(new InMemoryToDoListStore()), "cached");
+    }
+
+    /**
+     * Test that the columnar store stays consistent while many threads share it
+     */
+    @Test
+    void columnarStressTest() throws Exception {
+        hammer(new ColumnarToDoListStore(16), "columnar");
+    }
+
+    /**
+     * Test that the log-structured store stays consistent while many threads share it
+     */
+    @Test
+    void logStructuredStressTest() throws Exception {
+        LogStructuredToDoListStore store = new LogStructuredToDoListStore(directory, 64 * 1024, false, 3600);
+        try {
+            hammer(store, "log");
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Test that the connection pool never hands one connection to two threads at once, never opens more than
+     * its maximum, and never hands out a connection part way through a transaction, while many threads lease
+     * and return connections
+     */
+    @Test
+    void connectionPoolStressTest() throws Exception {
+        int maxSize = 4;
+        Set<Connection> opened = ConcurrentHashMap.newKeySet();
+        Set<Connection> closed = ConcurrentHashMap.newKeySet();
+        ConnectionPool pool = new ConnectionPool(new DBConnector() {
+            @Override
+            protected Connection connect() {
+                Connection connection = stubConnection(closed);
+                opened.add(connection);
+                return connection;
+            }
+
+            @Override
+            protected int getIntDetail(String key, int defaultValue) {
+                return switch (key) {
+                    case "pool.maxSize" -> maxSize;
+                    case "pool.minSize" -> 0;
+                    default -> defaultValue;
+                };
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Connection> leased = ConcurrentHashMap.newKeySet();
+        AtomicInteger mostLeased = new AtomicInteger();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int round = 0; round < ROUNDS; round++) {
+                    try (ConnectionPool.Lease lease = pool.lease()) {
+                        Connection connection = lease.connection();
+                        assertTrue(leased.add(connection), "Connection leased by two threads at once");
+                        mostLeased.accumulateAndGet(leased.size(), Math::max);
+                        assertTrue(connection.getAutoCommit(), "Connection leased part way through a transaction");
+                        // Leave every other transaction open, for the pool to roll back
+                        connection.setAutoCommit(round % 2 == 1);
+                        Thread.yield();
+                        assertTrue(leased.remove(connection));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        for (Future<Void> future : futures) {
+            future.get(); // Rethrows the failure of any thread
+        }
+
+        assertTrue(mostLeased.get() <= maxSize, "Leased " + mostLeased.get() + " connections at once");
+        assertTrue(opened.size() <= maxSize, "Opened " + opened.size() + " connections");
+        pool.shutdown();
+        assertEquals(opened, closed);
+    }
+
+    /**
+     * Creates a Connection which only tracks its auto-commit mode, and whether it has been closed
+     *
+     * @param closed set the connection is added to once it is closed
+     * @return stub Connection
+     */
+    private static Connection stubConnection(Set<Connection> closed) {
+        boolean[] autoCommit = {true};
+        Connection[] self = new Connection[1];
+        self[0] = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getAutoCommit" -> autoCommit[0];
+                    case "setAutoCommit" -> {
+                        autoCommit[0] = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "isValid" -> !closed.contains(self[0]);
+                    case "close" -> {
+                        closed.add(self[0]);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                    default -> null;
+                });
+        return self[0];
+    }
+
+    /**
+     * Runs every thread through rounds of add, get, update, get and remove on its own titles,
+     * while all the threads race to add one shared title each round. Exactly one add of the shared title may succeed.
+     *
+     * @param store  to share between the threads
+     * @param prefix of the titles, so stores sharing a cache do not see each other's items
+     * @throws Exception if a thread fails, or sees an inconsistent result
+     */
+    private void hammer(ToDoListStore store, String prefix) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger[] contendedAdds = new AtomicInteger[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            contendedAdds[round] = new AtomicInteger();
+        }
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int id = thread;
+            Callable<Void> worker = () -> {
+                start.await();
+                for (int round = 0; round < ROUNDS; round++) {
+                    String title = prefix + "-" + id + "-" + round;
+                    store.addListItem(new ListItem(title, "Added", ItemStatus.PENDING));
+                    assertEquals("Added", store.getItemByTitle(title).getDescription());
+
+                    ListItem item = store.getItemByTitle(title);
+                    item.setDescription("Updated");
+                    assertTrue(store.updateListItem(item));
+                    assertEquals("Updated", store.getItemByTitle(title).getDescription());
+
+                    try {
+                        store.addListItem(new ListItem(prefix + "-shared-" + round, "", ItemStatus.PENDING));
+                        contendedAdds[round].incrementAndGet();
+                    } catch (ListItemAlreadyExistsException e) {
+                        // Another thread added it first
+                    }
+
+                    store.removeListItem(title);
+                    assertFalse(store.doesListItemExist(title));
+                }
+                return null;
+            };
+            futures.add(executor.submit(worker));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        for (Future<Void> future : futures) {
+            future.get(); // Rethrows the failure of any thread
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            assertEquals(1, contendedAdds[round].get(), "Shared title of round " + round + " added more than once");
+        }
+        assertEquals(ROUNDS, store.getAllListItems().size());
+    }
+}
@@ -0,0 +1,62 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DescriptionCodecTest {
+
+    /**
+     * Test that descriptions over the threshold are compressed and inflated back unchanged,
+     * and that short and missing descriptions, and those no smaller once compressed, are stored as they are
+     */
+    @Test
+    void compressTest() {
+        String description = "Pick up the caf\u00e9 order \u2615 and the fl\u00e5t white. ".repeat(100);
+        byte[] compressed = DescriptionCodec.compress(description, 1024);
+        assertNotNull(compressed);
+        assertTrue(compressed.length < description.length() / 4);
+        assertEquals(description.getBytes(StandardCharsets.UTF_8).length,
+                ByteBuffer.wrap(compressed).order(ByteOrder.LITTLE_ENDIAN).getInt());
+        assertEquals(description, DescriptionCodec.inflate(compressed));
+
+        assertNull(DescriptionCodec.compress("Short description", 1024));
+        assertNull(DescriptionCodec.compress(description, 0));
+        assertNull(DescriptionCodec.compress(null, 1024));
+
+        // Too short to be smaller once compressed
+        assertNull(DescriptionCodec.compress("Tiny", 1));
+    }
+
+    /**
+     * Test that descriptions compressed in the format of the MySQL COMPRESS() function are inflated,
+     * and that truncated data and impossible lengths are refused
+     */
+    @Test
+    void inflateCompressFormatTest() throws IOException {
+        byte[] text = "Written by the database ".repeat(50).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(text.length).array());
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(text);
+        }
+        byte[] compressed = out.toByteArray();
+        assertEquals(new String(text, StandardCharsets.UTF_8), DescriptionCodec.inflate(compressed));
+
+        assertThrows(IllegalStateException.class, () -> DescriptionCodec.inflate(Arrays.copyOf(compressed, compressed.length / 2)));
+        assertThrows(IllegalStateException.class, () -> DescriptionCodec.inflate(new byte[2]));
+
+        // A corrupt length larger than a MEDIUMBLOB is refused before anything is allocated
+        byte[] oversized = compressed.clone();
+        ByteBuffer.wrap(oversized).order(ByteOrder.LITTLE_ENDIAN).putInt(Integer.MAX_VALUE);
+        assertThrows(IllegalStateException.class, () -> DescriptionCodec.inflate(oversized));
+    }
+}
@@ -0,0 +1,195 @@
+package dao;
+
+import exceptions.ChangesExpiredException;
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import org.junit.jupiter.api.Test;
+import types.ChangeType;
+import types.ItemStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryToDoListStoreTest {
+
+    private final InMemoryToDoListStore store = new InMemoryToDoListStore();
+
+    /**
+     * Test that a stored ListItem can be found by title, and that a copy is returned
+     * so edits are not stored until the item is updated
+     */
+    @Test
+    void addAndGetTest() throws ListItemAlreadyExistsException, ListItemNotFoundException {
+        store.addListItem(new ListItem("Title", "Description", ItemStatus.PENDING));
+
+        ListItem item = store.getItemByTitle("Title");
+        item.setDescription("Edited");
+
+        assertEquals("Description", store.getItemByTitle("Title").getDescription());
+        assertThrows(ListItemAlreadyExistsException.class, () -> store.addListItem(new ListItem("Title", "", ItemStatus.PENDING)));
+    }
+
+    /**
+     * Test that updating a ListItem renames it, and moves it in the status and due date indexes
+     */
+    @Test
+    void updateMovesIndexesTest() throws ListItemAlreadyExistsException, ListItemNotFoundException, ListItemConflictException, InvalidItemStatusException {
+        LocalDateTime dueDate = LocalDateTime.of(2025, 5, 5, 22, 40);
+        store.addListItem(new ListItem("Title", "Description", LocalDateTime.now(), dueDate, ItemStatus.PENDING));
+
+        ListItem item = store.getItemByTitle("Title");
+        item.setTitle("New title");
+        item.setStatus(ItemStatus.COMPLETED);
+        item.setDueDate(dueDate.plusDays(1));
+        assertTrue(store.updateListItem(item));
+
+        assertFalse(store.doesListItemExist("Title"));
+        assertTrue(store.getItemsByStatus(ItemStatus.PENDING).isEmpty());
+        assertEquals("New title", store.getItemsByStatus(ItemStatus.COMPLETED).get(0).getTitle());
+        assertTrue(store.getItemsDueBetween(dueDate, dueDate.plusHours(1)).isEmpty());
+        assertEquals(1, store.getItemsDueBetween(dueDate, dueDate.plusDays(2)).size());
+    }
+
+    /**
+     * Test that a batch reports each duplicate title, and stores the rest
+     */
+    @Test
+    void addListItemsTest() {
+        ListItem first = new ListItem("One", "", ItemStatus.PENDING);
+        ListItem repeated = new ListItem("One", "", ItemStatus.PENDING);
+        BatchInsertResult result = store.addListItems(List.of(
+                first,
+                new ListItem("Two", "", ItemStatus.PENDING),
+                repeated,
+                new ListItem("One", "", ItemStatus.PENDING)));
+
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getFailures().size());
+        assertTrue(result.wasStored(first));
+        assertFalse(result.wasStored(repeated));
+        assertEquals(2, store.getAllListItems().size());
+    }
+
+    /**
+     * Test that queries filter by status and due date, and that keyset pages continue after the previous page
+     */
+    @Test
+    void queryTest() throws ListItemAlreadyExistsException {
+        LocalDateTime created = LocalDateTime.of(2025, 1, 1, 9, 0);
+        store.addListItem(new ListItem("A", "", created, LocalDateTime.of(2025, 2, 1, 9, 0), ItemStatus.PENDING));
+        store.addListItem(new ListItem("B", "", created, LocalDateTime.of(2025, 3, 1, 9, 0), ItemStatus.PROGRESS));
+        store.addListItem(new ListItem("C", "", created.plusDays(1), null, ItemStatus.PENDING));
+        store.addListItem(new ListItem("D", "", created.plusDays(2), LocalDateTime.of(2025, 2, 1, 9, 0), ItemStatus.COMPLETED));
+
+        assertEquals(List.of("A", "C"), titlesOf(ListItemQuery.builder().statuses(ItemStatus.PENDING).build()));
+        assertEquals(List.of("C"), titlesOf(ListItemQuery.builder().withoutDueDate().build()));
+        assertEquals(List.of("A", "D"), titlesOf(ListItemQuery.builder()
+                .dueBetween(LocalDateTime.of(2025, 2, 1, 9, 0), LocalDateTime.of(2025, 3, 1, 9, 0)).build()));
+        assertEquals(List.of("C", "D"), titlesOf(ListItemQuery.builder().createdSince(created.plusDays(1)).build()));
+
+        // Items without a due date come first, then by due date and title
+        ListItemQuery firstPage = ListItemQuery.builder().orderBy(ListItemQuery.Order.DUE_DATE).limit(2).build();
+        assertEquals(List.of("C", "A"), titlesOf(firstPage));
+        ListItemQuery secondPage = firstPage.toBuilder().after(store.query(firstPage).reduce((first, second) -> second).orElseThrow()).build();
+        assertEquals(List.of("D", "B"), titlesOf(secondPage));
+        assertEquals(List.of("B", "D"), titlesOf(firstPage.toBuilder().descending(true).build()));
+    }
+
+    /**
+     * Test that an update made from a copy read before another update was saved is refused,
+     * and succeeds once the copy is read again
+     */
+    @Test
+    void updateConflictTest() throws ListItemAlreadyExistsException, ListItemNotFoundException, ListItemConflictException {
+        store.addListItem(new ListItem("Title", "Description", ItemStatus.PENDING));
+        ListItem first = store.getItemByTitle("Title");
+        ListItem second = store.getItemByTitle("Title");
+
+        first.setDescription("First");
+        assertTrue(store.updateListItem(first));
+        assertEquals(1, first.getVersion());
+
+        second.setDescription("Second");
+        assertThrows(ListItemConflictException.class, () -> store.updateListItem(second));
+        assertEquals("First", store.getItemByTitle("Title").getDescription());
+
+        ListItem reread = store.getItemByTitle("Title");
+        reread.setDescription("Second");
+        assertTrue(store.updateListItem(reread));
+        assertEquals(2, store.getItemByTitle("Title").getVersion());
+        assertEquals(first.getId(), reread.getId());
+    }
+
+    /**
+     * Test that a bulk status update changes only the items matching the filters which do not already have the status,
+     * increments their versions, and records each change
+     */
+    @Test
+    void updateStatusesTest() throws ListItemAlreadyExistsException, ListItemNotFoundException, InvalidItemStatusException, ChangesExpiredException {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+        store.addListItem(new ListItem("Overdue", "", now.minusDays(2), now.minusDays(1), ItemStatus.PENDING));
+        store.addListItem(new ListItem("Due later", "", now.minusDays(2), now.plusDays(1), ItemStatus.PENDING));
+        store.addListItem(new ListItem("Started", "", now.minusDays(2), now.minusDays(1), ItemStatus.PROGRESS));
+        long seen = store.getLatestSequence();
+
+        ListItemQuery overduePending = ListItemQuery.builder().statuses(ItemStatus.PENDING).dueBefore(now).limit(1).build();
+        assertEquals(1, store.updateStatuses(overduePending, ItemStatus.PROGRESS));
+        assertEquals(ItemStatus.PROGRESS, store.getItemByTitle("Overdue").getStatus());
+        assertEquals(1, store.getItemByTitle("Overdue").getVersion());
+        assertEquals(ItemStatus.PENDING, store.getItemByTitle("Due later").getStatus());
+        assertEquals(List.of("Overdue"), store.getChangesSince(seen, 10).stream().map(ChangeEvent::getTitle).toList());
+
+        // Items which already have the status are left alone
+        assertEquals(1, store.updateStatuses(ListItemQuery.builder().build(), ItemStatus.PROGRESS));
+        assertEquals(0, store.getItemByTitle("Started").getVersion());
+        assertEquals(List.of("Due later", "Overdue", "Started"), titlesOf(ListItemQuery.builder().statuses(ItemStatus.PROGRESS).build()));
+        assertThrows(InvalidItemStatusException.class, () -> store.updateStatuses(ListItemQuery.builder().build(), null));
+    }
+
+    /**
+     * Test that every write is recorded in sequence, that only the changes after a sequence are read,
+     * and that reading from a sequence whose changes have been dropped fails
+     */
+    @Test
+    void changesSinceTest() throws ListItemAlreadyExistsException, ListItemNotFoundException, ListItemConflictException, ChangesExpiredException {
+        InMemoryToDoListStore changed = new InMemoryToDoListStore(4);
+        changed.addListItem(new ListItem("A", "", ItemStatus.PENDING));
+        changed.addListItem(new ListItem("B", "", ItemStatus.PENDING));
+        long seen = changed.getLatestSequence();
+
+        ListItem item = changed.getItemByTitle("A");
+        item.setTitle("Renamed");
+        changed.updateListItem(item);
+        changed.removeListItem("B");
+
+        List<ChangeEvent> changes = changed.getChangesSince(seen, 10);
+        assertEquals(List.of(3L, 4L), changes.stream().map(ChangeEvent::getSequence).toList());
+        assertEquals(ChangeType.UPDATE, changes.get(0).getType());
+        assertEquals("A", changes.get(0).getPreviousTitle());
+        assertEquals("Renamed", changes.get(0).getItem().getTitle());
+        assertEquals(ChangeType.REMOVE, changes.get(1).getType());
+        assertNull(changes.get(1).getItem());
+        assertEquals(1, changed.getChangesSince(seen, 1).size());
+
+        // The fifth change drops the first
+        changed.removeAllItems();
+        assertEquals(ChangeType.CLEAR, changed.getChangesSince(4, 10).get(0).getType());
+        assertEquals(4, changed.getChangesSince(1, 10).size());
+        assertThrows(ChangesExpiredException.class, () -> changed.getChangesSince(0, 10));
+    }
+
+    /**
+     * Get the titles of the items returned by the query
+     *
+     * @param query to run
+     * @return titles
+     */
+    private List<String> titlesOf(ListItemQuery query) {
+        return store.query(query).map(ListItem::getTitle).toList();
+    }
+}
@@ -0,0 +1,148 @@
+package dao;
+
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import types.ItemStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that items written to a snapshot are read back from the mapped file, in title order
+     */
+    @Test
+    void writeAndReadTest() throws IOException {
+        Path path = this.directory.resolve("list.snapshot");
+        ListSnapshot.write(path, Stream.of(
+                new ListItem("\u00c9l", "\u00dcn\u00efcode", LocalDateTime.of(2025, 3, 1, 8, 15), LocalDateTime.of(2025, 3, 2, 17, 0), ItemStatus.PROGRESS),
+                new ListItem("A", null, LocalDateTime.of(1969, 12, 31, 23, 59), null, ItemStatus.PENDING)));
+
+        ListSnapshot snapshot = ListSnapshot.open(path);
+        assertEquals(2, snapshot.size());
+        assertEquals("A", snapshot.getTitle(0));
+        assertEquals(1, snapshot.indexOf("\u00c9l"));
+        assertEquals(-1, snapshot.indexOf("B"));
+
+        ListItem item = snapshot.get(snapshot.indexOf("\u00c9l"));
+        assertEquals("\u00dcn\u00efcode", item.getDescription());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 8, 15), item.getTimestamp());
+        assertEquals(LocalDateTime.of(2025, 3, 2, 17, 0), item.getDueDate());
+        assertEquals(ItemStatus.PROGRESS, item.getStatus());
+
+        ListItem empty = snapshot.get(0);
+        assertNull(empty.getDescription());
+        assertNull(empty.getDueDate());
+        assertEquals(LocalDateTime.of(1969, 12, 31, 23, 59), empty.getTimestamp());
+
+        Files.write(path, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> ListSnapshot.open(path));
+    }
+
+    /**
+     * Test that writes made after the snapshot was taken are seen before, and after, the snapshot is rewritten
+     */
+    @Test
+    void snapshotStoreOverlayTest() throws IOException, ListItemAlreadyExistsException, ListItemNotFoundException, ListItemConflictException, InvalidItemStatusException {
+        InMemoryToDoListStore memory = new InMemoryToDoListStore();
+        memory.addListItem(new ListItem("One", "First", ItemStatus.PENDING));
+        memory.addListItem(new ListItem("Two", "Second", ItemStatus.PENDING));
+
+        SnapshotManager snapshots = new SnapshotManager(this.directory.resolve("list.snapshot"));
+        SnapshotToDoListStore store = new SnapshotToDoListStore(memory, snapshots);
+        assertFalse(snapshots.isLoaded());
+        assertEquals("First", store.getItemByTitle("One").getDescription());
+
+        snapshots.refresh(memory);
+        assertTrue(snapshots.isComplete());
+
+        store.addListItem(new ListItem("Three", "Third", ItemStatus.PENDING));
+        ListItem item = store.getItemByTitle("Two");
+        item.setTitle("Renamed");
+        item.setStatus(ItemStatus.COMPLETED);
+        assertTrue(store.updateListItem(item));
+        store.removeListItem("One");
+
+        assertFalse(store.doesListItemExist("One"));
+        assertFalse(store.doesListItemExist("Two"));
+        assertEquals(ItemStatus.COMPLETED, store.getItemByTitle("Renamed").getStatus());
+        assertEquals(2, store.getAllListItems().size());
+
+        snapshots.refresh(memory);
+        assertEquals("Third", store.getItemByTitle("Three").getDescription());
+        assertThrows(ListItemNotFoundException.class, () -> store.getItemByTitle("One"));
+        assertEquals(2, store.getAllListItems().size());
+
+        store.removeAllItems();
+        assertFalse(store.doesListItemExist("Three"));
+        assertTrue(store.getAllListItems().isEmpty());
+
+        // A new manager maps the snapshot left by the previous one
+        SnapshotManager reopened = new SnapshotManager(this.directory.resolve("list.snapshot"));
+        assertTrue(reopened.isLoaded());
+        assertFalse(reopened.isComplete());
+    }
+
+    /**
+     * Test that items given in title order are copied into place, and that a compressed description
+     * which has not been read is written, and read back, without being inflated
+     */
+    @Test
+    void streamedWriteTest() throws IOException {
+        Path path = this.directory.resolve("list.snapshot");
+        String longDescription = "Compressed description ".repeat(100);
+        ListItem compressed = new ListItem("Item 0000", null, LocalDateTime.of(2025, 1, 1, 9, 0), null, ItemStatus.PENDING);
+        compressed.deferDescription(new DescriptionCodec.Compressed(DescriptionCodec.compress(longDescription, 1)));
+        Stream<ListItem> rest = IntStream.range(1, 5000)
+                .mapToObj(i -> new ListItem(String.format("Item %04d", i), "Description " + i, LocalDateTime.of(2025, 1, 1, 9, 0), null, ItemStatus.PENDING));
+        ListSnapshot.write(path, Stream.concat(Stream.of(compressed), rest));
+
+        ListSnapshot snapshot = ListSnapshot.open(path);
+        assertEquals(5000, snapshot.size());
+        assertEquals(4321, snapshot.indexOf("Item 4321"));
+        assertEquals("Description 4321", snapshot.get(4321).getDescription());
+        ListItem read = snapshot.get(0);
+        assertInstanceOf(DescriptionCodec.Compressed.class, read.getDeferredDescription());
+        assertEquals(longDescription, read.getDescription());
+    }
+
+    /**
+     * Test that items written to the store by another client are found before the snapshot is rewritten,
+     * and streamed once it has been rewritten, and that filtered queries are answered by the store
+     */
+    @Test
+    void otherClientWritesTest() throws IOException, ListItemAlreadyExistsException, ListItemNotFoundException {
+        InMemoryToDoListStore memory = new InMemoryToDoListStore();
+        memory.addListItem(new ListItem("One", "First", ItemStatus.PENDING));
+        SnapshotManager snapshots = new SnapshotManager(this.directory.resolve("list.snapshot"));
+        SnapshotToDoListStore store = new SnapshotToDoListStore(memory, snapshots);
+        snapshots.refresh(memory);
+
+        // Written straight to the store, as another client would
+        memory.addListItem(new ListItem("Two", "Second", ItemStatus.PROGRESS));
+        assertTrue(store.doesListItemExist("Two"));
+        assertEquals("Second", store.getItemByTitle("Two").getDescription());
+        try (Stream<ListItem> progress = store.query(ListItemQuery.builder().statuses(ItemStatus.PROGRESS).build())) {
+            assertEquals(1, progress.count());
+        }
+        assertEquals(1, store.getAllListItems().size());
+
+        snapshots.refresh(memory);
+        assertEquals(2, store.getAllListItems().size());
+    }
+}
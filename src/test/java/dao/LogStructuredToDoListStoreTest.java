@@ -0,0 +1,182 @@
+package dao;
+
+import exceptions.ChangesExpiredException;
+import exceptions.InvalidItemStatusException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import exceptions.StorageException;
+import model.ListItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import types.ChangeType;
+import types.ItemStatus;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStructuredToDoListStoreTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that added, updated and removed items are rebuilt from the log when the store is reopened
+     */
+    @Test
+    void reopenReplaysLogTest() throws IOException, ListItemAlreadyExistsException, ListItemNotFoundException, ListItemConflictException, InvalidItemStatusException {
+        LogStructuredToDoListStore store = open();
+        store.addListItem(new ListItem("One", "First", LocalDateTime.of(2025, 1, 1, 9, 30), null, ItemStatus.PENDING));
+        store.addListItem(new ListItem("Two", "Second", ItemStatus.PENDING));
+        store.addListItem(new ListItem("Three", "Third", ItemStatus.PENDING));
+
+        ListItem item = store.getItemByTitle("Two");
+        item.setTitle("Renamed");
+        item.setStatus(ItemStatus.COMPLETED);
+        assertTrue(store.updateListItem(item));
+        store.removeListItem("Three");
+        store.close();
+
+        LogStructuredToDoListStore reopened = open();
+        assertEquals("First", reopened.getItemByTitle("One").getDescription());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 9, 30), reopened.getItemByTitle("One").getTimestamp());
+        assertEquals(ItemStatus.COMPLETED, reopened.getItemByTitle("Renamed").getStatus());
+        assertFalse(reopened.doesListItemExist("Two"));
+        assertFalse(reopened.doesListItemExist("Three"));
+        assertEquals(2, reopened.getAllListItems().size());
+        reopened.close();
+    }
+
+    /**
+     * Test that compacting the sealed segments keeps every live item, and removes the replaced segments
+     */
+    @Test
+    void compactKeepsLiveItemsTest() throws IOException, ListItemAlreadyExistsException, ListItemNotFoundException {
+        LogStructuredToDoListStore store = open();
+        // Small segments, so the items are spread over several sealed segments
+        for (int i = 0; i < 200; i++) {
+            store.addListItem(new ListItem("Item " + i, "Description " + i, ItemStatus.PENDING));
+        }
+        for (int i = 0; i < 200; i += 2) {
+            store.removeListItem("Item " + i);
+        }
+        long segmentsBefore = countSegments();
+        store.compact();
+        assertTrue(countSegments() < segmentsBefore);
+        assertEquals("Description 1", store.getItemByTitle("Item 1").getDescription());
+        store.close();
+
+        LogStructuredToDoListStore reopened = open();
+        assertEquals(100, reopened.getAllListItems().size());
+        assertFalse(reopened.doesListItemExist("Item 0"));
+        assertEquals("Description 199", reopened.getItemByTitle("Item 199").getDescription());
+        reopened.close();
+    }
+
+    /**
+     * Test that every record is a sequenced change until it is compacted, and that the sequence carries on
+     * when the store is reopened
+     */
+    @Test
+    void changeFeedTest() throws IOException, ChangesExpiredException, ListItemAlreadyExistsException, ListItemNotFoundException, ListItemConflictException {
+        LogStructuredToDoListStore store = open();
+        store.addListItem(new ListItem("One", "First", ItemStatus.PENDING));
+        store.addListItem(new ListItem("Two", "Second", ItemStatus.PENDING));
+        ListItem item = store.getItemByTitle("Two");
+        item.setTitle("Renamed");
+        assertTrue(store.updateListItem(item));
+        store.removeListItem("One");
+
+        List<ChangeEvent> changes = store.getChangesSince(0, 10);
+        assertEquals(List.of(ChangeType.ADD, ChangeType.ADD, ChangeType.UPDATE, ChangeType.REMOVE),
+                changes.stream().map(ChangeEvent::getType).toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L), changes.stream().map(ChangeEvent::getSequence).toList());
+        assertEquals("Two", changes.get(2).getPreviousTitle());
+        assertEquals("Second", changes.get(2).getItem().getDescription());
+        assertNull(changes.get(3).getItem());
+        assertEquals(1, store.getChangesSince(3, 10).size());
+        assertEquals(2, store.getChangesSince(0, 2).size());
+        assertEquals(4, store.getLatestSequence());
+        store.close();
+
+        // Changes before the checkpoint are not replayed, and new changes carry on from the latest sequence
+        LogStructuredToDoListStore reopened = open();
+        assertEquals(4, reopened.getLatestSequence());
+        assertThrows(ChangesExpiredException.class, () -> reopened.getChangesSince(0, 10));
+        reopened.addListItem(new ListItem("Three", "Third", ItemStatus.PENDING));
+        assertEquals(5, reopened.getChangesSince(4, 10).get(0).getSequence());
+
+        // Compacting leaves only the latest record of each item, so the compacted changes leave the feed
+        for (int i = 0; i < 50; i++) {
+            reopened.addListItem(new ListItem("Item " + i, "Description " + i, ItemStatus.PENDING));
+        }
+        reopened.compact();
+        assertThrows(ChangesExpiredException.class, () -> reopened.getChangesSince(4, 10));
+        long latest = reopened.getLatestSequence();
+        reopened.removeListItem("Three");
+        assertEquals(ChangeType.REMOVE, reopened.getChangesSince(latest, 10).get(0).getType());
+        reopened.close();
+    }
+
+    /**
+     * Test that a record cut short by a crash is dropped when the store is reopened
+     */
+    @Test
+    void truncatedRecordTest() throws IOException, ListItemAlreadyExistsException {
+        LogStructuredToDoListStore store = open();
+        store.addListItem(new ListItem("One", "First", ItemStatus.PENDING));
+        store.close();
+        // Remove the checkpoint, and append half a record to the segment
+        Files.delete(directory.resolve("checkpoint.dat"));
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        Files.write(segment, new byte[]{0, 0, 0, 50, 1, 2}, StandardOpenOption.APPEND);
+
+        LogStructuredToDoListStore reopened = open();
+        assertTrue(reopened.doesListItemExist("One"));
+        assertEquals(1, reopened.getAllListItems().size());
+        reopened.close();
+    }
+
+    /**
+     * Test that an item which cannot be read from the log fails the Stream, rather than being left out of it
+     */
+    @Test
+    void unreadableItemFailsStreamTest() throws IOException, ListItemAlreadyExistsException {
+        LogStructuredToDoListStore store = open();
+        store.addListItem(new ListItem("One", "First", ItemStatus.PENDING));
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        // Cut the record short underneath the open store
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(4);
+        }
+
+        try (Stream<ListItem> items = store.streamAllListItems()) {
+            assertThrows(StorageException.class, items::toList);
+        }
+        store.close();
+    }
+
+    private LogStructuredToDoListStore open() throws IOException {
+        return new LogStructuredToDoListStore(directory, 1024, false, 3600);
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).count();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package model;
+
+import dao.InMemoryToDoListStore;
+import dao.ListItemQuery;
+import exceptions.InvalidItemStatusException;
+import exceptions.InvalidItemTitleException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import org.junit.jupiter.api.Test;
+import types.ItemStatus;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListItemIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    /**
+     * Test that the status and due date views are served in order, skip completed items,
+     * and follow items as they are renamed, re-dated and removed
+     */
+    @Test
+    void indexViewsTest() throws InvalidItemStatusException {
+        ListItemIndex index = new ListItemIndex();
+        index.load(Stream.of(
+                new ListItem("B late", "", NOW, NOW.minusDays(2), ItemStatus.PENDING),
+                new ListItem("A late", "", NOW, NOW.minusDays(2), ItemStatus.PROGRESS),
+                new ListItem("Done", "", NOW, NOW.minusDays(1), ItemStatus.COMPLETED),
+                new ListItem("Soon", "", NOW, NOW.plusHours(1), ItemStatus.PROGRESS),
+                new ListItem("Later", "", NOW, NOW.plusDays(3), ItemStatus.PENDING),
+                new ListItem("Whenever", "", NOW, null, ItemStatus.PENDING)));
+        assertEquals(6, index.size());
+
+        assertEquals(List.of("A late", "B late"), titles(index.overdue(NOW, 10)));
+        assertEquals(List.of("Soon", "Later"), titles(index.nextDue(NOW, 10)));
+        assertEquals(List.of("Soon"), titles(index.nextDue(NOW, 1)));
+        assertEquals(List.of("A late", "Soon"), titles(index.withStatus(ItemStatus.PROGRESS)));
+        assertEquals(List.of("Done", "Soon"), titles(index.dueBetween(NOW.minusDays(1), NOW.plusDays(1))));
+
+        ListItem renamed = index.get("Later");
+        renamed.setTitle("Sooner");
+        renamed.setDueDate(NOW.plusMinutes(30));
+        renamed.setStatus(ItemStatus.PROGRESS);
+        // Only seen once it is saved
+        assertEquals(List.of("Soon", "Later"), titles(index.nextDue(NOW, 10)));
+        index.update("Later", renamed);
+        index.remove("B late");
+
+        assertNull(index.get("Later"));
+        assertEquals(List.of("Sooner", "Soon"), titles(index.nextDue(NOW, 10)));
+        assertEquals(List.of("A late", "Soon", "Sooner"), titles(index.withStatus(ItemStatus.PROGRESS)));
+        assertEquals(List.of("Whenever"), titles(index.withStatus(ItemStatus.PENDING)));
+        assertEquals(List.of("A late"), titles(index.overdue(NOW, 10)));
+        assertEquals(5, index.size());
+
+        // Completing an item takes it out of the due views, but not the due date range
+        ListItem completed = index.get("Soon");
+        completed.setStatus(ItemStatus.COMPLETED);
+        index.update("Soon", completed);
+        assertEquals(List.of("Sooner"), titles(index.nextDue(NOW, 10)));
+        assertEquals(List.of("Done", "Sooner", "Soon"), titles(index.dueBetween(NOW.minusDays(1), NOW.plusDays(1))));
+    }
+
+    /**
+     * Test that the views served by the item index match the views read from the store, as items are changed through the ToDoList
+     */
+    @Test
+    void toDoListIndexMatchesStoreTest() throws ListItemNotFoundException, ListItemConflictException, InvalidItemTitleException, InvalidItemStatusException {
+        InMemoryToDoListStore store = new InMemoryToDoListStore();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        ToDoList fromStore = new ToDoList(store);
+        fromStore.addListItems(List.of(
+                new ListItem("Overdue", "", now, now.minusDays(1), ItemStatus.PENDING),
+                new ListItem("Tomorrow", "", now, now.plusDays(1), ItemStatus.PROGRESS),
+                new ListItem("Next week", "", now, now.plusDays(7), ItemStatus.PENDING)));
+        ToDoList indexed = new ToDoList(store);
+        indexed.useItemIndex();
+
+        indexed.addListItems(List.of(new ListItem("Today", "", now, now.plusHours(2), ItemStatus.PENDING)));
+        ListItem item = indexed.getListItem("Next week");
+        item.setStatus(ItemStatus.PROGRESS);
+        item.setDueDate(now.minusHours(1));
+        assertTrue(indexed.beginEdit(item).commit());
+        indexed.removeListItem(indexed.getListItem("Tomorrow"));
+        indexed.updateListItemStatuses(ListItemQuery.builder().dueBefore(now.minusHours(12)).build(), ItemStatus.COMPLETED);
+        // The changed items no longer match the status filter, so must be read back by their new status
+        indexed.updateListItemStatuses(ListItemQuery.builder().statuses(ItemStatus.PENDING).dueFrom(now).build(), ItemStatus.PROGRESS);
+
+        for (ToDoList list : List.of(fromStore, indexed)) {
+            assertEquals(List.of("Today"), titles(list.getNextDueListItems(10)));
+            assertEquals(List.of("Next week"), titles(list.getOverdueListItems(10)));
+            assertEquals(List.of("Next week", "Today"), titles(list.getListItemsWithStatus(ItemStatus.PROGRESS)));
+            assertEquals(List.of(), titles(list.getListItemsWithStatus(ItemStatus.PENDING)));
+            assertEquals(List.of("Overdue"), titles(list.getListItemsWithStatus(ItemStatus.COMPLETED)));
+        }
+    }
+
+    /**
+     * Get the titles of the items
+     *
+     * @param items to get the titles of
+     * @return titles in order
+     */
+    private static List<String> titles(List<ListItem> items) {
+        return items.stream().map(ListItem::getTitle).toList();
+    }
+}
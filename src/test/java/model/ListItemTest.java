@@ -3,10 +3,12 @@ package model;
 import exceptions.InvalidDateTimeFormatException;
 import exceptions.InvalidItemStatusException;
 import org.junit.jupiter.api.Test;
+import types.ItemField;
 import types.ItemStatus;
 import util.DateParser;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -79,4 +81,59 @@ class ListItemTest {
         Throwable exception = assertThrows(InvalidItemStatusException.class, () -> setStatusItem.setStatus(null));
         assertEquals("ItemStatus cannot be null", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that changing the properties of a ListItem records which fields have changed,
+     * and that the title it was stored under is kept until the ListItem is saved
+     *
+     * @throws InvalidItemStatusException if status is invalid
+     */
+    @Test
+    void changedFieldsTest() throws InvalidItemStatusException {
+        ListItem item = new ListItem("Title", "Description", LocalDateTime.now(), null, ItemStatus.PENDING);
+        assertFalse(item.hasChanges());
+
+        // Setting a property to its current value is not a change
+        item.setDescription("Description");
+        assertFalse(item.hasChanges());
+
+        item.setTitle("New title");
+        item.setStatus(ItemStatus.COMPLETED);
+        assertEquals(EnumSet.of(ItemField.TITLE, ItemField.STATUS), item.getChangedFields());
+        assertEquals("Title", item.getOriginalTitle());
+
+        // Once saved, there are no changes and the new title is the stored title
+        item.markSaved();
+        assertFalse(item.hasChanges());
+        assertEquals("New title", item.getOriginalTitle());
+    }
+
+    /**
+     * Test that a deferred description is only read the first time it is needed, once for each copy,
+     * and that reading it is not a change
+     */
+    @Test
+    void deferredDescriptionTest() {
+        int[] reads = {0};
+        ListItem item = new ListItem("Title", null, LocalDateTime.now(), null, ItemStatus.PENDING);
+        item.deferDescription(() -> {
+            reads[0]++;
+            return "Long description";
+        });
+        ListItem copy = new ListItem(item);
+        assertEquals("Title", copy.getTitle());
+        assertEquals(ItemStatus.PENDING, copy.getStatus());
+        assertEquals(0, reads[0]);
+
+        assertEquals("Long description", item.getDescription());
+        assertEquals("Long description", item.getDescription());
+        assertEquals(1, reads[0]);
+        assertFalse(item.hasChanges());
+
+        // Replacing the description of the copy never reads it
+        copy.setDescription("Short");
+        assertEquals(EnumSet.of(ItemField.DESCRIPTION), copy.getChangedFields());
+        assertEquals("Short", copy.getDescription());
+        assertEquals(1, reads[0]);
+    }
+}
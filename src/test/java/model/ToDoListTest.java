@@ -1,17 +1,21 @@
 package model;
 
 import exceptions.InvalidItemTitleException;
+import exceptions.ListItemConflictException;
 import exceptions.ListItemNotFoundException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import types.ItemStatus;
 import util.InputReader;
 import util.TestUtil;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
 
 class ToDoListTest {
@@ -107,4 +111,102 @@ class ToDoListTest {
         // Assert that the ListItem due date is what is passed above.
         assertEquals("2025-05-05T22:40", item.getDueDate().toString());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that paging moves forwards, backwards and jumps between pages of the configured size
+     */
+    @Test
+    void pagingTest() {
+        List<ListItem> items = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            items.add(new ListItem(String.format("Item %02d", i), "", ItemStatus.PENDING));
+        }
+        list.addListItems(items);
+
+        ListItemPager pager = list.beginPaging();
+        assertEquals("Item 00", pager.firstPage().get(0).getTitle());
+        assertFalse(pager.hasPreviousPage());
+        assertEquals("Item 10", pager.nextPage().get(0).getTitle());
+        assertEquals(2, pager.getPageNumber());
+        assertEquals("Item 00", pager.previousPage().get(0).getTitle());
+
+        // Only 3 pages exist, so the jump stops at the last page
+        List<ListItem> last = pager.jumpToPage(5);
+        assertEquals(3, pager.getPageNumber());
+        assertEquals(5, last.size());
+        assertFalse(pager.hasNextPage());
+        assertEquals("Item 10", pager.jumpToPage(2).get(0).getTitle());
+    }
+
+    /**
+     * Test that searches find items added, edited and removed through the ToDoList
+     */
+    @Test
+    void searchListItemsTest() throws ListItemNotFoundException, ListItemConflictException, InvalidItemTitleException {
+        TestUtil.createExampleItem();
+        assertEquals(1, list.searchListItems("exam*", 10).size());
+
+        TestUtil.simulateUserInput("Shopping", "Buy eggs", "");
+        list.addToDoListItem(new InputReader());
+        assertEquals("Shopping", list.searchListItems("eggs", 10).get(0).getTitle());
+
+        ItemEditSession session = list.beginEdit(list.getListItem("Shopping"));
+        session.getItem().setDescription("Buy bread");
+        assertTrue(session.commit());
+        assertTrue(list.searchListItems("eggs", 10).isEmpty());
+
+        list.removeListItem(list.getListItem("Shopping"));
+        assertTrue(list.searchListItems("bread", 10).isEmpty());
+    }
+
+    /**
+     * Test that an edit session which conflicts with an edit saved first can be reloaded,
+     * keeping both edits, and committed
+     */
+    @Test
+    void editConflictReloadTest() throws ListItemNotFoundException, ListItemConflictException, InvalidItemTitleException {
+        TestUtil.simulateUserInput("Conflict", "Original", "");
+        list.addToDoListItem(new InputReader());
+
+        ItemEditSession first = list.beginEdit(list.getListItem("Conflict"));
+        ItemEditSession second = list.beginEdit(list.getListItem("Conflict"));
+        first.getItem().setDescription("Edited first");
+        assertTrue(first.commit());
+
+        second.getItem().setTitle("Conflict renamed");
+        assertThrows(ListItemConflictException.class, second::commit);
+        // The edits are kept until the session is reloaded or rolled back
+        assertEquals("Conflict renamed", second.getItem().getTitle());
+
+        second.reload();
+        assertTrue(second.commit());
+        ListItem saved = list.getListItem("Conflict renamed");
+        assertEquals("Edited first", saved.getDescription());
+        assertFalse(list.listItemExists("Conflict"));
+        list.removeListItem(saved);
+    }
+
+    /**
+     * Test that renaming an item onto a title already used is refused and rolled back,
+     * and reported by the ToDoList rather than the store
+     */
+    @Test
+    void renameOntoExistingTitleTest() throws ListItemNotFoundException, ListItemConflictException, InvalidItemTitleException {
+        TestUtil.simulateUserInput("Taken", "First", "");
+        list.addToDoListItem(new InputReader());
+        TestUtil.simulateUserInput("Renamed", "Second", "");
+        list.addToDoListItem(new InputReader());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+
+        ItemEditSession session = list.beginEdit(list.getListItem("Renamed"));
+        session.getItem().setTitle("Taken");
+        assertFalse(session.commit());
+        assertEquals("Renamed", session.getItem().getTitle());
+        assertEquals("Second", list.getListItem("Renamed").getDescription());
+        assertTrue(out.toString().contains("An item with name 'Taken' already exists"));
+
+        list.removeListItem(list.getListItem("Taken"));
+        list.removeListItem(list.getListItem("Renamed"));
+    }
+}
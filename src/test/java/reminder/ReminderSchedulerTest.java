@@ -0,0 +1,183 @@
+package reminder;
+
+import dao.InMemoryToDoListStore;
+import exceptions.InvalidItemStatusException;
+import exceptions.InvalidItemTitleException;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemConflictException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import model.ToDoList;
+import org.junit.jupiter.api.Test;
+import types.ItemStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReminderSchedulerTest {
+
+    // Time the tests start at
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private static final Clock CLOCK = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private final InMemoryToDoListStore store = new InMemoryToDoListStore();
+
+    private final List<Reminder> fired = new ArrayList<>();
+
+    private final ReminderScheduler scheduler = new ReminderScheduler(store, fired::add, CLOCK, 1000, Duration.ofMinutes(60));
+
+    /**
+     * Test that deadlines expire on their tick however far ahead they are, including past the range of the wheel,
+     * and that cancelled deadlines never expire
+     */
+    @Test
+    void timingWheelTest() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 2, 0);
+        Random random = new Random(7);
+        List<TimingWheel.Timeout<Long>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // Up to twice the 4096 ticks the two levels cover
+            long deadline = 1 + random.nextInt(8192);
+            timeouts.add(wheel.schedule(deadline, deadline));
+        }
+        int cancelled = 0;
+        for (int i = 0; i < timeouts.size(); i += 3) {
+            assertTrue(wheel.cancel(timeouts.get(i)));
+            assertFalse(wheel.cancel(timeouts.get(i)));
+            cancelled++;
+        }
+        assertEquals(2000 - cancelled, wheel.size());
+
+        List<Long> expired = new ArrayList<>();
+        for (long now = 0; now <= 8192; now += 1 + random.nextInt(100)) {
+            long time = now;
+            wheel.advanceTo(now, deadline -> {
+                assertTrue(deadline <= time, "Deadline " + deadline + " expired early at " + time);
+                assertTrue(deadline > time - 101, "Deadline " + deadline + " expired late at " + time);
+                expired.add(deadline);
+            });
+        }
+        wheel.advanceTo(8192, expired::add);
+        assertEquals(2000 - cancelled, expired.size());
+        assertEquals(0, wheel.size());
+        for (int i = 1; i < expired.size(); i++) {
+            assertTrue(expired.get(i - 1) <= expired.get(i));
+        }
+        assertFalse(timeouts.get(1).isScheduled());
+    }
+
+    /**
+     * Test that an item is reminded when it comes due, and again when it becomes overdue,
+     * and that items loaded after becoming overdue are only reminded once
+     */
+    @Test
+    void dueAndOverdueTest() throws ListItemAlreadyExistsException {
+        store.addListItem(new ListItem("Soon", "", NOW, NOW.plusMinutes(5), ItemStatus.PENDING));
+        store.addListItem(new ListItem("Late", "", NOW, NOW.minusDays(1), ItemStatus.PROGRESS));
+        store.addListItem(new ListItem("Done", "", NOW, NOW.plusMinutes(5), ItemStatus.COMPLETED));
+        store.addListItem(new ListItem("Whenever", "", ItemStatus.PENDING));
+        scheduler.load();
+        assertEquals(2, scheduler.size());
+
+        scheduler.advanceTo(millis(NOW.plusSeconds(1)));
+        assertEquals(List.of("Late OVERDUE"), describe());
+
+        scheduler.advanceTo(millis(NOW.plusMinutes(5).minusSeconds(1)));
+        assertTrue(describe().isEmpty());
+        scheduler.advanceTo(millis(NOW.plusMinutes(5)));
+        assertEquals(List.of("Soon DUE"), describe());
+        scheduler.advanceTo(millis(NOW.plusMinutes(65)));
+        assertEquals(List.of("Soon OVERDUE"), describe());
+        assertEquals(0, scheduler.size());
+    }
+
+    /**
+     * Test that loading again, e.g. after an import, keeps the reminders which have already fired,
+     * and cancels the reminders of items no longer open
+     */
+    @Test
+    void reloadKeepsFiredRemindersTest() throws ListItemAlreadyExistsException, ListItemNotFoundException {
+        store.addListItem(new ListItem("Late", "", NOW, NOW.minusDays(1), ItemStatus.PROGRESS));
+        store.addListItem(new ListItem("Soon", "", NOW, NOW.plusMinutes(5), ItemStatus.PENDING));
+        store.addListItem(new ListItem("Removed", "", NOW, NOW.plusMinutes(10), ItemStatus.PENDING));
+        scheduler.load();
+        scheduler.advanceTo(millis(NOW.plusMinutes(5)));
+        assertEquals(List.of("Late OVERDUE", "Soon DUE"), describe());
+
+        store.removeListItem("Removed");
+        scheduler.load();
+        assertEquals(1, scheduler.size());
+        scheduler.advanceTo(millis(NOW.plusMinutes(6)));
+        assertTrue(describe().isEmpty());
+        scheduler.advanceTo(millis(NOW.plusMinutes(65)));
+        assertEquals(List.of("Soon OVERDUE"), describe());
+
+        scheduler.load();
+        scheduler.advanceTo(millis(NOW.plusMinutes(66)));
+        assertTrue(describe().isEmpty());
+    }
+
+    /**
+     * Test that edits and removals through the ToDoList reschedule and cancel reminders,
+     * and that a reminder is dropped if the item was completed without the scheduler hearing of it
+     */
+    @Test
+    void toDoListUpdatesRemindersTest() throws ListItemNotFoundException, ListItemConflictException, InvalidItemStatusException, InvalidItemTitleException {
+        ToDoList list = new ToDoList(store);
+        list.useReminders(scheduler);
+        list.addListItems(List.of(
+                new ListItem("Moved", "", NOW, NOW.plusMinutes(10), ItemStatus.PENDING),
+                new ListItem("Removed", "", NOW, NOW.plusMinutes(10), ItemStatus.PENDING),
+                new ListItem("Completed", "", NOW, NOW.plusMinutes(10), ItemStatus.PENDING),
+                new ListItem("Elsewhere", "", NOW, NOW.plusMinutes(10), ItemStatus.PENDING)));
+        assertEquals(4, scheduler.size());
+
+        ListItem moved = list.getListItem("Moved");
+        moved.setDueDate(NOW.plusMinutes(20));
+        assertTrue(list.beginEdit(moved).commit());
+        ListItem completed = list.getListItem("Completed");
+        completed.setStatus(ItemStatus.COMPLETED);
+        assertTrue(list.beginEdit(completed).commit());
+        list.removeListItem(list.getListItem("Removed"));
+        assertEquals(2, scheduler.size());
+
+        // Completed straight through the store, so only the read when the reminder fires sees it
+        ListItem elsewhere = store.getItemByTitle("Elsewhere");
+        elsewhere.setStatus(ItemStatus.COMPLETED);
+        store.updateListItem(elsewhere);
+
+        scheduler.advanceTo(millis(NOW.plusMinutes(10)));
+        assertTrue(describe().isEmpty());
+        scheduler.advanceTo(millis(NOW.plusMinutes(20)));
+        assertEquals(List.of("Moved DUE"), describe());
+    }
+
+    /**
+     * Describes the reminders fired since the last call, and forgets them
+     *
+     * @return title and type of each reminder
+     */
+    private List<String> describe() {
+        List<String> described = fired.stream().map(reminder -> reminder.getTitle() + " " + reminder.getType()).toList();
+        fired.clear();
+        return described;
+    }
+
+    /**
+     * Converts a time to milliseconds on the test clock
+     *
+     * @param time to convert
+     * @return milliseconds
+     */
+    private static long millis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
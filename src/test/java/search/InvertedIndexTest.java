@@ -0,0 +1,57 @@
+package search;
+
+import model.ListItem;
+import org.junit.jupiter.api.Test;
+import types.ItemStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    /**
+     * Test that text is split into lower case runs of letters and digits
+     */
+    @Test
+    void tokenizeTest() {
+        assertEquals(List.of("buy", "2", "to", "do", "lists"), Tokenizer.tokenize("Buy 2 to-do lists!"));
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+    }
+
+    /**
+     * Test that queries match every term, prefixes match the start of words,
+     * and items with the terms in their title rank above items with them in their description
+     */
+    @Test
+    void searchTest() {
+        index.add(new ListItem("Groceries", "Buy milk and bread", ItemStatus.PENDING));
+        index.add(new ListItem("Milk run", "Pick up milk", ItemStatus.PENDING));
+        index.add(new ListItem("Bank", "Pay in cheque", ItemStatus.PENDING));
+
+        assertEquals(List.of("Milk run", "Groceries"), index.search("milk", 10));
+        assertEquals(List.of("Groceries"), index.search("MILK bread", 10));
+        assertEquals(List.of("Bank"), index.search("che*", 10));
+        assertEquals(List.of("Milk run"), index.search("milk", 1));
+        assertTrue(index.search("milk cheque", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    /**
+     * Test that updated and removed items are found by their new terms only
+     */
+    @Test
+    void updateAndRemoveTest() {
+        index.add(new ListItem("Groceries", "Buy milk", ItemStatus.PENDING));
+        index.update("Groceries", new ListItem("Shopping", "Buy eggs", ItemStatus.PENDING));
+
+        assertTrue(index.search("milk", 10).isEmpty());
+        assertEquals(List.of("Shopping"), index.search("eggs", 10));
+
+        index.remove("Shopping");
+        assertTrue(index.search("eggs", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,82 @@
+package transfer;
+
+import dao.InMemoryToDoListStore;
+import exceptions.ListItemAlreadyExistsException;
+import exceptions.ListItemNotFoundException;
+import model.ListItem;
+import org.junit.jupiter.api.Test;
+import types.ItemStatus;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListItemTransferTest {
+
+    /**
+     * Test that items exported in each format are imported unchanged, including fields with commas, quotes and line breaks
+     */
+    @Test
+    void exportThenImportTest() throws IOException, ListItemAlreadyExistsException, ListItemNotFoundException {
+        InMemoryToDoListStore source = new InMemoryToDoListStore();
+        source.addListItem(new ListItem("Quotes, \"and\" commas", "Line one\nLine \\two\\", LocalDateTime.of(2025, 1, 2, 3, 4), LocalDateTime.of(2025, 6, 7, 8, 9), ItemStatus.PROGRESS));
+        source.addListItem(new ListItem("Empty", "", LocalDateTime.of(2025, 1, 2, 3, 4), null, ItemStatus.PENDING));
+        source.addListItem(new ListItem("No description", null, LocalDateTime.of(2025, 1, 2, 3, 4), null, ItemStatus.COMPLETED));
+
+        for (ListItemFormat format : ListItemFormat.values()) {
+            StringWriter out = new StringWriter();
+            assertEquals(3, ListItemExporter.export(source.streamAllListItems(), out, format));
+
+            InMemoryToDoListStore target = new InMemoryToDoListStore();
+            ImportResult result = new ListItemImporter(target, 2).importFrom(new StringReader(out.toString()), format);
+            assertEquals(3, result.getImported(), format + " " + result.getRejections());
+            assertEquals(0, result.getRejected());
+
+            ListItem quoted = target.getItemByTitle("Quotes, \"and\" commas");
+            assertEquals("Line one\nLine \\two\\", quoted.getDescription());
+            assertEquals(LocalDateTime.of(2025, 6, 7, 8, 9), quoted.getDueDate());
+            assertEquals(ItemStatus.PROGRESS, quoted.getStatus());
+            assertEquals("", target.getItemByTitle("Empty").getDescription());
+            assertNull(target.getItemByTitle("No description").getDescription());
+            assertNull(target.getItemByTitle("No description").getDueDate());
+        }
+    }
+
+    /**
+     * Test that invalid records are reported by line, and the valid records are still imported
+     */
+    @Test
+    void rejectedRecordsTest() throws IOException {
+        String csv = """
+                status,title,dueDate
+                PENDING,First,
+                UNKNOWN,Second,
+                ,,
+                COMPLETED,Third,2025-13-01 00:00
+                PROGRESS,First,
+                ,Fourth,2025-02-03 04:05
+                """;
+        InMemoryToDoListStore store = new InMemoryToDoListStore();
+        ImportResult result = new ListItemImporter(store, 10).importFrom(new StringReader(csv), ListItemFormat.CSV);
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getRejected());
+        assertTrue(result.getRejections().containsKey("line 3"));
+        assertTrue(result.getRejections().containsKey("line 4"));
+        assertTrue(result.getRejections().containsKey("line 5"));
+        assertTrue(result.getRejections().containsKey("title 'First'"));
+
+        String jsonLines = """
+                {"title": "Fifth", "status": "completed"}
+                {"title": "Sixth",
+                {"title": {"nested": true}}
+                """;
+        result = new ListItemImporter(store, 10).importFrom(new StringReader(jsonLines), ListItemFormat.JSON_LINES);
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertTrue(result.getRejections().containsKey("line 2"));
+        assertTrue(result.getRejections().containsKey("line 3"));
+    }
+}
@@ -0,0 +1,41 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    /**
+     * Test that every String added to the filter passes it
+     */
+    @Test
+    void noFalseNegativesTest() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("Item " + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("Item " + i));
+        }
+    }
+
+    /**
+     * Test that Strings which were never added rarely pass the filter,
+     * allowing some headroom over the configured false positive rate
+     */
+    @Test
+    void falsePositiveRateTest() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("Item " + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("Missing " + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, falsePositives + " false positives");
+    }
+}
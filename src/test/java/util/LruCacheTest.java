@@ -0,0 +1,58 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    /**
+     * Test that the least recently used value is evicted once the cache is full,
+     * and that hits, misses and evictions are counted
+     */
+    @Test
+    void evictLeastRecentlyUsedTest() {
+        LruCache<String, Integer> cache = new LruCache<>(2, 0);
+        cache.put("one", 1);
+        cache.put("two", 2);
+
+        // Use "one" so that "two" becomes the least recently used value
+        assertEquals(1, cache.get("one"));
+        cache.put("three", 3);
+
+        assertNull(cache.get("two"));
+        assertEquals(1, cache.get("one"));
+        assertEquals(3, cache.get("three"));
+
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    /**
+     * Test that values are no longer returned once their time to live has passed
+     */
+    @Test
+    void expireValuesTest() throws InterruptedException {
+        LruCache<String, Integer> cache = new LruCache<>(10, 20);
+        cache.put("one", 1);
+        assertEquals(1, cache.get("one"));
+
+        Thread.sleep(40);
+
+        assertNull(cache.get("one"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    /**
+     * Test that a cache with a maximum size of 0 holds nothing
+     */
+    @Test
+    void disabledCacheTest() {
+        LruCache<String, Integer> cache = new LruCache<>(0, 0);
+        cache.put("one", 1);
+        assertNull(cache.get("one"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -1,6 +1,8 @@
 package util;
 
-import dao.ToDoListRepository;
+import dao.ToDoListStore;
+import dao.ToDoListStores;
+import exceptions.ListItemAlreadyExistsException;
 import model.ListItem;
 
 import java.io.ByteArrayInputStream;
@@ -32,14 +34,18 @@ public class TestUtil {
      * Title, timestamp and ItemStatus are instantiated. Others are not.
      */
     public static ListItem createExampleItem(){
-        ToDoListRepository repository = new ToDoListRepository();
+        ToDoListStore repository = ToDoListStores.create();
 
         // Create an example ListItem
         ListItem item = new ListItem();
         item.setTitle("Example list item");
 
         // Add the ListItem to the database directly
-        repository.addListItem(item);
+        try {
+            repository.addListItem(item);
+        } catch (ListItemAlreadyExistsException e) {
+            e.printStackTrace();
+        }
 
         return item;
     }